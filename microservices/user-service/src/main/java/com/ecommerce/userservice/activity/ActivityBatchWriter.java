@@ -0,0 +1,67 @@
+package com.ecommerce.userservice.activity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes activity events with a single JDBC batch per flush. With
+ * reWriteBatchedInserts enabled on the PostgreSQL driver the batch is sent
+ * as multi-row INSERT statements. The rollup counters are updated in the same
+ * transaction, so they always match the raw rows, and a batch for users whose
+ * rollups are being rebuilt waits for the rebuild to commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_activities (user_id, activity_type, description, details, ip_address, " +
+            "user_agent, location, is_suspicious, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int DESCRIPTION_LENGTH = 255;
+    private static final int IP_ADDRESS_LENGTH = 50;
+    private static final int USER_AGENT_LENGTH = 500;
+    private static final int LOCATION_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityRollupStore rollupStore;
+    private final ActivityRollupCache rollupCache;
+
+    /**
+     * Insert all events in one batch and add them to the rollups
+     */
+    public void write(List<ActivityEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(events);
+            rollupStore.increment(events);
+        });
+        rollupCache.increment(events);
+    }
+
+    private void insert(List<ActivityEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getUserId());
+            ps.setString(2, event.getActivityType().name());
+            ps.setString(3, truncate(event.getDescription(), DESCRIPTION_LENGTH));
+            ps.setString(4, event.getDetails());
+            ps.setString(5, truncate(event.getIpAddress(), IP_ADDRESS_LENGTH));
+            ps.setString(6, truncate(event.getUserAgent(), USER_AGENT_LENGTH));
+            ps.setString(7, truncate(event.getLocation(), LOCATION_LENGTH));
+            ps.setBoolean(8, event.isSuspicious());
+            ps.setTimestamp(9, Timestamp.valueOf(event.getCreatedAt()));
+        });
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+}
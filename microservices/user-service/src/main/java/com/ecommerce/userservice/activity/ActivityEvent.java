@@ -0,0 +1,26 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable activity record queued for asynchronous persistence to user_activities
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class ActivityEvent {
+    private final Long userId;
+    private final ActivityType activityType;
+    private final String description;
+    private final String details;
+    private final String ipAddress;
+    private final String userAgent;
+    private final String location;
+    private final boolean suspicious;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,266 @@
+package com.ecommerce.userservice.activity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Accepts activity events on the request path without blocking and persists them
+ * from a single background writer in batches. A batch is flushed once it reaches
+ * flush-size events or flush-interval has passed since the last flush, whichever
+ * comes first. On shutdown the writer drains whatever is still queued.
+ */
+@Component
+@Slf4j
+public class ActivityIngestionPipeline implements SmartLifecycle {
+
+    /**
+     * What to do with an event when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /** Discard the event and count it as dropped */
+        DROP,
+        /** Write the event synchronously on the calling thread */
+        CALLER_RUNS
+    }
+
+    private final BoundedRingBuffer<ActivityEvent> buffer;
+    private final ActivityBatchWriter batchWriter;
+    private final SuspiciousActivityDetector detector;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter detectionFailedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile boolean writerIdle;
+    private Thread writerThread;
+
+    public ActivityIngestionPipeline(ActivityBatchWriter batchWriter,
+                                     SuspiciousActivityDetector detector,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.activity-ingestion.buffer-capacity:65536}") int bufferCapacity,
+                                     @Value("${app.activity-ingestion.flush-size:500}") int flushSize,
+                                     @Value("${app.activity-ingestion.flush-interval:200}") long flushIntervalMs,
+                                     @Value("${app.activity-ingestion.shutdown-timeout:10000}") long shutdownTimeoutMs,
+                                     @Value("${app.activity-ingestion.overflow-policy:DROP}") OverflowPolicy overflowPolicy) {
+        this.buffer = new BoundedRingBuffer<>(bufferCapacity);
+        this.batchWriter = batchWriter;
+        this.detector = detector;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+
+        this.acceptedCounter = eventCounter(meterRegistry, "accepted");
+        this.droppedCounter = eventCounter(meterRegistry, "dropped");
+        this.writtenCounter = eventCounter(meterRegistry, "written");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        this.detectionFailedCounter = Counter.builder("activity.ingestion.detection.failures")
+                .description("Batches written without suspicious activity detection because the detector failed")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("activity.ingestion.batch.size")
+                .description("Events written per flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("activity.ingestion.flush")
+                .description("Time to write one batch of activity events")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("activity.ingestion.queue.depth", buffer, BoundedRingBuffer::size)
+                .description("Activity events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("activity.ingestion.queue.capacity", buffer, BoundedRingBuffer::capacity)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an event for persistence. Never blocks; applies the overflow policy when full.
+     */
+    public void submit(ActivityEvent event) {
+        if (!running) {
+            // Not started yet or already shut down: nothing will drain the buffer
+            writeNow(List.of(event));
+            return;
+        }
+
+        if (buffer.offer(event)) {
+            acceptedCounter.increment();
+            if (writerIdle && buffer.size() >= flushSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            writeNow(List.of(event));
+        } else {
+            droppedCounter.increment();
+            log.debug("Activity buffer full, dropping event: {}", event.getActivityType());
+        }
+    }
+
+    private void runWriter() {
+        List<ActivityEvent> batch = new ArrayList<>(flushSize);
+        long lastFlush = System.nanoTime();
+
+        while (running) {
+            buffer.drainTo(batch, flushSize - batch.size());
+
+            long sinceFlush = System.nanoTime() - lastFlush;
+            if (batch.size() >= flushSize || (!batch.isEmpty() && sinceFlush >= flushIntervalNanos)) {
+                flush(batch);
+                lastFlush = System.nanoTime();
+                continue;
+            }
+            if (batch.isEmpty()) {
+                lastFlush = System.nanoTime();
+            }
+
+            writerIdle = true;
+            if (buffer.size() < flushSize && running) {
+                LockSupport.parkNanos(this, Math.max(flushIntervalNanos - sinceFlush, 1));
+            }
+            writerIdle = false;
+        }
+
+        // Graceful shutdown: drain everything that was accepted
+        do {
+            flush(batch);
+        } while (buffer.drainTo(batch, flushSize) > 0);
+    }
+
+    private void flush(List<ActivityEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        writeNow(batch);
+        batch.clear();
+    }
+
+    private void writeNow(List<ActivityEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            int written = write(inspect(batch));
+            if (written > 0) {
+                writtenCounter.increment(written);
+                batchSizeSummary.record(written);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Run the detector over a batch. If it fails the batch is written unflagged, since
+     * losing the events would be worse than missing a finding, and the writer keeps going.
+     */
+    private List<ActivityEvent> inspect(List<ActivityEvent> batch) {
+        try {
+            return detector.inspect(batch);
+        } catch (RuntimeException ex) {
+            detectionFailedCounter.increment();
+            log.error("Suspicious activity detection failed for {} events, writing them unflagged",
+                    batch.size(), ex);
+            return batch;
+        }
+    }
+
+    /**
+     * Write the events, bisecting a batch the database rejected for its data so only the
+     * offending rows are dropped. Any other failure (connection lost, timeout) would fail
+     * every half alike, so the batch is dropped without retrying. Returns the rows written.
+     */
+    private int write(List<ActivityEvent> events) {
+        try {
+            batchWriter.write(events);
+            return events.size();
+        } catch (DataIntegrityViolationException ex) {
+            if (events.size() > 1) {
+                int half = events.size() / 2;
+                return write(events.subList(0, half)) + write(events.subList(half, events.size()));
+            }
+            ActivityEvent event = events.get(0);
+            failedCounter.increment();
+            log.error("Dropping activity event {} for user {}: {}",
+                    event.getActivityType(), event.getUserId(), ex.getMostSpecificCause().getMessage());
+            return 0;
+        } catch (RuntimeException ex) {
+            failedCounter.increment(events.size());
+            log.error("Failed to write {} activity events: {}", events.size(), ex.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "activity-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Activity ingestion started: capacity={}, flushSize={}, overflowPolicy={}",
+                buffer.capacity(), flushSize, overflowPolicy);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("Activity writer did not finish within {} ms, {} events may be lost",
+                    shutdownTimeoutMs, buffer.size());
+        } else {
+            log.info("Activity ingestion stopped, queue drained");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server has stopped taking requests, but before the DataSource is closed
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("activity.ingestion.events")
+                .description("Activity events by ingestion outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,226 @@
+package com.ecommerce.userservice.activity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintains the monthly partitions of user_activities: creates upcoming months
+ * ahead of time and removes months that are entirely past the retention period.
+ * Removing a partition is a catalog operation, independent of how many rows it
+ * holds, and leaves no dead tuples or index bloat behind.
+ * <p>
+ * Rows without a monthly partition land in the default partition. A new month is
+ * therefore built as a standalone table, filled with any of its rows parked there,
+ * and attached, which locks the parent only against concurrent DDL. Detaching
+ * needs an exclusive lock on the parent (CONCURRENTLY is not allowed alongside a
+ * default partition), so DDL runs under a lock timeout and gives up rather than
+ * queueing activity writes behind a long-running query.
+ * <p>
+ * Every node schedules maintenance, so a run holds a PostgreSQL advisory lock and
+ * is skipped while another node's run is in progress.
+ */
+@Component
+@Slf4j
+public class ActivityPartitionManager {
+
+    // Arbitrary application-wide key for pg_try_advisory_lock
+    static final long ADVISORY_LOCK_KEY = 0x0AC7_1717_9A27L;
+
+    private static final String PARENT_TABLE = "user_activities";
+    private static final String PARTITION_PREFIX = "user_activities_p";
+    private static final String DEFAULT_PARTITION = "user_activities_default";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityRollupStore rollupStore;
+    private final ActivityRollupCache rollupCache;
+    private final int premakeMonths;
+    private final int retentionDays;
+    private final boolean dropDetached;
+    private final long lockTimeoutMs;
+
+    public ActivityPartitionManager(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    ActivityRollupStore rollupStore,
+                                    ActivityRollupCache rollupCache,
+                                    @Value("${app.activity-partitions.premake-months:3}") int premakeMonths,
+                                    @Value("${app.activity-partitions.retention-days:365}") int retentionDays,
+                                    @Value("${app.activity-partitions.drop-detached:true}") boolean dropDetached,
+                                    @Value("${app.activity-partitions.lock-timeout:5000}") long lockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupStore = rollupStore;
+        this.rollupCache = rollupCache;
+        this.premakeMonths = premakeMonths;
+        this.retentionDays = retentionDays;
+        this.dropDetached = dropDetached;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Daily maintenance with the configured retention. Does nothing if another node
+     * holds the maintenance lock. The lock is held on a connection of its own while the
+     * DDL runs in separate transactions.
+     */
+    @Scheduled(cron = "${app.activity-partitions.maintenance-cron:0 15 2 * * *}")
+    public void maintainPartitions() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!tryLock(connection)) {
+                    log.debug("Activity partition lock held by another node, skipping maintenance");
+                    return null;
+                }
+                try {
+                    createUpcomingPartitions();
+                    removePartitionsBefore(LocalDate.now().minusDays(retentionDays));
+                } finally {
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.error("Activity partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Make sure partitions exist for the current month and the next premake-months
+     */
+    public void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            setLockTimeout();
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+                return;
+            }
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)", partition, PARENT_TABLE));
+            int moved = jdbcTemplate.update(String.format(
+                    "WITH moved AS (DELETE FROM %s WHERE created_at >= ? AND created_at < ? RETURNING *) " +
+                    "INSERT INTO %s SELECT * FROM moved", DEFAULT_PARTITION, partition),
+                    from.atStartOfDay(), to.atStartOfDay());
+            jdbcTemplate.execute(String.format(
+                    "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                    PARENT_TABLE, partition, from, to));
+            log.info("Created activity partition {} ({} rows moved from the default partition)", partition, moved);
+        });
+    }
+
+    /**
+     * Detach (and optionally drop) every partition whose whole month lies before the cutoff.
+     * Rows of the month containing the cutoff stay until that month expires as a whole.
+     * Expired rows parked in the default partition are deleted. Rollup counters are reduced
+     * by exactly what was removed, in the same transaction, so a partition that could not be
+     * removed keeps its counts until it is.
+     *
+     * @return number of partitions removed
+     */
+    public int removePartitionsBefore(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, PARENT_TABLE);
+        Set<Long> affectedUsers = new HashSet<>();
+        int removed = 0;
+        for (String partition : partitions) {
+            YearMonth month = parseMonth(partition);
+            if (month == null || month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                affectedUsers.addAll(transactionTemplate.execute(status -> {
+                    setLockTimeout();
+                    jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+                    if (dropDetached) {
+                        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                    }
+                    return rollupStore.purgeBetween(month.atDay(1), month.plusMonths(1).atDay(1));
+                }));
+                removed++;
+                log.info("Removed activity partition {} ({})", partition, dropDetached ? "dropped" : "detached");
+            } catch (DataAccessException ex) {
+                // Another instance may have removed it first, or the lock timed out; retried next run
+                log.warn("Could not remove activity partition {}: {}", partition, ex.getMessage());
+            }
+        }
+        affectedUsers.addAll(transactionTemplate.execute(status ->
+                rollupStore.deleteRawBefore(DEFAULT_PARTITION, YearMonth.from(cutoff).atDay(1))));
+
+        rollupCache.evict(affectedUsers);
+        return removed;
+    }
+
+    private void setLockTimeout() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+    }
+
+    private static YearMonth parseMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
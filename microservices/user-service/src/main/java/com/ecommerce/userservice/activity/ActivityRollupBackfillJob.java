@@ -0,0 +1,128 @@
+package com.ecommerce.userservice.activity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the activity rollups from raw user_activities. The user id space is
+ * split into fixed-size chunks that are recomputed in parallel, each in its own
+ * transaction, so a failure only affects its chunk and can be retried by running
+ * the job again. Ingestion keeps running during a rebuild; only batches for users
+ * of a chunk being rebuilt wait, until that chunk's transaction commits.
+ */
+@Component
+@Slf4j
+public class ActivityRollupBackfillJob {
+
+    private final ActivityRollupStore rollupStore;
+    private final ActivityRollupCache rollupCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger chunksTotal = new AtomicInteger();
+    private final AtomicInteger chunksDone = new AtomicInteger();
+    private final AtomicInteger chunksFailed = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public ActivityRollupBackfillJob(ActivityRollupStore rollupStore,
+                                     ActivityRollupCache rollupCache,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.activity-rollups.backfill.parallelism:4}") int parallelism,
+                                     @Value("${app.activity-rollups.backfill.chunk-size:1000}") int chunkSize) {
+        this.rollupStore = rollupStore;
+        this.rollupCache = rollupCache;
+        this.transactionTemplate = transactionTemplate;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Start a rebuild in the background. Returns false if one is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        chunksTotal.set(0);
+        chunksDone.set(0);
+        chunksFailed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Thread thread = new Thread(this::run, "activity-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void run() {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            long[] range = rollupStore.userIdRange();
+            if (range == null) {
+                return;
+            }
+
+            long from = range[0];
+            long to = range[1] + 1;
+            chunksTotal.set((int) ((to - from + chunkSize - 1) / chunkSize));
+            log.info("Rebuilding activity rollups for user ids [{}, {}) in {} chunks", from, to, chunksTotal.get());
+
+            CompletableFuture<?>[] chunks = new CompletableFuture<?>[chunksTotal.get()];
+            for (int i = 0; i < chunks.length; i++) {
+                long chunkFrom = from + (long) i * chunkSize;
+                long chunkTo = Math.min(chunkFrom + chunkSize, to);
+                chunks[i] = CompletableFuture.runAsync(() -> rebuildChunk(chunkFrom, chunkTo), executor);
+            }
+            CompletableFuture.allOf(chunks).join();
+        } catch (RuntimeException ex) {
+            log.error("Activity rollup rebuild failed: {}", ex.getMessage(), ex);
+        } finally {
+            executor.shutdown();
+            rollupCache.clear();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            log.info("Activity rollup rebuild finished: {} chunks, {} failed", chunksDone.get(), chunksFailed.get());
+        }
+    }
+
+    private void rebuildChunk(long fromUserId, long toUserId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupStore.rebuild(fromUserId, toUserId));
+        } catch (RuntimeException ex) {
+            chunksFailed.incrementAndGet();
+            log.warn("Failed to rebuild activity rollups for user ids [{}, {}): {}",
+                    fromUserId, toUserId, ex.getMessage());
+        } finally {
+            chunksDone.incrementAndGet();
+        }
+    }
+
+    /**
+     * Progress of the current or last rebuild
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("chunksTotal", chunksTotal.get());
+        status.put("chunksDone", chunksDone.get());
+        status.put("chunksFailed", chunksFailed.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Optional Redis mirror of the per-type activity totals: one hash per user with
+ * one field per activity type. Filled on read, then kept current by incrementing
+ * the fields after each ingested batch commits. Entries expire after the
+ * configured TTL, which also bounds drift if an increment is missed.
+ */
+@Component
+@Slf4j
+public class ActivityRollupCache {
+
+    private static final String KEY_PREFIX = "activity:counts:";
+
+    // KEYS: user hash | ARGV: field, delta, field, delta, ...
+    private static final RedisScript<Long> INCREMENT_IF_PRESENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    public ActivityRollupCache(StringRedisTemplate redisTemplate,
+                               @Value("${app.activity-rollups.redis-mirror.enabled:false}") boolean enabled,
+                               @Value("${app.activity-rollups.redis-mirror.ttl:PT1H}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Per-type totals from Redis, loading and storing them on a miss
+     */
+    public Map<ActivityType, Long> getCountsByType(Long userId, Supplier<Map<ActivityType, Long>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key = key(userId);
+        try {
+            Map<Object, Object> cached = redisTemplate.opsForHash().entries(key);
+            if (!cached.isEmpty()) {
+                Map<ActivityType, Long> counts = new EnumMap<>(ActivityType.class);
+                cached.forEach((field, value) -> {
+                    long count = Long.parseLong((String) value);
+                    if (count > 0) {
+                        counts.put(ActivityType.valueOf((String) field), count);
+                    }
+                });
+                return counts;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Activity rollup cache read failed for user {}: {}", userId, ex.getMessage());
+            return loader.get();
+        }
+
+        Map<ActivityType, Long> counts = loader.get();
+        if (!counts.isEmpty()) {
+            try {
+                Map<String, String> fields = new HashMap<>();
+                counts.forEach((type, count) -> fields.put(type.name(), Long.toString(count)));
+                redisTemplate.opsForHash().putAll(key, fields);
+                redisTemplate.expire(key, ttl);
+            } catch (RuntimeException ex) {
+                log.warn("Activity rollup cache fill failed for user {}: {}", userId, ex.getMessage());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Apply the increments of a committed batch to users that are currently cached
+     */
+    public void increment(Collection<ActivityEvent> events) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<Long, Map<ActivityType, Long>> deltas = new HashMap<>();
+        for (ActivityEvent event : events) {
+            deltas.computeIfAbsent(event.getUserId(), id -> new EnumMap<>(ActivityType.class))
+                    .merge(event.getActivityType(), 1L, Long::sum);
+        }
+
+        try {
+            deltas.forEach((userId, byType) -> {
+                List<String> args = new ArrayList<>(byType.size() * 2);
+                byType.forEach((type, delta) -> {
+                    args.add(type.name());
+                    args.add(Long.toString(delta));
+                });
+                redisTemplate.execute(INCREMENT_IF_PRESENT_SCRIPT, List.of(key(userId)), args.toArray());
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Activity rollup cache increment failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Forget the cached totals of the given users
+     */
+    public void evict(Collection<Long> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(userIds.stream().map(ActivityRollupCache::key).toList());
+        } catch (RuntimeException ex) {
+            log.warn("Activity rollup cache eviction failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Forget all cached totals, e.g. after a rebuild
+     */
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == 1000) {
+                    redisTemplate.delete(keys);
+                    keys.clear();
+                }
+            }
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Activity rollup cache clear failed: {}", ex.getMessage());
+        }
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
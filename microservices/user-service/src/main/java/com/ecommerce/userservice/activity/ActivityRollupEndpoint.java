@@ -0,0 +1,35 @@
+package com.ecommerce.userservice.activity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to trigger and monitor a rebuild of the activity rollups
+ */
+@Component
+@Endpoint(id = "activityrollups")
+@RequiredArgsConstructor
+public class ActivityRollupEndpoint {
+
+    private final ActivityRollupBackfillJob backfillJob;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return backfillJob.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        boolean started = backfillJob.start();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("started", started);
+        status.putAll(backfillJob.status());
+        return status;
+    }
+}
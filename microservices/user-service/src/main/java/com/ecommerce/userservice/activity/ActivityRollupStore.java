@@ -0,0 +1,260 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * JDBC access to the activity rollup tables. Reads touch at most one row per
+ * activity type (totals) or per day and type (trend), independent of how many
+ * raw events a user has.
+ * <p>
+ * Increments and rebuilds of the same users must not interleave: a rebuild that reads
+ * raw history before a batch commits would overwrite the batch's increments. Both take
+ * transaction-scoped advisory locks on blocks of user ids, shared for increments and
+ * exclusive for a rebuild, so batches never wait for each other and a batch only waits
+ * for a rebuild of its own users.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityRollupStore {
+
+    private static final String INCREMENT_DAILY_SQL =
+            "INSERT INTO user_activity_daily_counts (user_id, activity_date, activity_type, activity_count) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (user_id, activity_date, activity_type) " +
+            "DO UPDATE SET activity_count = user_activity_daily_counts.activity_count + EXCLUDED.activity_count";
+
+    private static final String INCREMENT_TOTAL_SQL =
+            "INSERT INTO user_activity_type_counts (user_id, activity_type, activity_count, last_activity_at) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (user_id, activity_type) " +
+            "DO UPDATE SET activity_count = user_activity_type_counts.activity_count + EXCLUDED.activity_count, " +
+            "last_activity_at = GREATEST(user_activity_type_counts.last_activity_at, EXCLUDED.last_activity_at)";
+
+    private static final String PURGE_DAILY_SQL =
+            "WITH purged AS (" +
+            "  DELETE FROM user_activity_daily_counts WHERE activity_date >= ? AND activity_date < ? " +
+            "  RETURNING user_id, activity_type, activity_count" +
+            "), expired AS (" +
+            "  SELECT user_id, activity_type, SUM(activity_count) AS expired_count FROM purged " +
+            "  GROUP BY user_id, activity_type" +
+            ") " +
+            "UPDATE user_activity_type_counts t SET activity_count = t.activity_count - e.expired_count " +
+            "FROM expired e WHERE t.user_id = e.user_id AND t.activity_type = e.activity_type " +
+            "RETURNING t.user_id";
+
+    private static final String REBUILD_DAILY_SQL =
+            "INSERT INTO user_activity_daily_counts (user_id, activity_date, activity_type, activity_count) " +
+            "SELECT user_id, CAST(created_at AS date), activity_type, COUNT(*) FROM user_activities " +
+            "WHERE user_id >= ? AND user_id < ? " +
+            "GROUP BY user_id, CAST(created_at AS date), activity_type " +
+            "ON CONFLICT (user_id, activity_date, activity_type) " +
+            "DO UPDATE SET activity_count = EXCLUDED.activity_count";
+
+    // Subtracts raw rows from both counters as they are deleted, keeping the rollups exact
+    private static final String DELETE_RAW_SQL =
+            "WITH deleted AS (" +
+            "  DELETE FROM %s WHERE created_at < ? " +
+            "  RETURNING user_id, CAST(created_at AS date) AS activity_date, activity_type" +
+            "), expired AS (" +
+            "  SELECT user_id, activity_date, activity_type, COUNT(*) AS expired_count FROM deleted " +
+            "  GROUP BY user_id, activity_date, activity_type" +
+            "), daily AS (" +
+            "  UPDATE user_activity_daily_counts d SET activity_count = d.activity_count - e.expired_count " +
+            "  FROM expired e WHERE d.user_id = e.user_id AND d.activity_date = e.activity_date " +
+            "  AND d.activity_type = e.activity_type" +
+            ") " +
+            "UPDATE user_activity_type_counts t SET activity_count = t.activity_count - e.expired_count " +
+            "FROM (SELECT user_id, activity_type, SUM(expired_count) AS expired_count FROM expired " +
+            "      GROUP BY user_id, activity_type) e " +
+            "WHERE t.user_id = e.user_id AND t.activity_type = e.activity_type " +
+            "RETURNING t.user_id";
+
+    private static final String REBUILD_TOTALS_SQL =
+            "INSERT INTO user_activity_type_counts (user_id, activity_type, activity_count, last_activity_at) " +
+            "SELECT user_id, activity_type, COUNT(*), MAX(created_at) FROM user_activities " +
+            "WHERE user_id >= ? AND user_id < ? GROUP BY user_id, activity_type " +
+            "ON CONFLICT (user_id, activity_type) " +
+            "DO UPDATE SET activity_count = EXCLUDED.activity_count, last_activity_at = EXCLUDED.last_activity_at";
+
+    // Advisory lock space of the rollups; the second key is the block of user ids
+    private static final int LOCK_CLASS = 0x0AC7_0114;
+    private static final long USERS_PER_LOCK = 1_000;
+
+    // Rows are produced, and locks taken, in array order
+    private static final String LOCK_BLOCKS_SHARED_SQL =
+            "SELECT pg_advisory_xact_lock_shared(?, block) FROM unnest(?) AS block";
+
+    private static final String LOCK_BLOCKS_SQL =
+            "SELECT pg_advisory_xact_lock(?, block) FROM generate_series(?, ?) AS block";
+
+    // Upserts are applied in key order so writers on different nodes lock rows in the same order
+    private static final Comparator<DailyKey> DAILY_ORDER = Comparator
+            .comparing(DailyKey::userId)
+            .thenComparing(DailyKey::date)
+            .thenComparing(DailyKey::type);
+    private static final Comparator<TotalKey> TOTAL_ORDER = Comparator
+            .comparing(TotalKey::userId)
+            .thenComparing(TotalKey::type);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add the events of one batch to the counters. Must run in the transaction that inserts the events.
+     */
+    public void increment(List<ActivityEvent> events) {
+        lockBlocksShared(events);
+
+        Map<DailyKey, Long> daily = new TreeMap<>(DAILY_ORDER);
+        for (ActivityEvent event : events) {
+            DailyKey key = new DailyKey(event.getUserId(), event.getCreatedAt().toLocalDate(), event.getActivityType());
+            daily.merge(key, 1L, Long::sum);
+        }
+
+        Map<TotalKey, Long> totals = new TreeMap<>(TOTAL_ORDER);
+        daily.forEach((key, count) -> totals.merge(new TotalKey(key.userId(), key.type()), count, Long::sum));
+        Map<TotalKey, LocalDateTime> latest = new HashMap<>();
+        for (ActivityEvent event : events) {
+            latest.merge(new TotalKey(event.getUserId(), event.getActivityType()), event.getCreatedAt(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        List<Object[]> dailyArgs = new ArrayList<>(daily.size());
+        daily.forEach((key, count) -> dailyArgs.add(
+                new Object[]{key.userId(), Date.valueOf(key.date()), key.type().name(), count}));
+        List<Object[]> totalArgs = new ArrayList<>(totals.size());
+        totals.forEach((key, count) -> totalArgs.add(
+                new Object[]{key.userId(), key.type().name(), count, Timestamp.valueOf(latest.get(key))}));
+
+        jdbcTemplate.batchUpdate(INCREMENT_DAILY_SQL, dailyArgs);
+        jdbcTemplate.batchUpdate(INCREMENT_TOTAL_SQL, totalArgs);
+    }
+
+    /**
+     * Share the lock of every block of users in the batch, all in one statement and in
+     * ascending order, before any counter row is locked
+     */
+    private void lockBlocksShared(List<ActivityEvent> events) {
+        Set<Integer> blocks = new TreeSet<>();
+        for (ActivityEvent event : events) {
+            blocks.add(block(event.getUserId()));
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOCK_BLOCKS_SHARED_SQL);
+            statement.setInt(1, LOCK_CLASS);
+            statement.setArray(2, connection.createArrayOf("integer", blocks.toArray()));
+            return statement;
+        }, rs -> {
+        });
+    }
+
+    /**
+     * Count per activity type for a user
+     */
+    public Map<ActivityType, Long> countsByType(Long userId) {
+        Map<ActivityType, Long> counts = new EnumMap<>(ActivityType.class);
+        jdbcTemplate.query(
+                "SELECT activity_type, activity_count FROM user_activity_type_counts " +
+                "WHERE user_id = ? AND activity_count > 0",
+                rs -> {
+                    counts.put(ActivityType.valueOf(rs.getString(1)), rs.getLong(2));
+                },
+                userId);
+        return counts;
+    }
+
+    /**
+     * Count per day across all activity types, oldest day first
+     */
+    public Map<LocalDate, Long> dailyTotals(Long userId, LocalDate since) {
+        Map<LocalDate, Long> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT activity_date, SUM(activity_count) FROM user_activity_daily_counts " +
+                "WHERE user_id = ? AND activity_date >= ? GROUP BY activity_date ORDER BY activity_date",
+                rs -> {
+                    totals.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+                },
+                userId, Date.valueOf(since));
+        return totals;
+    }
+
+    /**
+     * Drop the daily counters of [fromDay, toDay), whose raw rows were removed in bulk,
+     * and subtract them from the totals
+     *
+     * @return ids of users whose totals changed
+     */
+    public Set<Long> purgeBetween(LocalDate fromDay, LocalDate toDay) {
+        Set<Long> affectedUsers = Set.copyOf(jdbcTemplate.queryForList(
+                PURGE_DAILY_SQL, Long.class, Date.valueOf(fromDay), Date.valueOf(toDay)));
+        jdbcTemplate.update("DELETE FROM user_activity_type_counts WHERE activity_count <= 0");
+        return affectedUsers;
+    }
+
+    /**
+     * Delete the raw rows of an activity table created before the given day, subtracting
+     * exactly those rows from the counters
+     *
+     * @return ids of users whose totals changed
+     */
+    public Set<Long> deleteRawBefore(String table, LocalDate firstRetainedDay) {
+        Set<Long> affectedUsers = Set.copyOf(jdbcTemplate.queryForList(
+                String.format(DELETE_RAW_SQL, table), Long.class, Date.valueOf(firstRetainedDay)));
+        jdbcTemplate.update("DELETE FROM user_activity_daily_counts WHERE activity_count <= 0");
+        jdbcTemplate.update("DELETE FROM user_activity_type_counts WHERE activity_count <= 0");
+        return affectedUsers;
+    }
+
+    /**
+     * Recompute the counters of users in [fromUserId, toUserId) from raw history.
+     * Must run in a transaction so readers never see a half-rebuilt range; batches of
+     * these users wait until it commits.
+     */
+    public void rebuild(long fromUserId, long toUserId) {
+        jdbcTemplate.query(LOCK_BLOCKS_SQL, rs -> {
+        }, LOCK_CLASS, block(fromUserId), block(toUserId - 1));
+        jdbcTemplate.update("DELETE FROM user_activity_daily_counts WHERE user_id >= ? AND user_id < ?",
+                fromUserId, toUserId);
+        jdbcTemplate.update(REBUILD_DAILY_SQL, fromUserId, toUserId);
+        jdbcTemplate.update("DELETE FROM user_activity_type_counts WHERE user_id >= ? AND user_id < ?",
+                fromUserId, toUserId);
+        jdbcTemplate.update(REBUILD_TOTALS_SQL, fromUserId, toUserId);
+    }
+
+    /**
+     * Lowest and highest user id, or null if there are no users
+     */
+    public long[] userIdRange() {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+        if (row.get("min_id") == null) {
+            return null;
+        }
+        return new long[]{((Number) row.get("min_id")).longValue(), ((Number) row.get("max_id")).longValue()};
+    }
+
+    private static int block(long userId) {
+        return Math.toIntExact(userId / USERS_PER_LOCK);
+    }
+
+    private record DailyKey(Long userId, LocalDate date, ActivityType type) {
+    }
+
+    private record TotalKey(Long userId, ActivityType type) {
+    }
+}
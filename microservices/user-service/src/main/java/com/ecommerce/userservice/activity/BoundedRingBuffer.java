@@ -0,0 +1,110 @@
+package com.ecommerce.userservice.activity;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer queue backed by a power-of-two ring.
+ * Each slot carries a sequence number that tells producers and the consumer
+ * whether it is free or filled, so neither side ever takes a lock or blocks;
+ * {@link #offer} simply returns false when the ring is full.
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public BoundedRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element without blocking. Returns false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, or return null if none is ready
+     */
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements ready elements into the target collection
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of queued elements
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming anomaly detector over login-related activity. Runs in the ingestion
+ * pipeline just before a batch is written, so flagged events are stored with
+ * is_suspicious already set and a SUSPICIOUS_ACTIVITY_DETECTED event is written
+ * next to them, without any extra query or UPDATE. State lives in fixed-size
+ * primitive tables, so memory does not grow with the number of users or IPs.
+ */
+@Component
+@Slf4j
+public class SuspiciousActivityDetector {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final boolean enabled;
+    private final long windowMs;
+    private final int userFailureThreshold;
+    private final int ipFailureThreshold;
+    private final int ipAccountThreshold;
+
+    private final WindowTables.Timestamps userFailures;
+    private final WindowTables.Timestamps ipFailures;
+    private final WindowTables.DistinctMembers accountsPerIp;
+    private final WindowTables.RecentValues knownDevices;
+
+    private final Counter velocityCounter;
+    private final Counter ipVelocityCounter;
+    private final Counter accountsPerIpCounter;
+    private final Counter newDeviceCounter;
+
+    public SuspiciousActivityDetector(MeterRegistry meterRegistry,
+                                      @Value("${app.suspicious-activity.enabled:true}") boolean enabled,
+                                      @Value("${app.suspicious-activity.table-slots:16384}") int tableSlots,
+                                      @Value("${app.suspicious-activity.window:60000}") long windowMs,
+                                      @Value("${app.suspicious-activity.user-failure-threshold:5}") int userFailureThreshold,
+                                      @Value("${app.suspicious-activity.ip-failure-threshold:20}") int ipFailureThreshold,
+                                      @Value("${app.suspicious-activity.ip-account-threshold:5}") int ipAccountThreshold,
+                                      @Value("${app.suspicious-activity.known-devices:4}") int knownDevices) {
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.userFailureThreshold = userFailureThreshold;
+        this.ipFailureThreshold = ipFailureThreshold;
+        this.ipAccountThreshold = ipAccountThreshold;
+
+        this.userFailures = new WindowTables.Timestamps(tableSlots, userFailureThreshold);
+        this.ipFailures = new WindowTables.Timestamps(tableSlots, ipFailureThreshold);
+        this.accountsPerIp = new WindowTables.DistinctMembers(tableSlots, ipAccountThreshold);
+        this.knownDevices = new WindowTables.RecentValues(tableSlots, knownDevices);
+
+        this.velocityCounter = ruleCounter(meterRegistry, "user-failure-velocity");
+        this.ipVelocityCounter = ruleCounter(meterRegistry, "ip-failure-velocity");
+        this.accountsPerIpCounter = ruleCounter(meterRegistry, "accounts-per-ip");
+        this.newDeviceCounter = ruleCounter(meterRegistry, "new-device");
+    }
+
+    /**
+     * Run the detector over a batch. Returns the batch with flagged events marked
+     * suspicious, followed by one SUSPICIOUS_ACTIVITY_DETECTED event per finding.
+     */
+    public synchronized List<ActivityEvent> inspect(List<ActivityEvent> events) {
+        if (!enabled) {
+            return events;
+        }
+
+        List<ActivityEvent> result = null;
+        for (int i = 0; i < events.size(); i++) {
+            ActivityEvent event = events.get(i);
+            String reason = detect(event);
+            if (reason == null) {
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(events);
+            }
+            result.set(i, event.toBuilder().suspicious(true).build());
+            result.add(ActivityEvent.builder()
+                    .userId(event.getUserId())
+                    .activityType(ActivityType.SUSPICIOUS_ACTIVITY_DETECTED)
+                    .description(reason)
+                    .details("{\"activityType\":\"" + event.getActivityType() + "\"}")
+                    .ipAddress(event.getIpAddress())
+                    .userAgent(event.getUserAgent())
+                    .suspicious(true)
+                    .createdAt(event.getCreatedAt())
+                    .build());
+            log.warn("Suspicious activity for user {} from {}: {}", event.getUserId(), event.getIpAddress(), reason);
+        }
+        return result != null ? result : events;
+    }
+
+    /**
+     * Feed one event through the rules and return the first finding, if any
+     */
+    String detect(ActivityEvent event) {
+        ActivityType type = event.getActivityType();
+        if (type != ActivityType.FAILED_LOGIN_ATTEMPT && type != ActivityType.LOGIN
+                && type != ActivityType.SESSION_STARTED) {
+            return null;
+        }
+
+        long now = event.getCreatedAt().atZone(ZONE).toInstant().toEpochMilli();
+        long userId = event.getUserId();
+        String reason = null;
+
+        if (event.getIpAddress() != null) {
+            long ip = WindowTables.hash(event.getIpAddress());
+            if (accountsPerIp.record(ip, userId, now, windowMs) >= ipAccountThreshold) {
+                accountsPerIpCounter.increment();
+                reason = "Many accounts used from one IP address";
+            }
+            if (type == ActivityType.FAILED_LOGIN_ATTEMPT
+                    && ipFailures.record(ip, now, windowMs) >= ipFailureThreshold && reason == null) {
+                ipVelocityCounter.increment();
+                reason = "Failed login velocity spike from one IP address";
+            }
+        }
+
+        if (type == ActivityType.FAILED_LOGIN_ATTEMPT) {
+            if (userFailures.record(userId, now, windowMs) >= userFailureThreshold && reason == null) {
+                velocityCounter.increment();
+                reason = "Failed login velocity spike for account";
+            }
+        } else if (event.getUserAgent() != null
+                && knownDevices.addIfNew(userId, WindowTables.hash(event.getUserAgent())) && reason == null) {
+            newDeviceCounter.increment();
+            reason = "Login from a new device";
+        }
+        return reason;
+    }
+
+    private static Counter ruleCounter(MeterRegistry meterRegistry, String rule) {
+        return Counter.builder("activity.suspicious.detected")
+                .description("Suspicious activity findings by rule")
+                .tag("rule", rule)
+                .register(meterRegistry);
+    }
+}
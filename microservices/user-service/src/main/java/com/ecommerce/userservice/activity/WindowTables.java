@@ -0,0 +1,191 @@
+package com.ecommerce.userservice.activity;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, primitive-keyed tables backing the streaming detector. Each table is
+ * direct-mapped: a key hashes to exactly one slot, and a different key landing on
+ * an occupied slot evicts the previous occupant. Memory is therefore fixed at
+ * construction time; an eviction only makes detection less sensitive for the
+ * evicted key, never more.
+ * Not thread-safe; callers serialize access.
+ */
+final class WindowTables {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private WindowTables() {
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a string, for keys such as IP addresses and user agents
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static int slotOf(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    private static int power2(int requested) {
+        return Math.max(2, Integer.highestOneBit(Math.max(requested, 2) - 1) << 1);
+    }
+
+    /**
+     * Remembers the last depth event times per key and counts those inside a window
+     */
+    static final class Timestamps {
+        private final int mask;
+        private final int depth;
+        private final long[] keys;
+        private final long[] times;
+        private final int[] next;
+
+        Timestamps(int slots, int depth) {
+            int size = power2(slots);
+            this.mask = size - 1;
+            this.depth = depth;
+            this.keys = new long[size];
+            this.times = new long[size * depth];
+            this.next = new int[size];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Record an event and return how many of the remembered events fall within the window
+         */
+        int record(long key, long now, long windowMs) {
+            int slot = slotOf(key, mask);
+            int base = slot * depth;
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                Arrays.fill(times, base, base + depth, EMPTY);
+                next[slot] = 0;
+            }
+            times[base + next[slot]] = now;
+            next[slot] = (next[slot] + 1) % depth;
+
+            long since = now - windowMs;
+            int count = 0;
+            for (int i = base; i < base + depth; i++) {
+                if (times[i] != EMPTY && times[i] > since) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Remembers up to depth distinct members per key with their last-seen time
+     */
+    static final class DistinctMembers {
+        private final int mask;
+        private final int depth;
+        private final long[] keys;
+        private final long[] members;
+        private final long[] lastSeen;
+
+        DistinctMembers(int slots, int depth) {
+            int size = power2(slots);
+            this.mask = size - 1;
+            this.depth = depth;
+            this.keys = new long[size];
+            this.members = new long[size * depth];
+            this.lastSeen = new long[size * depth];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Record a member for the key and return the number of distinct members seen within the window
+         */
+        int record(long key, long member, long now, long windowMs) {
+            int slot = slotOf(key, mask);
+            int base = slot * depth;
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                Arrays.fill(lastSeen, base, base + depth, EMPTY);
+            }
+
+            int target = -1;
+            int oldest = base;
+            for (int i = base; i < base + depth; i++) {
+                if (lastSeen[i] != EMPTY && members[i] == member) {
+                    target = i;
+                    break;
+                }
+                if (lastSeen[i] < lastSeen[oldest]) {
+                    oldest = i;
+                }
+            }
+            if (target < 0) {
+                target = oldest;
+                members[target] = member;
+            }
+            lastSeen[target] = now;
+
+            long since = now - windowMs;
+            int count = 0;
+            for (int i = base; i < base + depth; i++) {
+                if (lastSeen[i] != EMPTY && lastSeen[i] > since) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Remembers the last depth distinct values per key, e.g. known devices of a user
+     */
+    static final class RecentValues {
+        private final int mask;
+        private final int depth;
+        private final long[] keys;
+        private final long[] values;
+        private final int[] count;
+        private final int[] next;
+
+        RecentValues(int slots, int depth) {
+            int size = power2(slots);
+            this.mask = size - 1;
+            this.depth = depth;
+            this.keys = new long[size];
+            this.values = new long[size * depth];
+            this.count = new int[size];
+            this.next = new int[size];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Remember the value. Returns true if the key already had values and this one is new.
+         */
+        boolean addIfNew(long key, long value) {
+            int slot = slotOf(key, mask);
+            int base = slot * depth;
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                count[slot] = 0;
+                next[slot] = 0;
+            }
+
+            int known = count[slot];
+            for (int i = base; i < base + known; i++) {
+                if (values[i] == value) {
+                    return false;
+                }
+            }
+            values[base + next[slot]] = value;
+            next[slot] = (next[slot] + 1) % depth;
+            count[slot] = Math.min(known + 1, depth);
+            return known > 0;
+        }
+    }
+}
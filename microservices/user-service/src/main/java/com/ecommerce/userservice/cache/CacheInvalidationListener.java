@@ -0,0 +1,41 @@
+package com.ecommerce.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies invalidations published by other nodes to the local L1 tier
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final String nodeId;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8)
+                .split(CacheInvalidationPublisher.SEPARATOR, 4);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+
+        TwoLevelCache cache = cacheManager.getLocalCache(parts[2]);
+        if (cache == null) {
+            return;
+        }
+
+        if (CacheInvalidationPublisher.CLEAR.equals(parts[0])) {
+            log.debug("Clearing local cache {} on remote request", parts[2]);
+            cache.clearLocal();
+        } else if (CacheInvalidationPublisher.EVICT.equals(parts[0]) && parts.length == 4) {
+            log.debug("Evicting {} from local cache {} on remote request", parts[3], parts[2]);
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
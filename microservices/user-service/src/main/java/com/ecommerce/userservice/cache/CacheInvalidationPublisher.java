@@ -0,0 +1,46 @@
+package com.ecommerce.userservice.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub so other nodes drop their local copies
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    static final String EVICT = "E";
+    static final String CLEAR = "C";
+    static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(String.join(SEPARATOR, EVICT, nodeId, cacheName, String.valueOf(key)));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(String.join(SEPARATOR, CLEAR, nodeId, cacheName));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception ex) {
+            // Other nodes fall back to their short L1 TTL
+            log.warn("Failed to publish cache invalidation: {}", ex.getMessage());
+        }
+    }
+}
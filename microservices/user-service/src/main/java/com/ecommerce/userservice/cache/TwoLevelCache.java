@@ -0,0 +1,140 @@
+package com.ecommerce.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with a short-lived in-process L1 in front of a shared Redis L2.
+ * Writes go to L2 first; every write or eviction also drops the key from the
+ * L1 of other nodes via {@link CacheInvalidationPublisher}.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         CacheInvalidationPublisher publisher) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey(key), wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            return (T) value;
+        }
+
+        T loaded = remote.get(key, valueLoader);
+        if (loaded != null) {
+            local.put(localKey(key), loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        publisher.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            publisher.publishEvict(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        publisher.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(localKey(key));
+        publisher.publishEvict(name, localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publishClear(name);
+    }
+
+    /**
+     * Drop a key from this node's L1 only (used for remote invalidations)
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop all entries from this node's L1 only (used for remote invalidations)
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    // Redis keys are stringified too, so L1 uses the same identity
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
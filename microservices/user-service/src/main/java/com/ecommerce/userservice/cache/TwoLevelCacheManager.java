@@ -0,0 +1,72 @@
+package com.ecommerce.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+
+/**
+ * Cache manager that layers an in-process Caffeine L1 over each Redis cache.
+ * Both tiers report cache.gets/cache.evictions metrics tagged with tier=local|redis.
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final TwoLevelCacheProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                                TwoLevelCacheProperties properties,
+                                CacheInvalidationPublisher publisher,
+                                MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return properties.getCaches().keySet().stream()
+                .map(this::createCache)
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    /**
+     * Return the cache only if it already exists on this node
+     */
+    TwoLevelCache getLocalCache(String name) {
+        return getCacheNames().contains(name) ? (TwoLevelCache) getCache(name) : null;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        TwoLevelCacheProperties.CacheSpec spec = properties.getSpec(name);
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getLocalMaxSize())
+                .expireAfterWrite(spec.getLocalTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of("tier", "local"));
+
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of("tier", "redis")).bindTo(meterRegistry);
+        }
+
+        return new TwoLevelCache(name, local, remote, publisher);
+    }
+}
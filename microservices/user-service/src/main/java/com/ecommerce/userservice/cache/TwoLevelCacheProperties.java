@@ -0,0 +1,51 @@
+package com.ecommerce.userservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache TTL and size settings for the in-process (L1) and Redis (L2) cache tiers
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class TwoLevelCacheProperties {
+
+    /**
+     * Redis pub/sub channel used to broadcast L1 invalidations to other nodes
+     */
+    private String invalidationChannel = "user-service:cache-invalidation";
+
+    /**
+     * Settings applied to caches without an explicit entry
+     */
+    private CacheSpec defaults = new CacheSpec();
+
+    /**
+     * Settings per cache name
+     */
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    public CacheSpec getSpec(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class CacheSpec {
+        private Duration localTtl = Duration.ofSeconds(30);
+        private long localMaxSize = 10_000;
+        private Duration ttl = Duration.ofHours(1);
+        private ValueFormat valueFormat = ValueFormat.JSON;
+    }
+
+    /**
+     * Encoding of values stored in Redis
+     */
+    public enum ValueFormat {
+        JSON,
+        BINARY
+    }
+}
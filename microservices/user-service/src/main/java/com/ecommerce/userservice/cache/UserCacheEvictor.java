@@ -0,0 +1,104 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evicts every cached alias (ID, email, username) of a user after it has been mutated.
+ * Inside a transaction the eviction runs after commit, so a concurrent read cannot
+ * re-populate the cache with the pre-commit row.
+ * <p>
+ * Mutators take {@link #keysOf(User)} before changing the user and pass them to
+ * {@link #evict(User, Set)}, so a changed email or username does not leave the old
+ * alias serving the previous state. Aliases recorded in the cached by-ID entry are
+ * evicted as well, in case the entry was cached under values older than the loaded row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Keys the user is cached under in its current state; take them before a mutation
+     */
+    public Set<String> keysOf(User user) {
+        Set<String> keys = new LinkedHashSet<>(4);
+        if (user.getId() != null) {
+            keys.add(UserCacheKeys.byId(user.getId()));
+        }
+        if (user.getEmail() != null) {
+            keys.add(UserCacheKeys.byEmail(user.getEmail()));
+        }
+        if (user.getUsername() != null) {
+            keys.add(UserCacheKeys.byUsername(user.getUsername()));
+        }
+        return keys;
+    }
+
+    /**
+     * Evict a user that was not mutated in a way that changes its keys, e.g. on delete
+     */
+    public void evict(User user) {
+        evict(user, Set.of());
+    }
+
+    /**
+     * Evict a mutated user under its current keys and the keys it had before the mutation
+     */
+    public void evict(User user, Set<String> previousKeys) {
+        Set<String> keys = keysOf(user);
+        keys.addAll(previousKeys);
+        String idKey = user.getId() != null ? UserCacheKeys.byId(user.getId()) : null;
+        TransactionCallbacks.afterCommit(() -> evictKeys(idKey, keys));
+    }
+
+    private void evictKeys(String idKey, Set<String> keys) {
+        Cache cache = cacheManager.getCache(UserCacheKeys.CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        if (idKey != null) {
+            keys.addAll(cachedAliases(cache, idKey));
+        }
+        for (String key : keys) {
+            try {
+                cache.evict(key);
+            } catch (RuntimeException ex) {
+                // Entries still expire through the cache TTL
+                log.warn("Failed to evict user cache key {}: {}", key, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Email and username keys of the entry currently cached under the user's ID
+     */
+    private Set<String> cachedAliases(Cache cache, String idKey) {
+        Set<String> aliases = new LinkedHashSet<>(2);
+        try {
+            Cache.ValueWrapper wrapper = cache.get(idKey);
+            if (wrapper != null && wrapper.get() instanceof UserResponse cached) {
+                if (cached.getEmail() != null) {
+                    aliases.add(UserCacheKeys.byEmail(cached.getEmail()));
+                }
+                if (cached.getUsername() != null) {
+                    aliases.add(UserCacheKeys.byUsername(cached.getUsername()));
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read user cache key {}: {}", idKey, ex.getMessage());
+        }
+        return aliases;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.userservice.cache;
+
+import java.util.Locale;
+
+/**
+ * Typed keys for the "users" cache. Every lookup alias gets its own prefix so
+ * an ID can never collide with an email or username, and all aliases of a user
+ * can be evicted together.
+ */
+public final class UserCacheKeys {
+
+    public static final String CACHE_NAME = "users";
+
+    private UserCacheKeys() {
+    }
+
+    public static String byId(Long id) {
+        return "id:" + id;
+    }
+
+    public static String byEmail(String email) {
+        return "email:" + email.toLowerCase(Locale.ROOT);
+    }
+
+    public static String byUsername(String username) {
+        return "username:" + username.toLowerCase(Locale.ROOT);
+    }
+}
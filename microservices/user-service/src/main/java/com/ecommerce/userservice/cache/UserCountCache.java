@@ -0,0 +1,45 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Briefly cached user totals for paginated listings, so paging through a large
+ * result does not repeat a full COUNT(*) for every page
+ */
+@Component
+public class UserCountCache {
+
+    private static final long ALL_USERS = -1L;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Long> counts;
+
+    public UserCountCache(UserRepository userRepository,
+                          @Value("${app.user-listing.count-ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Exact number of users, at most the configured TTL old
+     */
+    public long countAll() {
+        return counts.get(ALL_USERS, key -> userRepository.count());
+    }
+
+    /**
+     * Exact number of users of a company, at most the configured TTL old
+     */
+    public long countByCompany(Long companyId) {
+        return counts.get(companyId, userRepository::countByCompanyId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.dto.response.UserResponse;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compact binary serializer for cached {@link UserResponse} values.
+ * Field bits below are part of the wire format: only ever append new ones.
+ */
+public class UserResponseRedisSerializer extends VersionedBinaryRedisSerializer<UserResponse> {
+
+    private static final byte VERSION = 1;
+
+    private static final int ID = 0;
+    private static final int COMPANY_ID = 1;
+    private static final int USERNAME = 2;
+    private static final int EMAIL = 3;
+    private static final int FIRST_NAME = 4;
+    private static final int LAST_NAME = 5;
+    private static final int PHONE_NUMBER = 6;
+    private static final int PROFILE_IMAGE_URL = 7;
+    private static final int STATUS = 8;
+    private static final int TYPE = 9;
+    private static final int ROLES = 10;
+    private static final int EMAIL_VERIFIED = 11;
+    private static final int PHONE_VERIFIED = 12;
+    private static final int TWO_FACTOR_ENABLED = 13;
+    private static final int LAST_LOGIN = 14;
+    private static final int CREATED_AT = 15;
+    private static final int UPDATED_AT = 16;
+
+    @Override
+    protected byte version() {
+        return VERSION;
+    }
+
+    @Override
+    protected void write(UserResponse user, Output out) {
+        long presence = 0;
+        presence |= bit(ID, user.getId());
+        presence |= bit(COMPANY_ID, user.getCompanyId());
+        presence |= bit(USERNAME, user.getUsername());
+        presence |= bit(EMAIL, user.getEmail());
+        presence |= bit(FIRST_NAME, user.getFirstName());
+        presence |= bit(LAST_NAME, user.getLastName());
+        presence |= bit(PHONE_NUMBER, user.getPhoneNumber());
+        presence |= bit(PROFILE_IMAGE_URL, user.getProfileImageUrl());
+        presence |= bit(STATUS, user.getStatus());
+        presence |= bit(TYPE, user.getType());
+        presence |= bit(ROLES, user.getRoles());
+        presence |= bit(EMAIL_VERIFIED, user.getEmailVerified());
+        presence |= bit(PHONE_VERIFIED, user.getPhoneVerified());
+        presence |= bit(TWO_FACTOR_ENABLED, user.getTwoFactorEnabled());
+        presence |= bit(LAST_LOGIN, user.getLastLogin());
+        presence |= bit(CREATED_AT, user.getCreatedAt());
+        presence |= bit(UPDATED_AT, user.getUpdatedAt());
+        out.writeVarLong(presence);
+
+        if (user.getId() != null) out.writeVarLong(user.getId());
+        if (user.getCompanyId() != null) out.writeVarLong(user.getCompanyId());
+        if (user.getUsername() != null) out.writeString(user.getUsername());
+        if (user.getEmail() != null) out.writeString(user.getEmail());
+        if (user.getFirstName() != null) out.writeString(user.getFirstName());
+        if (user.getLastName() != null) out.writeString(user.getLastName());
+        if (user.getPhoneNumber() != null) out.writeString(user.getPhoneNumber());
+        if (user.getProfileImageUrl() != null) out.writeString(user.getProfileImageUrl());
+        if (user.getStatus() != null) out.writeString(user.getStatus());
+        if (user.getType() != null) out.writeString(user.getType());
+        if (user.getRoles() != null) {
+            out.writeVarLong(user.getRoles().size());
+            user.getRoles().forEach(out::writeString);
+        }
+        if (user.getEmailVerified() != null) out.writeBoolean(user.getEmailVerified());
+        if (user.getPhoneVerified() != null) out.writeBoolean(user.getPhoneVerified());
+        if (user.getTwoFactorEnabled() != null) out.writeBoolean(user.getTwoFactorEnabled());
+        if (user.getLastLogin() != null) out.writeDateTime(user.getLastLogin());
+        if (user.getCreatedAt() != null) out.writeDateTime(user.getCreatedAt());
+        if (user.getUpdatedAt() != null) out.writeDateTime(user.getUpdatedAt());
+    }
+
+    @Override
+    protected UserResponse read(byte version, Input in) {
+        long presence = in.readVarLong();
+        UserResponse user = new UserResponse();
+
+        if (has(presence, ID)) user.setId(in.readVarLong());
+        if (has(presence, COMPANY_ID)) user.setCompanyId(in.readVarLong());
+        if (has(presence, USERNAME)) user.setUsername(in.readString());
+        if (has(presence, EMAIL)) user.setEmail(in.readString());
+        if (has(presence, FIRST_NAME)) user.setFirstName(in.readString());
+        if (has(presence, LAST_NAME)) user.setLastName(in.readString());
+        if (has(presence, PHONE_NUMBER)) user.setPhoneNumber(in.readString());
+        if (has(presence, PROFILE_IMAGE_URL)) user.setProfileImageUrl(in.readString());
+        if (has(presence, STATUS)) user.setStatus(in.readString());
+        if (has(presence, TYPE)) user.setType(in.readString());
+        if (has(presence, ROLES)) {
+            int count = (int) in.readVarLong();
+            Set<String> roles = new HashSet<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                roles.add(in.readString());
+            }
+            user.setRoles(roles);
+        }
+        if (has(presence, EMAIL_VERIFIED)) user.setEmailVerified(in.readBoolean());
+        if (has(presence, PHONE_VERIFIED)) user.setPhoneVerified(in.readBoolean());
+        if (has(presence, TWO_FACTOR_ENABLED)) user.setTwoFactorEnabled(in.readBoolean());
+        if (has(presence, LAST_LOGIN)) user.setLastLogin(in.readDateTime());
+        if (has(presence, CREATED_AT)) user.setCreatedAt(in.readDateTime());
+        if (has(presence, UPDATED_AT)) user.setUpdatedAt(in.readDateTime());
+        // Fields appended by newer versions are left unread
+
+        return user;
+    }
+
+    private static long bit(int field, Object value) {
+        return value != null ? 1L << field : 0L;
+    }
+
+    private static boolean has(long presence, int field) {
+        return (presence & (1L << field)) != 0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecommerce.userservice.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Base class for compact, versioned binary cache serializers.
+ * <p>
+ * Payload layout: {@code MAGIC, version, presence bitmap (varint), present fields in field order}.
+ * Schema evolution is append-only: new fields get the next bit and go at the end, so older readers
+ * ignore them and newer readers see them as absent in older payloads. Fields must never be
+ * reordered or removed; retire them by always writing null instead.
+ * <p>
+ * Payloads that do not start with {@link #MAGIC} (e.g. entries written by the JSON serializer)
+ * deserialize to {@code null}, which the cache treats as a miss.
+ */
+public abstract class VersionedBinaryRedisSerializer<T> implements RedisSerializer<T> {
+
+    protected static final byte MAGIC = (byte) 0xB1;
+
+    /**
+     * Current schema version written by this serializer
+     */
+    protected abstract byte version();
+
+    protected abstract void write(T value, Output out);
+
+    protected abstract T read(byte version, Input in);
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Output out = new Output();
+        out.buffer.write(MAGIC);
+        out.buffer.write(version());
+        write(value, out);
+        return out.buffer.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 2 || bytes[0] != MAGIC) {
+            return null;
+        }
+        try {
+            Input in = new Input(bytes, 2);
+            return read(bytes[1], in);
+        } catch (IndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated cache payload", ex);
+        }
+    }
+
+    /**
+     * Append-only binary writer
+     */
+    protected static final class Output {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+
+        public void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.write((int) value);
+        }
+
+        public void writeZigZagLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        public void writeBoolean(boolean value) {
+            buffer.write(value ? 1 : 0);
+        }
+
+        public void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            buffer.write(bytes, 0, bytes.length);
+        }
+
+        public void writeDateTime(LocalDateTime value) {
+            writeZigZagLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(value.getNano());
+        }
+    }
+
+    /**
+     * Sequential binary reader
+     */
+    protected static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        private Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        public long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        public long readZigZagLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public boolean readBoolean() {
+            return bytes[position++] != 0;
+        }
+
+        public String readString() {
+            int length = (int) readVarLong();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        public LocalDateTime readDateTime() {
+            long epochSecond = readZigZagLong();
+            int nano = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+    }
+}
@@ -1,37 +1,104 @@
 package com.ecommerce.userservice.config;
 
-import org.springframework.cache.CacheManager;
+import com.ecommerce.userservice.cache.CacheInvalidationListener;
+import com.ecommerce.userservice.cache.CacheInvalidationPublisher;
+import com.ecommerce.userservice.cache.TwoLevelCacheManager;
+import com.ecommerce.userservice.cache.TwoLevelCacheProperties;
+import com.ecommerce.userservice.cache.UserCacheKeys;
+import com.ecommerce.userservice.cache.UserResponseRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Redis cache configuration
+ * Two-tier cache configuration: in-process Caffeine (L1) in front of Redis (L2)
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 public class CacheConfig {
-    
+
+    /**
+     * Binary serializers for caches whose values have a single known type
+     */
+    private static final Map<String, RedisSerializer<?>> BINARY_SERIALIZERS = Map.of(
+            UserCacheKeys.CACHE_NAME, new UserResponseRedisSerializer());
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate redisTemplate,
+                                                                 TwoLevelCacheProperties properties) {
+        return new CacheInvalidationPublisher(redisTemplate, properties.getInvalidationChannel());
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             TwoLevelCacheProperties properties,
+                                             CacheInvalidationPublisher publisher,
+                                             MeterRegistry meterRegistry) {
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        properties.getCaches().forEach((name, spec) ->
+                cacheConfigurations.put(name, redisCacheConfiguration(name, spec)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisCacheConfiguration(null, properties.getDefaults()))
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics()
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, properties, publisher, meterRegistry);
+    }
+
+    /**
+     * The service's only pub/sub subscriber connection; other invalidation channels add
+     * their listeners to this container rather than opening one of their own
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TwoLevelCacheManager cacheManager,
+                                                                       CacheInvalidationPublisher publisher,
+                                                                       TwoLevelCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                new CacheInvalidationListener(cacheManager, publisher.getNodeId()),
+                new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
+    private RedisCacheConfiguration redisCacheConfiguration(String cacheName, TwoLevelCacheProperties.CacheSpec spec) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getTtl())
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(cacheName, spec)))
                 .disableCachingNullValues();
-        
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+    }
+
+    private RedisSerializer<?> valueSerializer(String cacheName, TwoLevelCacheProperties.CacheSpec spec) {
+        if (spec.getValueFormat() == TwoLevelCacheProperties.ValueFormat.BINARY) {
+            RedisSerializer<?> serializer = BINARY_SERIALIZERS.get(cacheName);
+            if (serializer == null) {
+                throw new IllegalStateException("No binary serializer registered for cache: " + cacheName);
+            }
+            return serializer;
+        }
+        return new GenericJackson2JsonRedisSerializer();
     }
 }
@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.permission.UserPermissionCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Permission cache wiring: subscribes each node to permission invalidations
+ */
+@Configuration
+@RequiredArgsConstructor
+public class PermissionConfig {
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final UserPermissionCache permissionCache;
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        redisMessageListenerContainer.addMessageListener(
+                permissionCache, new ChannelTopic(permissionCache.getInvalidationChannel()));
+    }
+}
@@ -1,20 +1,33 @@
 package com.ecommerce.userservice.config;
 
+import com.ecommerce.userservice.activity.ActivityRollupEndpoint;
+import com.ecommerce.userservice.security.BCryptStrengthCalibrator;
+import com.ecommerce.userservice.security.ExactCostBCryptPasswordEncoder;
+import com.ecommerce.userservice.security.JwtAuthenticationFilter;
+import com.ecommerce.userservice.security.PasswordHashVersionEndpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Security configuration
@@ -22,8 +35,29 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@RequiredArgsConstructor
 public class SecurityConfig {
     
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    
+    @Value("${app.password-hashing.algorithm:bcrypt}")
+    private String passwordAlgorithm;
+    
+    @Value("${app.password-hashing.bcrypt.strength:12}")
+    private int bcryptStrength;
+    
+    @Value("${app.password-hashing.bcrypt.calibrate:false}")
+    private boolean calibrateBcrypt;
+    
+    @Value("${app.password-hashing.bcrypt.target-latency:250}") // milliseconds
+    private long bcryptTargetLatencyMs;
+    
+    @Value("${app.password-hashing.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+    
+    @Value("${app.password-hashing.bcrypt.max-strength:16}")
+    private int bcryptMaxStrength;
+    
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -32,6 +66,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> 
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Operator endpoints that expose user data or start jobs; matched before the public actuator paths
+                        .requestMatchers(EndpointRequest.to(
+                                PasswordHashVersionEndpoint.class, ActivityRollupEndpoint.class)).hasRole("ADMIN")
                         .requestMatchers(
                                 "/api/v1/users/register",
                                 "/api/v1/users/login",
@@ -45,14 +82,42 @@ public class SecurityConfig {
                                 "/v3/api-docs/**"
                         ).permitAll()
                         .anyRequest().authenticated()
-                );
+                )
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
     
+    /**
+     * The JWT filter runs inside the security chain only, not as a plain servlet filter
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
+    /**
+     * Delegating encoder: new hashes use the configured algorithm and are stored with an
+     * {id} prefix, while any registered algorithm or BCrypt cost still verifies. Legacy
+     * un-prefixed hashes are treated as BCrypt. Hashes of another algorithm or another
+     * BCrypt cost, cheaper or stronger, are re-hashed on login.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        int strength = calibrateBcrypt
+                ? BCryptStrengthCalibrator.calibrate(bcryptTargetLatencyMs, bcryptMinStrength, bcryptMaxStrength)
+                : bcryptStrength;
+        
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new ExactCostBCryptPasswordEncoder(strength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordAlgorithm, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new ExactCostBCryptPasswordEncoder(strength));
+        return passwordEncoder;
     }
     
     @Bean
@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.session.RedisSessionStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Session store wiring: subscribes each node to session invalidations
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SessionConfig {
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final RedisSessionStore sessionStore;
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        redisMessageListenerContainer.addMessageListener(
+                sessionStore, new ChannelTopic(sessionStore.getInvalidationChannel()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.dto.request.BulkRoleAssignmentRequest;
+import com.ecommerce.userservice.dto.response.BulkRoleJobResponse;
+import com.ecommerce.userservice.security.UserPrincipal;
+import com.ecommerce.userservice.service.RoleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for role assignment
+ */
+@RestController
+@RequestMapping("/api/v1/roles")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Role Management", description = "APIs for assigning roles to users")
+public class RoleController {
+    
+    private final RoleService roleService;
+    
+    @PostMapping("/{roleId}/users/bulk-assign")
+    @Operation(summary = "Assign a role to many users in the background")
+    @PreAuthorize("hasRole('ADMIN') or @permissions.has(authentication, 'USER_UPDATE')")
+    public ResponseEntity<BulkRoleJobResponse> bulkAssign(
+            @PathVariable Long roleId,
+            @Valid @RequestBody BulkRoleAssignmentRequest request,
+            Authentication authentication) {
+        log.info("REST request to assign role {} to {} users", roleId, request.getUserIds().size());
+        BulkRoleJobResponse response = roleService.startAssignRoleToUsers(request.getUserIds(), roleId,
+                principal(authentication).getUserId(), companyScope(authentication));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @PostMapping("/{roleId}/users/bulk-remove")
+    @Operation(summary = "Remove a role from many users in the background")
+    @PreAuthorize("hasRole('ADMIN') or @permissions.has(authentication, 'USER_UPDATE')")
+    public ResponseEntity<BulkRoleJobResponse> bulkRemove(
+            @PathVariable Long roleId,
+            @Valid @RequestBody BulkRoleAssignmentRequest request,
+            Authentication authentication) {
+        log.info("REST request to remove role {} from {} users", roleId, request.getUserIds().size());
+        BulkRoleJobResponse response = roleService.startRemoveRoleFromUsers(
+                request.getUserIds(), roleId, companyScope(authentication));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @GetMapping("/bulk-jobs/{jobId}")
+    @Operation(summary = "Get the progress of a bulk role job")
+    @PreAuthorize("hasRole('ADMIN') or @permissions.has(authentication, 'USER_UPDATE')")
+    public ResponseEntity<BulkRoleJobResponse> getBulkJob(@PathVariable String jobId,
+                                                          Authentication authentication) {
+        return ResponseEntity.ok(roleService.getBulkJob(jobId, companyScope(authentication)));
+    }
+
+    /**
+     * The company a caller's bulk jobs are confined to; administrators are not confined (null)
+     */
+    private static Long companyScope(Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch("ROLE_ADMIN"::equals);
+        if (admin) {
+            return null;
+        }
+        Long companyId = principal(authentication).getCompanyId();
+        if (companyId == null) {
+            throw new AccessDeniedException("Caller has no company");
+        }
+        return companyId;
+    }
+
+    private static UserPrincipal principal(Authentication authentication) {
+        if (!(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new AccessDeniedException("Caller is not an authenticated user");
+        }
+        return principal;
+    }
+}
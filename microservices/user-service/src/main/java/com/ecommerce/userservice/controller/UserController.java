@@ -2,20 +2,32 @@ package com.ecommerce.userservice.controller;
 
 import com.ecommerce.userservice.dto.request.*;
 import com.ecommerce.userservice.dto.response.AuthResponse;
+import com.ecommerce.userservice.dto.response.CursorPageResponse;
 import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.entity.UserType;
+import com.ecommerce.userservice.enums.CountMode;
+import com.ecommerce.userservice.enums.ExportFormat;
+import com.ecommerce.userservice.security.ClientIpResolver;
+import com.ecommerce.userservice.service.UserExportService;
 import com.ecommerce.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -28,7 +40,13 @@ import java.util.Map;
 @Tag(name = "User Management", description = "APIs for user registration, authentication, and profile management")
 public class UserController {
     
+    // Managers only see their own company
+    private static final String COMPANY_ADMIN =
+            "hasRole('ADMIN') or (hasRole('MANAGER') and principal.companyId == #companyId)";
+    
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final ClientIpResolver clientIpResolver;
     
     @PostMapping("/register")
     @Operation(summary = "Register a new user")
@@ -40,9 +58,12 @@ public class UserController {
     
     @PostMapping("/login")
     @Operation(summary = "Login user")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
         log.info("REST request to login user: {}", request.getEmailOrUsername());
-        AuthResponse response = userService.login(request);
+        // Null when the gateway did not pass on the client address
+        AuthResponse response = userService.login(request,
+                clientIpResolver.resolve(httpRequest).orElse(null), httpRequest.getHeader(HttpHeaders.USER_AGENT));
         return ResponseEntity.ok(response);
     }
     
@@ -182,16 +203,99 @@ public class UserController {
     }
     
     @GetMapping("/company/{companyId}")
-    @Operation(summary = "Get users by company")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Get users by company, optionally filtered by status, type and email prefix")
+    @PreAuthorize(COMPANY_ADMIN)
     public ResponseEntity<Page<UserResponse>> getUsersByCompany(
             @PathVariable Long companyId,
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(required = false) UserType type,
+            @RequestParam(required = false) String emailPrefix,
             Pageable pageable) {
         log.info("REST request to get users for company: {}", companyId);
-        Page<UserResponse> response = userService.getUsersByCompany(companyId, pageable);
+        Page<UserResponse> response = userService.searchUsersByCompany(companyId, status, type, emailPrefix, pageable);
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/cursor")
+    @Operation(summary = "List all users newest first with cursor pagination")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPPORT')")
+    public ResponseEntity<CursorPageResponse<UserResponse>> listUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count) {
+        log.info("REST request to list users by cursor");
+        return ResponseEntity.ok(userService.listUsers(cursor, size, count));
+    }
+    
+    @GetMapping("/company/{companyId}/cursor")
+    @Operation(summary = "List users of a company with cursor pagination")
+    @PreAuthorize(COMPANY_ADMIN)
+    public ResponseEntity<CursorPageResponse<UserResponse>> listUsersByCompany(
+            @PathVariable Long companyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count) {
+        log.info("REST request to list users for company {} by cursor", companyId);
+        return ResponseEntity.ok(userService.listUsersByCompany(companyId, cursor, size, count));
+    }
+    
+    @GetMapping("/company/{companyId}/export")
+    @Operation(summary = "Stream a company's users as NDJSON or CSV; resume with afterId = last ID received")
+    @PreAuthorize(COMPANY_ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @PathVariable Long companyId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("REST request to export users for company {} after ID {}", companyId, afterId);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users-" + companyId + "." + format.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        // Last, so nothing between reserving the export slot and returning the body can fail
+        return response.body(userExportService.exportCompanyUsers(companyId, afterId, format, gzip));
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip: listed as gzip or x-gzip, or covered by
+     * "*", with a non-zero q-value. "gzip;q=0" explicitly refuses it.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+    
     @DeleteMapping("/{id}/soft")
     @Operation(summary = "Soft delete user")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -0,0 +1,23 @@
+package com.ecommerce.userservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for assigning a role to, or removing it from, many users at once
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRoleAssignmentRequest {
+    
+    @NotEmpty(message = "At least one user ID is required")
+    private List<@NotNull(message = "User IDs must not be null") Long> userIds;
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.userservice.dto.request;
+
+import com.ecommerce.userservice.enums.Permission;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Request DTO for creating or updating a role
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateRoleRequest {
+    
+    @NotBlank(message = "Role name is required")
+    @Size(min = 2, max = 50, message = "Role name must be between 2 and 50 characters")
+    private String name;
+    
+    @Size(max = 255, message = "Description cannot exceed 255 characters")
+    private String description;
+    
+    @Builder.Default
+    private Set<Permission> permissions = new HashSet<>();
+}
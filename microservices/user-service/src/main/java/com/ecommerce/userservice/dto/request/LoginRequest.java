@@ -23,5 +23,7 @@ public class LoginRequest {
     
     private Long companyId; // Optional, for multi-tenancy
     
+    private String deviceId; // Optional, keeps one refresh token per device
+    
     private Boolean rememberMe = false;
 }
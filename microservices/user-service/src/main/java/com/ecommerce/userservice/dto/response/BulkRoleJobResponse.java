@@ -0,0 +1,30 @@
+package com.ecommerce.userservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for the progress of a bulk role assignment job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRoleJobResponse {
+    private String jobId;
+    private String operation;
+    private Long roleId;
+    private String status;
+    private int totalUsers;
+    private int processedUsers;
+    private int changedUsers;
+    private int totalChunks;
+    private int failedChunks;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
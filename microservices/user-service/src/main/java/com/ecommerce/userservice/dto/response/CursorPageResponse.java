@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for cursor-based pages. nextCursor is opaque and null on the last page;
+ * totalCount is only set when requested.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalCount;
+    private boolean totalCountExact;
+}
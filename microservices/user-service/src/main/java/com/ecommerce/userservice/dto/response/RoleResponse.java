@@ -0,0 +1,29 @@
+package com.ecommerce.userservice.dto.response;
+
+import com.ecommerce.userservice.enums.Permission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Response DTO for roles
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoleResponse {
+    private Long id;
+    private Long companyId;
+    private String name;
+    private String description;
+    private Set<Permission> permissions;
+    private Boolean isSystemRole;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private Long createdBy;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.userservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for user activity entries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserActivityResponse {
+    private Long id;
+    private Long userId;
+    private String activityType;
+    private String description;
+    private String details;
+    private String ipAddress;
+    private String userAgent;
+    private String location;
+    private Boolean isSuspicious;
+    private LocalDateTime createdAt;
+}
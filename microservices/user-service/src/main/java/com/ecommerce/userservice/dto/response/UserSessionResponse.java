@@ -0,0 +1,32 @@
+package com.ecommerce.userservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for user sessions. sessionToken is only set when the session is created.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSessionResponse {
+    private Long id;
+    private Long userId;
+    private String sessionToken;
+    private String status;
+    private String ipAddress;
+    private String userAgent;
+    private String deviceType;
+    private String deviceId;
+    private String location;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastActivity;
+    private LocalDateTime expiresAt;
+    private LocalDateTime terminatedAt;
+    private String terminatedReason;
+}
@@ -5,7 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -26,8 +28,12 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 public class User {
 
+    public static final int MAX_FAILED_LOGIN_ATTEMPTS = 5;
+    public static final long LOCKOUT_MINUTES = 30;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -66,7 +72,9 @@ public class User {
     @Builder.Default
     private UserType type = UserType.CUSTOMER;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Lazy, and batch-loaded for up to 100 users at once when a page of users touches roles
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     @Enumerated(EnumType.STRING)
@@ -110,12 +118,6 @@ public class User {
     @Column(name = "email_verification_expires")
     private LocalDateTime emailVerificationExpires;
 
-    @Column(name = "refresh_token", length = 500)
-    private String refreshToken;
-
-    @Column(name = "refresh_token_expires")
-    private LocalDateTime refreshTokenExpires;
-
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -138,8 +140,8 @@ public class User {
 
     public void incrementFailedLoginAttempts() {
         this.failedLoginAttempts++;
-        if (this.failedLoginAttempts >= 5) {
-            this.accountLockedUntil = LocalDateTime.now().plusMinutes(30);
+        if (this.failedLoginAttempts >= MAX_FAILED_LOGIN_ATTEMPTS) {
+            this.accountLockedUntil = LocalDateTime.now().plusMinutes(LOCKOUT_MINUTES);
         }
     }
 
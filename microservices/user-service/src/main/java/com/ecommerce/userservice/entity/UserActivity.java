@@ -11,13 +11,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 /**
- * User activity log entity - tracks all user activities
+ * User activity log entity - tracks all user activities.
+ * The table is range-partitioned by month on created_at; queries should bound
+ * created_at wherever possible so PostgreSQL can prune partitions.
  */
 @Entity
 @Table(name = "user_activities", indexes = {
-    @Index(name = "idx_activity_user_id", columnList = "user_id"),
-    @Index(name = "idx_activity_type", columnList = "activity_type"),
-    @Index(name = "idx_activity_created_at", columnList = "created_at"),
+    @Index(name = "idx_activity_user_created", columnList = "user_id, created_at DESC"),
+    @Index(name = "idx_activity_type_created", columnList = "activity_type, created_at"),
     @Index(name = "idx_activity_ip_address", columnList = "ip_address")
 })
 @Data
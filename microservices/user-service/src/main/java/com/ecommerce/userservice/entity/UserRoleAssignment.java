@@ -12,7 +12,9 @@ import java.util.Set;
  * User role assignment entity - maps users to roles
  */
 @Entity
-@Table(name = "user_role_assignments", indexes = {
+@Table(name = "user_role_assignments", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ura_user_role", columnNames = {"user_id", "role_id"})
+}, indexes = {
     @Index(name = "idx_ura_user_id", columnList = "user_id"),
     @Index(name = "idx_ura_role_id", columnList = "role_id")
 })
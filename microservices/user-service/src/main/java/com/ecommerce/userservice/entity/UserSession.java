@@ -16,9 +16,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "user_sessions", indexes = {
     @Index(name = "idx_session_user_id", columnList = "user_id"),
-    @Index(name = "idx_session_token", columnList = "session_token"),
     @Index(name = "idx_session_status", columnList = "status"),
-    @Index(name = "idx_session_expires_at", columnList = "expires_at")
+    @Index(name = "idx_session_device_id", columnList = "device_id")
 })
 @Data
 @NoArgsConstructor
@@ -35,7 +34,7 @@ public class UserSession {
     private User user;
 
     @Column(name = "session_token", nullable = false, unique = true, length = 500)
-    private String sessionToken;
+    private String sessionToken; // SHA-256 hex of the token handed to the client
 
     @Column(name = "refresh_token", length = 500)
     private String refreshToken;
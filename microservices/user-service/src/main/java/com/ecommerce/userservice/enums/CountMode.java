@@ -0,0 +1,10 @@
+package com.ecommerce.userservice.enums;
+
+/**
+ * How a cursor-paginated listing reports its total
+ */
+public enum CountMode {
+    NONE,        // no total; cheapest
+    APPROXIMATE, // planner statistics, or a cached count where there are none
+    EXACT        // COUNT(*), cached briefly
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.userservice.exception;
+
+/**
+ * Exception thrown when the service is temporarily overloaded
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+    
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.userservice.exception;
+
+/**
+ * Exception thrown when a client exceeds a rate limit
+ */
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.userservice.mapper;
+
+import com.ecommerce.userservice.dto.response.RoleResponse;
+import com.ecommerce.userservice.entity.Role;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for Role entity
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface RoleMapper {
+    
+    RoleResponse toResponse(Role role);
+    
+    List<RoleResponse> toResponses(List<Role> roles);
+}
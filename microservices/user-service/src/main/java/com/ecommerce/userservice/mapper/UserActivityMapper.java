@@ -0,0 +1,22 @@
+package com.ecommerce.userservice.mapper;
+
+import com.ecommerce.userservice.dto.response.UserActivityResponse;
+import com.ecommerce.userservice.entity.UserActivity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for UserActivity entity
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserActivityMapper {
+    
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "activityType", expression = "java(activity.getActivityType().name())")
+    UserActivityResponse toResponse(UserActivity activity);
+    
+    List<UserActivityResponse> toResponses(List<UserActivity> activities);
+}
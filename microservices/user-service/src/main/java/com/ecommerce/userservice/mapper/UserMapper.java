@@ -6,6 +6,7 @@ import com.ecommerce.userservice.dto.response.UserResponse;
 import com.ecommerce.userservice.entity.User;
 import com.ecommerce.userservice.entity.UserRole;
 import com.ecommerce.userservice.entity.UserType;
+import com.ecommerce.userservice.repository.UserSummary;
 import org.mapstruct.*;
 
 import java.util.Set;
@@ -36,6 +37,8 @@ public interface UserMapper {
     @Mapping(target = "roles", expression = "java(mapRoles(user.getRoles()))")
     UserResponse toResponse(User user);
     
+    UserResponse toResponse(UserSummary summary);
+    
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "companyId", ignore = true)
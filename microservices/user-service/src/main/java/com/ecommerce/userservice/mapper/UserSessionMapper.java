@@ -0,0 +1,23 @@
+package com.ecommerce.userservice.mapper;
+
+import com.ecommerce.userservice.dto.response.UserSessionResponse;
+import com.ecommerce.userservice.entity.UserSession;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for UserSession entity
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserSessionMapper {
+    
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "sessionToken", ignore = true)
+    @Mapping(target = "status", expression = "java(session.getStatus().name())")
+    UserSessionResponse toResponse(UserSession session);
+    
+    List<UserSessionResponse> toResponses(List<UserSession> sessions);
+}
@@ -0,0 +1,202 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.dto.response.BulkRoleJobResponse;
+import com.ecommerce.userservice.exception.InvalidOperationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tenant-wide role assignments and removals as set-based statements over
+ * fixed-size chunks of user ids. Each chunk commits in its own transaction and
+ * recompiles the permission masks of the users it changed with one broadcast,
+ * so a failure only affects its chunk. Both operations are idempotent, so a job
+ * with failed chunks can simply be submitted again. Jobs run either in the
+ * caller's thread or in the background, where their progress can be polled.
+ * A job started for a company only changes that company's users, and only that
+ * company can poll it.
+ */
+@Component
+@Slf4j
+public class BulkRoleAssignmentJobs {
+
+    public enum Operation {
+        ASSIGN,
+        REMOVE
+    }
+
+    private final RoleAssignmentStore assignmentStore;
+    private final UserPermissionCache permissionCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final Cache<String, Job> jobs;
+
+    public BulkRoleAssignmentJobs(RoleAssignmentStore assignmentStore,
+                                  UserPermissionCache permissionCache,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.role-assignments.bulk.chunk-size:5000}") int chunkSize,
+                                  @Value("${app.role-assignments.bulk.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                  @Value("${app.role-assignments.bulk.job-retention:PT24H}") Duration jobRetention) {
+        this.assignmentStore = assignmentStore;
+        this.permissionCache = permissionCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-role-assignment-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    /**
+     * Queue a job in the background and return its initial status. A null {@code companyId}
+     * lets the job change users of any company.
+     */
+    public BulkRoleJobResponse submit(Operation operation, long roleId, Long companyId,
+                                      List<Long> userIds, Long assignedBy) {
+        Job job = register(operation, roleId, companyId, userIds, assignedBy);
+        executor.execute(() -> run(job));
+        return job.toResponse();
+    }
+
+    /**
+     * Run a job in the caller's thread and return its final status
+     */
+    public BulkRoleJobResponse execute(Operation operation, long roleId, Long companyId,
+                                       List<Long> userIds, Long assignedBy) {
+        Job job = register(operation, roleId, companyId, userIds, assignedBy);
+        run(job);
+        return job.toResponse();
+    }
+
+    /**
+     * A job by id, as seen from {@code companyId}: a company only sees its own jobs,
+     * a null company sees all of them
+     */
+    public Optional<BulkRoleJobResponse> find(String jobId, Long companyId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId))
+                .filter(job -> companyId == null || companyId.equals(job.companyId))
+                .map(Job::toResponse);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job register(Operation operation, long roleId, Long companyId, List<Long> userIds, Long assignedBy) {
+        if (userIds.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidOperationException("User IDs must not be null");
+        }
+        // Sorted, so concurrent jobs lock assignment rows in the same order
+        List<Long> sortedIds = List.copyOf(new TreeSet<>(userIds));
+        Job job = new Job(UUID.randomUUID().toString(), operation, roleId, companyId, sortedIds, assignedBy,
+                (sortedIds.size() + chunkSize - 1) / chunkSize);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private void run(Job job) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        log.info("Bulk role {} started: job {}, role {}, {} users in {} chunks",
+                job.operation, job.id, job.roleId, job.userIds.size(), job.totalChunks);
+
+        for (int from = 0; from < job.userIds.size(); from += chunkSize) {
+            if (Thread.currentThread().isInterrupted()) {
+                job.error = "Interrupted";
+                break;
+            }
+            List<Long> chunk = job.userIds.subList(from, Math.min(from + chunkSize, job.userIds.size()));
+            try {
+                Integer changed = transactionTemplate.execute(status -> runChunk(job, chunk));
+                job.changedUsers.addAndGet(changed != null ? changed : 0);
+            } catch (RuntimeException ex) {
+                job.failedChunks.incrementAndGet();
+                job.error = ex.getMessage();
+                log.warn("Bulk role {} job {} failed for a chunk of {} users: {}",
+                        job.operation, job.id, chunk.size(), ex.getMessage());
+            } finally {
+                job.processedUsers.addAndGet(chunk.size());
+            }
+        }
+
+        job.finishedAt = LocalDateTime.now();
+        job.status = job.failedChunks.get() == 0 && job.error == null ? "COMPLETED" : "FAILED";
+        log.info("Bulk role {} finished: job {}, {} users changed, {} chunks failed",
+                job.operation, job.id, job.changedUsers.get(), job.failedChunks.get());
+    }
+
+    private int runChunk(Job job, List<Long> chunk) {
+        List<Long> changed = job.operation == Operation.ASSIGN
+                ? assignmentStore.assign(job.roleId, chunk, job.companyId, job.assignedBy, job.startedAt)
+                : assignmentStore.remove(job.roleId, chunk, job.companyId);
+        permissionCache.invalidateUsers(changed);
+        return changed.size();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Operation operation;
+        private final long roleId;
+        private final Long companyId;
+        private final List<Long> userIds;
+        private final Long assignedBy;
+        private final int totalChunks;
+        private final AtomicInteger processedUsers = new AtomicInteger();
+        private final AtomicInteger changedUsers = new AtomicInteger();
+        private final AtomicInteger failedChunks = new AtomicInteger();
+        private volatile String status = "QUEUED";
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(String id, Operation operation, long roleId, Long companyId, List<Long> userIds,
+                    Long assignedBy, int totalChunks) {
+            this.id = id;
+            this.operation = operation;
+            this.roleId = roleId;
+            this.companyId = companyId;
+            this.userIds = userIds;
+            this.assignedBy = assignedBy;
+            this.totalChunks = totalChunks;
+        }
+
+        private BulkRoleJobResponse toResponse() {
+            return BulkRoleJobResponse.builder()
+                    .jobId(id)
+                    .operation(operation.name())
+                    .roleId(roleId)
+                    .status(status)
+                    .totalUsers(userIds.size())
+                    .processedUsers(processedUsers.get())
+                    .changedUsers(changedUsers.get())
+                    .totalChunks(totalChunks)
+                    .failedChunks(failedChunks.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Permission checks for method security, e.g.
+ * {@code @PreAuthorize("@permissions.has(authentication, 'USER_VIEW')")}.
+ * SpEL converts the permission name to the enum constant. Checks always use the user's
+ * cached mask, so a revoked permission takes effect on the next request. The mask embedded
+ * in the access token is for downstream services only, and may be stale until the token expires.
+ */
+@Component("permissions")
+@RequiredArgsConstructor
+public class PermissionAuthorizer {
+
+    private final UserPermissionCache permissionCache;
+
+    public boolean has(Authentication authentication, Permission permission) {
+        return PermissionMask.has(maskOf(authentication), permission);
+    }
+
+    public boolean hasAny(Authentication authentication, Permission first, Permission second) {
+        return PermissionMask.hasAny(maskOf(authentication),
+                PermissionMask.bitsOf(first) | PermissionMask.bitsOf(second));
+    }
+
+    public boolean hasAll(Authentication authentication, Permission first, Permission second) {
+        long mask = maskOf(authentication);
+        return PermissionMask.has(mask, first) && PermissionMask.has(mask, second);
+    }
+
+    private long maskOf(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)
+                || principal.getUserId() == null) {
+            return PermissionMask.NONE;
+        }
+        return permissionCache.getMask(principal.getUserId());
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.enums.Permission;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Permissions compiled into a single {@code long}, one bit per {@link Permission} ordinal.
+ * {@link Permission#ALL} expands to every bit, so a check is a single AND with no lookup
+ * or allocation, and {@code has(mask, ALL)} only holds for masks that grant everything.
+ * <p>
+ * Masks leave the service in access tokens, so {@link #SCHEMA_VERSION} identifies the
+ * ordinal layout: it changes whenever a permission is added, removed or reordered.
+ */
+public final class PermissionMask {
+
+    public static final long NONE = 0L;
+
+    private static final Permission[] PERMISSIONS = Permission.values();
+
+    public static final long ALL;
+
+    private static final long[] BITS = new long[PERMISSIONS.length];
+
+    public static final int SCHEMA_VERSION = schemaVersion();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    static {
+        if (PERMISSIONS.length > Long.SIZE) {
+            throw new IllegalStateException("Permission has more than " + Long.SIZE + " values");
+        }
+        ALL = PERMISSIONS.length == Long.SIZE ? -1L : (1L << PERMISSIONS.length) - 1;
+        for (Permission permission : PERMISSIONS) {
+            BITS[permission.ordinal()] = permission == Permission.ALL ? ALL : 1L << permission.ordinal();
+        }
+    }
+
+    private PermissionMask() {
+    }
+
+    /**
+     * Bits a permission stands for; every bit for {@link Permission#ALL}
+     */
+    public static long bitsOf(Permission permission) {
+        return BITS[permission.ordinal()];
+    }
+
+    public static long of(Collection<Permission> permissions) {
+        long mask = NONE;
+        for (Permission permission : permissions) {
+            mask |= BITS[permission.ordinal()];
+        }
+        return mask;
+    }
+
+    public static boolean has(long mask, Permission permission) {
+        long bits = BITS[permission.ordinal()];
+        return (mask & bits) == bits;
+    }
+
+    /**
+     * True if the mask grants at least one of the permissions in {@code required}
+     */
+    public static boolean hasAny(long mask, long required) {
+        return (mask & required) != 0;
+    }
+
+    /**
+     * Base64url of the mask's little-endian bytes with trailing zero bytes dropped,
+     * so bit {@code i} of byte {@code i / 8} is the permission with ordinal {@code i}
+     */
+    public static String encode(long mask) {
+        int length = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(mask) + 7) / Byte.SIZE);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (mask >>> (i * Byte.SIZE));
+        }
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * Inverse of {@link #encode(long)}
+     *
+     * @throws IllegalArgumentException if the value is not base64url or longer than 8 bytes
+     */
+    public static long decode(String encoded) {
+        byte[] bytes = DECODER.decode(encoded);
+        if (bytes.length > Long.BYTES) {
+            throw new IllegalArgumentException("Permission mask longer than " + Long.BYTES + " bytes");
+        }
+        long mask = NONE;
+        for (int i = 0; i < bytes.length; i++) {
+            mask |= (bytes[i] & 0xFFL) << (i * Byte.SIZE);
+        }
+        return mask;
+    }
+
+    /**
+     * Permission names in ordinal order, i.e. the bit layout of {@link #SCHEMA_VERSION}
+     */
+    public static List<String> schema() {
+        return Arrays.stream(PERMISSIONS).map(Enum::name).toList();
+    }
+
+    public static Set<Permission> toSet(long mask) {
+        Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+        for (Permission permission : PERMISSIONS) {
+            if ((mask & (1L << permission.ordinal())) != 0) {
+                permissions.add(permission);
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * FNV-1a over the permission names in ordinal order
+     */
+    private static int schemaVersion() {
+        int hash = 0x811C9DC5;
+        for (Permission permission : PERMISSIONS) {
+            for (char c : (permission.name() + ',').toCharArray()) {
+                hash ^= c;
+                hash *= 0x01000193;
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.userservice.permission;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint publishing the bit layout of token permission masks, so services
+ * that do not share the Permission enum can decode the perms claim
+ */
+@Component
+@Endpoint(id = "permissionschema")
+public class PermissionSchemaEndpoint {
+
+    @ReadOperation
+    public Map<String, Object> schema() {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("version", PermissionMask.SCHEMA_VERSION);
+        schema.put("encoding", "base64url, little-endian, bit i = permission with ordinal i");
+        schema.put("permissions", PermissionMask.schema());
+        return schema;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.userservice.permission;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based writes to user_role_assignments. Each call is a single statement over an
+ * array of ids, whatever their number, and returns the users whose assignments
+ * actually changed so only their permission masks need recompiling. Callers bound
+ * the array size to keep each transaction short.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoleAssignmentStore {
+
+    // Users outside the role's company are skipped; system roles (company_id NULL) go to anyone.
+    // A non-null company parameter further limits the change to that company's users.
+    private static final String ASSIGN_SQL =
+            "INSERT INTO user_role_assignments (user_id, role_id, assigned_by, assigned_at) " +
+            "SELECT u.id, r.id, ?, ? FROM users u JOIN roles r ON r.id = ? " +
+            "WHERE u.id = ANY(?) AND (r.company_id IS NULL OR r.company_id = u.company_id) " +
+            "AND u.company_id = COALESCE(?, u.company_id) " +
+            "ORDER BY u.id " +
+            "ON CONFLICT (user_id, role_id) DO NOTHING " +
+            "RETURNING user_id";
+
+    private static final String REMOVE_SQL =
+            "DELETE FROM user_role_assignments a USING users u " +
+            "WHERE a.role_id = ? AND a.user_id = ANY(?) AND u.id = a.user_id " +
+            "AND u.company_id = COALESCE(?, u.company_id) " +
+            "RETURNING a.user_id";
+
+    private static final String ASSIGN_ROLES_SQL =
+            "INSERT INTO user_role_assignments (user_id, role_id, assigned_by, assigned_at) " +
+            "SELECT ?, r.id, ?, ? FROM roles r WHERE r.id = ANY(?) ORDER BY r.id " +
+            "ON CONFLICT (user_id, role_id) DO NOTHING";
+
+    private static final String REMOVE_OTHER_ROLES_SQL =
+            "DELETE FROM user_role_assignments WHERE user_id = ? AND role_id <> ALL(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Assign a role to many users at once; returns the users that did not have it yet.
+     * Only users of {@code companyId} are changed, or users of any company when it is null.
+     */
+    public List<Long> assign(long roleId, Collection<Long> userIds, Long companyId,
+                             Long assignedBy, LocalDateTime assignedAt) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ASSIGN_SQL);
+            statement.setObject(1, assignedBy, Types.BIGINT);
+            statement.setTimestamp(2, Timestamp.valueOf(assignedAt));
+            statement.setLong(3, roleId);
+            statement.setArray(4, toArray(connection, userIds));
+            statement.setObject(5, companyId, Types.BIGINT);
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Remove a role from many users at once; returns the users that had it.
+     * Only users of {@code companyId} are changed, or users of any company when it is null.
+     */
+    public List<Long> remove(long roleId, Collection<Long> userIds, Long companyId) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REMOVE_SQL);
+            statement.setLong(1, roleId);
+            statement.setArray(2, toArray(connection, userIds));
+            statement.setObject(3, companyId, Types.BIGINT);
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Make a user's assignments exactly the given roles, keeping unchanged assignments as they are.
+     * Returns true if anything changed.
+     */
+    public boolean replace(long userId, Collection<Long> roleIds, Long assignedBy, LocalDateTime assignedAt) {
+        int removed = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REMOVE_OTHER_ROLES_SQL);
+            statement.setLong(1, userId);
+            statement.setArray(2, toArray(connection, roleIds));
+            return statement;
+        });
+        int added = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ASSIGN_ROLES_SQL);
+            statement.setLong(1, userId);
+            statement.setObject(2, assignedBy, Types.BIGINT);
+            statement.setTimestamp(3, Timestamp.valueOf(assignedAt));
+            statement.setArray(4, toArray(connection, roleIds));
+            return statement;
+        });
+        return removed + added > 0;
+    }
+
+    private static Array toArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+}
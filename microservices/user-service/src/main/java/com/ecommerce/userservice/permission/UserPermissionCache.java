@@ -0,0 +1,184 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.repository.UserRoleAssignmentRepository;
+import com.ecommerce.userservice.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user effective permission masks, compiled from role assignments on first use.
+ * <p>
+ * Entries are never evicted to invalidate them. Each one records the role epoch and
+ * the version of its user's stripe at the moment loading started; bumping either
+ * counter makes it stale, and it is recompiled on the next lookup. A load racing
+ * with a change therefore can never install a mask that outlives the change.
+ * Role-wide changes bump the epoch, assignment changes bump the user's stripe, and
+ * both are broadcast so other nodes bump theirs too.
+ */
+@Component
+@Slf4j
+public class UserPermissionCache implements MessageListener {
+
+    private static final String USER_MESSAGE = "U:";
+    private static final String ROLES_MESSAGE = "R";
+
+    private final UserRoleAssignmentRepository assignmentRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final String invalidationChannel;
+    private final Cache<Long, CompiledMask> cache;
+    private final AtomicLong roleEpoch = new AtomicLong();
+    private final AtomicLongArray userVersions;
+    private final int stripeMask;
+
+    public UserPermissionCache(UserRoleAssignmentRepository assignmentRepository,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.permissions.invalidation-channel:user-service:permission-invalidation}") String invalidationChannel,
+                               @Value("${app.permissions.cache-max-size:100000}") long maxSize,
+                               @Value("${app.permissions.cache-ttl:PT10M}") Duration ttl,
+                               @Value("${app.permissions.version-stripes:4096}") int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("app.permissions.version-stripes must be a power of two");
+        }
+        this.assignmentRepository = assignmentRepository;
+        this.redisTemplate = redisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        this.userVersions = new AtomicLongArray(stripes);
+        this.stripeMask = stripes - 1;
+        // The TTL only bounds staleness when a pub/sub message is lost
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "permissions.user-masks", Tags.of("tier", "local"));
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    /**
+     * Effective permission mask of a user, compiling it from the database if needed
+     */
+    public long getMask(Long userId) {
+        int stripe = stripe(userId);
+        CompiledMask compiled = cache.getIfPresent(userId);
+        if (compiled != null && compiled.isCurrent(roleEpoch.get(), userVersions.get(stripe))) {
+            return compiled.mask;
+        }
+
+        // Capture versions before reading, so a change committed mid-load leaves the entry stale
+        long epoch = roleEpoch.get();
+        long version = userVersions.get(stripe);
+        long mask = PermissionMask.of(assignmentRepository.findEffectivePermissions(userId));
+        cache.put(userId, new CompiledMask(mask, epoch, version));
+        return mask;
+    }
+
+    /**
+     * Recompile a user's mask once the current transaction commits
+     */
+    public void invalidateUser(Long userId) {
+        TransactionCallbacks.afterCommit(() -> {
+            bumpUser(userId);
+            publish(USER_MESSAGE + userId);
+        });
+    }
+
+    /**
+     * Recompile the masks of many users once the current transaction commits, with a single
+     * broadcast. Batches covering at least as many users as there are stripes bump the role
+     * epoch instead, which is cheaper than bumping every stripe.
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (userIds.size() >= userVersions.length()) {
+            invalidateAll();
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        TransactionCallbacks.afterCommit(() -> {
+            ids.forEach(this::bumpUser);
+            publish(USER_MESSAGE + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        });
+    }
+
+    /**
+     * Recompile every mask once the current transaction commits, after a role's permissions changed
+     */
+    public void invalidateAll() {
+        TransactionCallbacks.afterCommit(() -> {
+            roleEpoch.incrementAndGet();
+            publish(ROLES_MESSAGE);
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (ROLES_MESSAGE.equals(body)) {
+            roleEpoch.incrementAndGet();
+        } else if (body.startsWith(USER_MESSAGE)) {
+            try {
+                for (String userId : body.substring(USER_MESSAGE.length()).split(",")) {
+                    bumpUser(Long.parseLong(userId));
+                }
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring malformed permission invalidation: {}", body);
+            }
+        }
+    }
+
+    private void bumpUser(Long userId) {
+        userVersions.incrementAndGet(stripe(userId));
+    }
+
+    private int stripe(Long userId) {
+        return Long.hashCode(userId) & stripeMask;
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, message);
+        } catch (RuntimeException ex) {
+            // Peers still recompile when their entry TTL runs out
+            log.warn("Failed to publish permission invalidation: {}", ex.getMessage());
+        }
+    }
+
+    private static final class CompiledMask {
+        private final long mask;
+        private final long epoch;
+        private final long version;
+
+        private CompiledMask(long mask, long epoch, long version) {
+            this.mask = mask;
+            this.epoch = epoch;
+            this.version = version;
+        }
+
+        private boolean isCurrent(long currentEpoch, long currentVersion) {
+            return epoch == currentEpoch && version == currentVersion;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") byte[] tokenHash);
+    
+    /**
+     * Insert the token of a user's device, or replace it if that device already has one.
+     * Atomic against concurrent logins from the same device, which would otherwise both
+     * insert and violate idx_refresh_tokens_user_device.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO refresh_tokens (user_id, device_id, token_hash, expires_at) " +
+            "VALUES (:userId, :deviceId, :tokenHash, :expiresAt) " +
+            "ON CONFLICT (user_id, device_id) WHERE device_id IS NOT NULL " +
+            "DO UPDATE SET token_hash = EXCLUDED.token_hash, expires_at = EXCLUDED.expires_at",
+            nativeQuery = true)
+    int upsertForDevice(@Param("userId") Long userId, @Param("deviceId") String deviceId,
+                        @Param("tokenHash") byte[] tokenHash, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Delete the oldest expired tokens, walking idx_refresh_tokens_expires_at in bounded batches.
+     * Each call commits on its own.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -5,6 +5,7 @@ import com.ecommerce.userservice.enums.ActivityType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,11 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * user_activities is partitioned by month on created_at. Time-bounded queries compare
+ * created_at directly (never through a function) so partitions outside the range are
+ * pruned, and per-user queries ordered by created_at can stop at the newest partition.
+ */
 @Repository
 public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
     
@@ -30,4 +36,42 @@ public interface UserActivityRepository extends JpaRepository<UserActivity, Long
     List<UserActivity> findTop10ByUserIdOrderByCreatedAtDesc(Long userId);
     
     long countByUserIdAndActivityType(Long userId, ActivityType activityType);
+    
+    List<UserActivity> findByUserIdAndActivityTypeAndCreatedAtAfterOrderByCreatedAtDesc(
+            Long userId, ActivityType activityType, LocalDateTime since);
+    
+    /**
+     * Latest activity of each of the user's most frequent activity types, most frequent first.
+     * The rollup row carries the time of the latest event of its type, so each lookup is an
+     * index probe into the one partition holding it.
+     */
+    @Query(value = "SELECT a.* FROM user_activity_type_counts t " +
+            "CROSS JOIN LATERAL (SELECT * FROM user_activities u WHERE u.user_id = t.user_id " +
+            "AND u.activity_type = t.activity_type AND u.created_at = t.last_activity_at " +
+            "ORDER BY u.id DESC LIMIT 1) a " +
+            "WHERE t.user_id = :userId AND t.activity_count > 0 " +
+            "ORDER BY t.activity_count DESC, t.activity_type LIMIT :limit", nativeQuery = true)
+    List<UserActivity> findLatestOfMostFrequentTypes(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    long countByUserIdAndActivityTypeAndCreatedAtAfter(Long userId, ActivityType activityType, LocalDateTime since);
+    
+    @Query("SELECT COUNT(a) > 0 FROM UserActivity a WHERE a.user.id = :userId AND a.isSuspicious = true AND a.createdAt >= :since")
+    boolean existsSuspiciousActivitySince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    /**
+     * Flag an activity by id alone. Has to probe the primary key index of every partition;
+     * prefer the variant with createdAt when it is known.
+     */
+    @Modifying
+    @Query("UPDATE UserActivity a SET a.isSuspicious = :suspicious WHERE a.id = :activityId")
+    int updateSuspicious(@Param("activityId") Long activityId, @Param("suspicious") boolean suspicious);
+    
+    /**
+     * Flag an activity, touching only the partition that holds createdAt
+     */
+    @Modifying
+    @Query("UPDATE UserActivity a SET a.isSuspicious = :suspicious WHERE a.id = :activityId AND a.createdAt = :createdAt")
+    int updateSuspicious(@Param("activityId") Long activityId,
+                         @Param("createdAt") LocalDateTime createdAt,
+                         @Param("suspicious") boolean suspicious);
 }
@@ -2,6 +2,7 @@ package com.ecommerce.userservice.repository;
 
 import com.ecommerce.userservice.entity.User;
 import com.ecommerce.userservice.entity.UserStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -14,20 +15,33 @@ import java.util.List;
 import java.util.Optional;
 
 /**
- * Repository for User entity
+ * Repository for User entity. Roles are lazy: the unpaged company and status listings
+ * fetch them in the same query, and paged queries load them in batches (see User.roles),
+ * since fetch-joining a collection would force pagination in memory. Listings that
+ * return users to clients go through {@link UserSummaryQueries}.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     
     /**
-     * Find user by email (case-insensitive)
+     * Find user by email (case-insensitive, served by idx_users_lower_email)
      */
-    Optional<User> findByEmailIgnoreCase(String email);
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
     
     /**
-     * Find user by username (case-insensitive)
+     * Find user by username (case-insensitive, served by idx_users_lower_username)
      */
-    Optional<User> findByUsernameIgnoreCase(String username);
+    @Query("SELECT u FROM User u WHERE lower(u.username) = lower(:username)")
+    Optional<User> findByUsernameIgnoreCase(@Param("username") String username);
+    
+    /**
+     * Resolve a login identifier (email or username, case-insensitive) in one round trip.
+     * An email match wins over a username match.
+     */
+    @Query(value = "SELECT * FROM users WHERE lower(email) = lower(:identifier) OR lower(username) = lower(:identifier) " +
+            "ORDER BY (lower(email) = lower(:identifier)) DESC LIMIT 1", nativeQuery = true)
+    Optional<User> findByLoginIdentifier(@Param("identifier") String identifier);
     
     /**
      * Find user by email and company ID
@@ -35,8 +49,9 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Optional<User> findByEmailAndCompanyId(String email, Long companyId);
     
     /**
-     * Find all users by company ID
+     * Find all users by company ID, with their roles in the same query
      */
+    @EntityGraph(attributePaths = "roles")
     List<User> findByCompanyId(Long companyId);
     
     /**
@@ -54,11 +69,6 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     Optional<User> findByEmailVerificationToken(String token);
     
-    /**
-     * Find user by refresh token
-     */
-    Optional<User> findByRefreshToken(String refreshToken);
-    
     /**
      * Check if email exists
      */
@@ -75,14 +85,16 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     boolean existsByIdAndCompanyId(Long id, Long companyId);
     
     /**
-     * Find all active users by company ID
+     * Find all active users by company ID, with their roles in the same query
      */
+    @EntityGraph(attributePaths = "roles")
     @Query("SELECT u FROM User u WHERE u.companyId = :companyId AND u.status = 'ACTIVE' AND u.deletedAt IS NULL")
     List<User> findActiveUsersByCompanyId(@Param("companyId") Long companyId);
     
     /**
-     * Find users by status
+     * Find users by status, with their roles in the same query
      */
+    @EntityGraph(attributePaths = "roles")
     List<User> findByStatus(UserStatus status);
     
     /**
@@ -92,6 +104,22 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("UPDATE User u SET u.lastLogin = :loginTime WHERE u.id = :userId")
     void updateLastLogin(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
     
+    /**
+     * Record a successful login: reset lockout state and set last login.
+     * Touches only the login bookkeeping columns.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.accountLockedUntil = NULL, u.lastLogin = :loginTime " +
+            "WHERE u.id = :userId")
+    int recordSuccessfulLogin(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
+    
+    /**
+     * Replace the stored password hash
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :userId")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("passwordHash") String passwordHash);
+    
     /**
      * Lock account
      */
@@ -126,9 +154,30 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("UPDATE User u SET u.passwordResetToken = NULL, u.passwordResetExpires = NULL WHERE u.passwordResetExpires < :now")
     void cleanExpiredPasswordResetTokens(@Param("now") LocalDateTime now);
     
+    /**
+     * Count users per password hash version, e.g. "{bcrypt}$2a$12" or legacy "$2a$12"
+     */
+    @Query(value = "SELECT CASE " +
+            "WHEN password_hash LIKE '$2%' THEN left(password_hash, 6) " +
+            "WHEN left(password_hash, 1) = chr(123) THEN split_part(password_hash, chr(125), 1) || chr(125) || " +
+            "CASE WHEN split_part(password_hash, chr(125), 2) LIKE '$2%' " +
+            "THEN left(split_part(password_hash, chr(125), 2), 6) ELSE '' END " +
+            "ELSE 'unknown' END AS version, COUNT(*) AS total " +
+            "FROM users GROUP BY 1", nativeQuery = true)
+    List<Object[]> countByPasswordHashVersion();
+    
     /**
      * Find users by role (requires join on user_roles table)
      */
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r = :role")
     List<User> findByRole(@Param("role") String role);
+    
+    long countByCompanyId(Long companyId);
+    
+    /**
+     * Planner estimate of the users row count; negative if the table was never analyzed
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('users' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
 }
@@ -0,0 +1,43 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.Role;
+import com.ecommerce.userservice.entity.UserRoleAssignment;
+import com.ecommerce.userservice.enums.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserRoleAssignmentRepository extends JpaRepository<UserRoleAssignment, Long> {
+    
+    boolean existsByUserIdAndRoleId(Long userId, Long roleId);
+    
+    @Query("SELECT a.role FROM UserRoleAssignment a WHERE a.user.id = :userId")
+    List<Role> findRolesByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT a.user.id FROM UserRoleAssignment a WHERE a.role.id = :roleId")
+    List<Long> findUserIdsByRoleId(@Param("roleId") Long roleId);
+    
+    /**
+     * Every permission granted to a user through its active roles, in one round trip
+     */
+    @Query("SELECT DISTINCT p FROM UserRoleAssignment a JOIN a.role r JOIN r.permissions p " +
+            "WHERE a.user.id = :userId AND r.isActive = true")
+    List<Permission> findEffectivePermissions(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(a) > 0 FROM UserRoleAssignment a WHERE a.user.id = :userId AND a.role.name = :roleName " +
+            "AND a.role.isActive = true")
+    boolean existsByUserIdAndRoleName(@Param("userId") Long userId, @Param("roleName") String roleName);
+    
+    @Modifying
+    @Query("DELETE FROM UserRoleAssignment a WHERE a.user.id = :userId AND a.role.id = :roleId")
+    int deleteByUserIdAndRoleId(@Param("userId") Long userId, @Param("roleId") Long roleId);
+    
+    @Modifying
+    @Query("DELETE FROM UserRoleAssignment a WHERE a.role.id = :roleId")
+    int deleteByRoleId(@Param("roleId") Long roleId);
+}
@@ -2,7 +2,9 @@ package com.ecommerce.userservice.repository;
 
 import com.ecommerce.userservice.entity.UserSession;
 import com.ecommerce.userservice.enums.SessionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,9 +25,6 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     @Query("SELECT s FROM UserSession s WHERE s.user.id = :userId AND s.status = 'ACTIVE' AND s.expiresAt > :now")
     List<UserSession> findActiveSessionsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
     
-    @Query("SELECT s FROM UserSession s WHERE s.expiresAt < :now AND s.status = 'ACTIVE'")
-    List<UserSession> findExpiredSessions(@Param("now") LocalDateTime now);
-    
     @Query("SELECT s FROM UserSession s WHERE s.user.id = :userId AND s.deviceId = :deviceId AND s.status = 'ACTIVE'")
     Optional<UserSession> findActiveSessionByUserAndDevice(@Param("userId") Long userId, @Param("deviceId") String deviceId);
     
@@ -33,4 +32,56 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     
     @Query("SELECT COUNT(s) FROM UserSession s WHERE s.status = 'ACTIVE' AND s.expiresAt > :now")
     long countActiveSessions(@Param("now") LocalDateTime now);
+    
+    List<UserSession> findByDeviceId(String deviceId);
+    
+    List<UserSession> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    
+    @Query("SELECT COUNT(s) FROM UserSession s WHERE s.user.id = :userId AND s.status = 'ACTIVE' AND s.expiresAt > :now")
+    long countActiveSessionsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Terminate one active session
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.status = 'TERMINATED', s.terminatedAt = :now, s.terminatedReason = :reason " +
+            "WHERE s.sessionToken = :sessionToken AND s.status = 'ACTIVE'")
+    int terminateByToken(@Param("sessionToken") String sessionToken,
+                         @Param("reason") String reason,
+                         @Param("now") LocalDateTime now);
+    
+    /**
+     * Terminate all active sessions of a user in one statement
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.status = 'TERMINATED', s.terminatedAt = :now, s.terminatedReason = :reason " +
+            "WHERE s.user.id = :userId AND s.status = 'ACTIVE'")
+    int terminateByUserId(@Param("userId") Long userId,
+                          @Param("reason") String reason,
+                          @Param("now") LocalDateTime now);
+    
+    /**
+     * Terminate all active sessions of a user except one
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.status = 'TERMINATED', s.terminatedAt = :now, s.terminatedReason = :reason " +
+            "WHERE s.user.id = :userId AND s.status = 'ACTIVE' AND s.sessionToken <> :keepToken")
+    int terminateOthers(@Param("userId") Long userId,
+                        @Param("keepToken") String keepToken,
+                        @Param("reason") String reason,
+                        @Param("now") LocalDateTime now);
+    
+    /**
+     * Terminate all active sessions on a device in one statement
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.status = 'TERMINATED', s.terminatedAt = :now, s.terminatedReason = :reason " +
+            "WHERE s.deviceId = :deviceId AND s.status = 'ACTIVE'")
+    int terminateByDeviceId(@Param("deviceId") String deviceId,
+                            @Param("reason") String reason,
+                            @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE UserSession s SET s.expiresAt = :expiresAt WHERE s.sessionToken = :sessionToken AND s.status = 'ACTIVE'")
+    int extendExpiry(@Param("sessionToken") String sessionToken, @Param("expiresAt") LocalDateTime expiresAt);
 }
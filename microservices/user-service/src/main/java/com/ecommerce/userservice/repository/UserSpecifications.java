@@ -0,0 +1,62 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.entity.UserType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications for tenant-scoped user queries. Every tenant listing starts from
+ * {@link #inCompany(Long)}, so filters combine with company_id as the leading
+ * column of idx_users_company_status, idx_users_company_type or
+ * idx_users_company_lower_email_pattern.
+ */
+public final class UserSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> inCompany(Long companyId) {
+        return (root, query, cb) -> cb.equal(root.get("companyId"), companyId);
+    }
+
+    /**
+     * Matches any status when null
+     */
+    public static Specification<User> hasStatus(UserStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Matches any type when null
+     */
+    public static Specification<User> hasType(UserType type) {
+        return (root, query, cb) -> type == null ? null : cb.equal(root.get("type"), type);
+    }
+
+    /**
+     * Case-insensitive email prefix; a left-anchored LIKE that the text_pattern_ops index can serve.
+     * Matches any email when null or blank.
+     */
+    public static Specification<User> emailStartsWith(String prefix) {
+        return (root, query, cb) -> {
+            if (prefix == null || prefix.isBlank()) {
+                return null;
+            }
+            return cb.like(cb.lower(root.get("email")), escapeLike(prefix.trim().toLowerCase()) + "%", LIKE_ESCAPE);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.userservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Read-only projection of a user with exactly the columns UserResponse exposes;
+ * never carries credentials or tokens
+ */
+public record UserSummary(
+        Long id,
+        Long companyId,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        String phoneNumber,
+        String profileImageUrl,
+        String status,
+        String type,
+        Set<String> roles,
+        Boolean emailVerified,
+        Boolean phoneVerified,
+        Boolean twoFactorEnabled,
+        LocalDateTime lastLogin,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
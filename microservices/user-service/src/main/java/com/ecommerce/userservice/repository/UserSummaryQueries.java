@@ -0,0 +1,201 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Read paths that return {@link UserSummary} projections instead of managed User
+ * entities. Only the columns UserResponse needs are selected, and roles are
+ * aggregated into an array in the same statement, so there is no per-user
+ * collection fetch and nothing is added to the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSummaryQueries {
+
+    private static final String SELECT_SUMMARY =
+            "SELECT u.id, u.company_id, u.username, u.email, u.first_name, u.last_name, u.phone_number, " +
+            "u.profile_image_url, u.status, u.type, u.email_verified, u.phone_verified, u.two_factor_enabled, " +
+            "u.last_login, u.created_at, u.updated_at, " +
+            "ARRAY(SELECT r.role FROM user_roles r WHERE r.user_id = u.id) AS roles " +
+            "FROM users u ";
+
+    private static final String BY_ID_SQL = SELECT_SUMMARY + "WHERE u.id = ?";
+
+    // Served by idx_users_lower_email
+    private static final String BY_EMAIL_SQL = SELECT_SUMMARY + "WHERE lower(u.email) = lower(?)";
+
+    private static final String BY_IDS_SQL = SELECT_SUMMARY + "WHERE u.id = ANY(?)";
+
+    // Served by idx_users_created_at_id
+    private static final String NEWEST_SQL = SELECT_SUMMARY + "ORDER BY u.created_at DESC, u.id DESC LIMIT ?";
+
+    private static final String NEWEST_BEFORE_SQL = SELECT_SUMMARY +
+            "WHERE (u.created_at, u.id) < (?, ?) ORDER BY u.created_at DESC, u.id DESC LIMIT ?";
+
+    // Served by idx_users_company_id_id
+    private static final String COMPANY_AFTER_SQL = SELECT_SUMMARY +
+            "WHERE u.company_id = ? AND u.id > ? ORDER BY u.id LIMIT ?";
+
+    // Unbounded variant for exports, read through a forward-only cursor
+    private static final String COMPANY_STREAM_SQL = SELECT_SUMMARY +
+            "WHERE u.company_id = ? AND u.id > ? ORDER BY u.id";
+
+    private static final RowMapper<UserSummary> ROW_MAPPER = (rs, rowNum) -> new UserSummary(
+            rs.getLong("id"),
+            rs.getLong("company_id"),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("phone_number"),
+            rs.getString("profile_image_url"),
+            rs.getString("status"),
+            rs.getString("type"),
+            toRoles(rs.getArray("roles")),
+            rs.getObject("email_verified", Boolean.class),
+            rs.getObject("phone_verified", Boolean.class),
+            rs.getObject("two_factor_enabled", Boolean.class),
+            rs.getObject("last_login", LocalDateTime.class),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Optional<UserSummary> findById(Long id) {
+        return jdbcTemplate.query(BY_ID_SQL, ROW_MAPPER, id).stream().findFirst();
+    }
+
+    public Optional<UserSummary> findByEmail(String email) {
+        return jdbcTemplate.query(BY_EMAIL_SQL, ROW_MAPPER, email).stream().findFirst();
+    }
+
+    /**
+     * Users newest first, starting after (createdAt, id), or from the newest when createdAt is null
+     */
+    public List<UserSummary> findNewest(LocalDateTime createdAt, Long id, int limit) {
+        if (createdAt == null) {
+            return jdbcTemplate.query(NEWEST_SQL, ROW_MAPPER, limit);
+        }
+        return jdbcTemplate.query(NEWEST_BEFORE_SQL, ROW_MAPPER, Timestamp.valueOf(createdAt), id, limit);
+    }
+
+    /**
+     * A company's users in id order, starting after afterId
+     */
+    public List<UserSummary> findByCompanyAfter(Long companyId, long afterId, int limit) {
+        return jdbcTemplate.query(COMPANY_AFTER_SQL, ROW_MAPPER, companyId, afterId, limit);
+    }
+
+    /**
+     * All of a company's users in id order after afterId, fetched fetchSize rows at a time.
+     * Must be consumed inside a transaction (PostgreSQL only honours the fetch size with
+     * autocommit off) and closed afterwards.
+     */
+    public Stream<UserSummary> streamByCompany(Long companyId, long afterId, int fetchSize) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(COMPANY_STREAM_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, companyId);
+            statement.setLong(2, afterId);
+            return statement;
+        }, ROW_MAPPER);
+    }
+
+    /**
+     * Page of users matching a specification. The specification selects and orders
+     * ids only; the summaries for that page are then fetched in one statement.
+     */
+    public Page<UserSummary> findAll(Specification<User> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id")).orderBy(toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Long> idQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset());
+            idQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = idQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(findAllById(ids), pageable, () -> count(spec));
+    }
+
+    /**
+     * Summaries for the given ids, in the order of the ids
+     */
+    private List<UserSummary> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<UserSummary> summaries = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BY_IDS_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, ROW_MAPPER);
+        summaries.sort(Comparator.comparing(summary -> positions.get(summary.id())));
+        return summaries;
+    }
+
+    private long count(Specification<User> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Set<String> toRoles(Array array) throws SQLException {
+        if (array == null) {
+            return Set.of();
+        }
+        return Set.of((String[]) array.getArray());
+    }
+}
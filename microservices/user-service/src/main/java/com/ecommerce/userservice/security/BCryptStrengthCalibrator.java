@@ -0,0 +1,47 @@
+package com.ecommerce.userservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the highest BCrypt strength whose hashing time stays within a target latency
+ * on the current hardware. Each strength step doubles the cost, so the probe stops
+ * at the first strength that exceeds the target.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String PROBE_PASSWORD = "calibration-Probe#1";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(long targetLatencyMs, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long medianMs = medianEncodeMillis(new BCryptPasswordEncoder(strength));
+            log.info("BCrypt strength {} takes ~{} ms", strength, medianMs);
+            if (medianMs > targetLatencyMs) {
+                break;
+            }
+            chosen = strength;
+        }
+        log.info("Calibrated BCrypt strength {} for a target of {} ms", chosen, targetLatencyMs);
+        return chosen;
+    }
+
+    private static long medianEncodeMillis(BCryptPasswordEncoder encoder) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE_PASSWORD);
+            samples[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
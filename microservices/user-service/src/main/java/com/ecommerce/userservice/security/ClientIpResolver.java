@@ -0,0 +1,81 @@
+package com.ecommerce.userservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the address of the client behind the gateway. X-Forwarded-For is only read
+ * when the connection comes from a trusted proxy, and is walked from the nearest hop
+ * outwards past any further trusted proxies, so a client cannot spoof its address by
+ * sending the header itself. Empty when no address outside the trusted proxies is
+ * known, e.g. the gateway forwarded a request without the header.
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(@Value("${app.client-ip.trusted-proxies:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,127.0.0.0/8,::1/128}")
+                            List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(cidr -> !cidr.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public Optional<String> resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isIpLiteral(remoteAddress)) {
+            return Optional.empty();
+        }
+        if (!isTrustedProxy(remoteAddress)) {
+            return Optional.of(remoteAddress);
+        }
+
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null) {
+            return Optional.empty();
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            // Anything unparseable was not written by a proxy we trust; stop rather than guess
+            if (!isIpLiteral(hop)) {
+                return Optional.empty();
+            }
+            if (!isTrustedProxy(hop)) {
+                return Optional.of(hop);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Literals only, so matching never triggers a DNS lookup
+    private static boolean isIpLiteral(String address) {
+        return address != null && (IPV4.matcher(address).matches() || IPV6.matcher(address).matches());
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.userservice.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that asks for a re-hash whenever a stored hash's cost differs from the
+ * configured one, lower or higher. The stock encoder only upgrades weaker hashes, so
+ * after calibration picks a cheaper cost, hashes made at the old cost would keep their
+ * slower verification forever.
+ * <p>
+ * Nodes must agree on the cost (a fixed strength, or calibration on like hardware),
+ * otherwise each would re-hash the others' hashes on every login.
+ */
+public class ExactCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    public ExactCostBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return super.upgradeEncoding(encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.AuthenticationException;
+import com.ecommerce.userservice.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Single-node stand-in for {@link RedisLoginAttemptLimiter} with the same sliding-window
+ * semantics, for tests and local runs without Redis (app.login-rate-limit.store=memory).
+ * Windows expire once idle for their full length and locks when they run out, mirroring
+ * the Redis key TTLs, so addresses and identifiers seen once do not accumulate.
+ */
+@Component
+@ConditionalOnProperty(name = "app.login-rate-limit.store", havingValue = "memory")
+public class InMemoryLoginAttemptLimiter implements LoginAttemptLimiter {
+
+    private final Cache<String, Deque<Long>> ipWindows;
+    private final Cache<String, Deque<Long>> failureWindows;
+    private final Cache<String, Boolean> locks;
+    private final Ticker ticker;
+
+    private final int ipMaxAttempts;
+    private final long ipWindowMs;
+    private final int accountMaxFailures;
+    private final long accountWindowMs;
+    private final long lockoutDurationMs;
+
+    @Autowired
+    public InMemoryLoginAttemptLimiter(@Value("${app.login-rate-limit.ip-max-attempts:20}") int ipMaxAttempts,
+                                       @Value("${app.login-rate-limit.ip-window:60000}") long ipWindowMs,
+                                       @Value("${app.login-rate-limit.account-max-failures:5}") int accountMaxFailures,
+                                       @Value("${app.login-rate-limit.account-window:1800000}") long accountWindowMs,
+                                       @Value("${app.login-rate-limit.lockout-duration:1800000}") long lockoutDurationMs) {
+        this(ipMaxAttempts, ipWindowMs, accountMaxFailures, accountWindowMs, lockoutDurationMs, Ticker.systemTicker());
+    }
+
+    InMemoryLoginAttemptLimiter(int ipMaxAttempts, long ipWindowMs, int accountMaxFailures,
+                                long accountWindowMs, long lockoutDurationMs, Ticker ticker) {
+        this.ipMaxAttempts = ipMaxAttempts;
+        this.ipWindowMs = ipWindowMs;
+        this.accountMaxFailures = accountMaxFailures;
+        this.accountWindowMs = accountWindowMs;
+        this.lockoutDurationMs = lockoutDurationMs;
+        this.ticker = ticker;
+        this.ipWindows = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(ipWindowMs))
+                .ticker(ticker)
+                .build();
+        this.failureWindows = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(accountWindowMs))
+                .ticker(ticker)
+                .build();
+        this.locks = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(lockoutDurationMs))
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public void checkIpAllowed(String ipAddress) {
+        if (ipAddress == null) {
+            return;
+        }
+        long now = nowMs();
+        Deque<Long> window = ipWindows.get(ipAddress, ip -> new ArrayDeque<>());
+        synchronized (window) {
+            trim(window, now - ipWindowMs);
+            if (window.size() >= ipMaxAttempts) {
+                throw new TooManyRequestsException("Too many login attempts. Try again later.");
+            }
+            window.addLast(now);
+        }
+    }
+
+    @Override
+    public void checkAccountAllowed(String accountKey) {
+        if (locks.getIfPresent(accountKey) != null) {
+            throw new AuthenticationException("Account is locked. Try again later.");
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> recordFailure(String accountKey) {
+        long now = nowMs();
+        Deque<Long> window = failureWindows.get(accountKey, key -> new ArrayDeque<>());
+        synchronized (window) {
+            trim(window, now - accountWindowMs);
+            window.addLast(now);
+            if (window.size() < accountMaxFailures) {
+                return Optional.empty();
+            }
+            window.clear();
+        }
+        locks.put(accountKey, Boolean.TRUE);
+        return Optional.of(LocalDateTime.now().plus(Duration.ofMillis(lockoutDurationMs)));
+    }
+
+    @Override
+    public void recordSuccess(String accountKey) {
+        failureWindows.invalidate(accountKey);
+    }
+
+    @Override
+    public void unlock(String accountKey) {
+        locks.invalidate(accountKey);
+        failureWindows.invalidate(accountKey);
+    }
+
+    private long nowMs() {
+        return ticker.read() / 1_000_000;
+    }
+
+    private static void trim(Deque<Long> window, long cutoff) {
+        while (!window.isEmpty() && window.peekFirst() <= cutoff) {
+            window.pollFirst();
+        }
+    }
+}
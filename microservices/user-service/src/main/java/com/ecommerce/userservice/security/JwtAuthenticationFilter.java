@@ -0,0 +1,95 @@
+package com.ecommerce.userservice.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stateless filter that authenticates requests carrying a Bearer access token.
+ * Authorities come from the token's roles claim, so no database access is needed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = resolveToken(request);
+
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            resolveVerifiedToken(token).ifPresent(verified -> {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        verified.getPrincipal(), null, verified.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            });
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Return the verified token from cache, or verify the signature and cache the result
+     */
+    private Optional<VerifiedTokenCache.VerifiedToken> resolveVerifiedToken(String token) {
+        Optional<VerifiedTokenCache.VerifiedToken> cached = verifiedTokenCache.get(token);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<VerifiedTokenCache.VerifiedToken> verified = jwtTokenProvider.validateAndGetClaims(token)
+                .filter(claims -> "ACCESS".equals(claims.get("type", String.class)))
+                .map(this::toVerifiedToken);
+        verified.ifPresent(value -> verifiedTokenCache.put(token, value));
+        return verified;
+    }
+
+    private VerifiedTokenCache.VerifiedToken toVerifiedToken(Claims claims) {
+        UserPrincipal principal = new UserPrincipal(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("companyId", Long.class));
+
+        List<GrantedAuthority> authorities = jwtTokenProvider.getRoles(claims).stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+
+        return new VerifiedTokenCache.VerifiedToken(principal, authorities, claims.getExpiration().toInstant());
+    }
+
+    private String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length());
+        }
+        return null;
+    }
+}
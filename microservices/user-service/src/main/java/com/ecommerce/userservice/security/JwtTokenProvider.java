@@ -1,17 +1,23 @@
 package com.ecommerce.userservice.security;
 
+import com.ecommerce.userservice.permission.PermissionMask;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * JWT Token Provider for generating and validating tokens
@@ -29,20 +35,58 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration:604800000}") // 7 days in milliseconds
     private long refreshTokenExpirationMs;
     
+    @Value("${jwt.permission-claims:false}")
+    private boolean permissionClaims;
+    
+    // Immutable and thread-safe, so both are built once and shared across requests
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    
+    /**
+     * Derive the signing key and build the parser once at startup
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     /**
      * Generate access token
      */
     public String generateAccessToken(Long userId, String email, Long companyId, Set<String> roles) {
+        return generateAccessToken(userId, email, companyId, roles, PermissionMask.NONE);
+    }
+    
+    /**
+     * Generate access token; with permission claims enabled it also carries the user's
+     * effective permission mask, valid until the token expires
+     */
+    public String generateAccessToken(Long userId, String email, Long companyId, Set<String> roles,
+                                      long permissionMask) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("email", email);
         claims.put("companyId", companyId);
         claims.put("roles", roles);
         claims.put("type", "ACCESS");
+        if (permissionClaims) {
+            claims.put(TokenPermissions.MASK_CLAIM, PermissionMask.encode(permissionMask));
+            claims.put(TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION);
+        }
         
         return generateToken(claims, email, jwtExpirationMs);
     }
     
+    /**
+     * Whether access tokens embed the permission mask
+     */
+    public boolean isPermissionClaimsEnabled() {
+        return permissionClaims;
+    }
+    
     /**
      * Generate refresh token
      */
@@ -51,6 +95,7 @@ public class JwtTokenProvider {
         claims.put("userId", userId);
         claims.put("email", email);
         claims.put("type", "REFRESH");
+        claims.put("jti", UUID.randomUUID().toString()); // refresh tokens are stored by digest, so each must be unique
         
         return generateToken(claims, email, refreshTokenExpirationMs);
     }
@@ -67,18 +112,10 @@ public class JwtTokenProvider {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
     
-    /**
-     * Get signing key
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-    
     /**
      * Get user ID from token
      */
@@ -106,10 +143,31 @@ public class JwtTokenProvider {
     /**
      * Get roles from token
      */
-    @SuppressWarnings("unchecked")
     public Set<String> getRolesFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return (Set<String>) claims.get("roles");
+        return getRoles(getClaimsFromToken(token));
+    }
+    
+    /**
+     * Get roles from already validated claims (deserialized as a JSON array)
+     */
+    public Set<String> getRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> values)) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        for (Object value : values) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+    
+    /**
+     * Get permission claims from already validated claims. Downstream services read these;
+     * this service authorizes from its own cached masks, which reflect revocations at once.
+     */
+    public Optional<TokenPermissions> getPermissions(Claims claims) {
+        return TokenPermissions.from(claims);
     }
     
     /**
@@ -124,24 +182,17 @@ public class JwtTokenProvider {
      * Get claims from token
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     /**
-     * Validate token
+     * Validate token and return its claims, parsing and verifying the signature only once.
+     * Returns empty if the token is invalid or expired.
      */
-    public boolean validateToken(String token) {
+    public Optional<Claims> validateAndGetClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (SecurityException ex) {
+            return Optional.of(getClaimsFromToken(token));
+        } catch (io.jsonwebtoken.security.SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
@@ -151,8 +202,17 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+    
+    /**
+     * Validate token
+     */
+    public boolean validateToken(String token) {
+        return validateAndGetClaims(token).isPresent();
     }
     
     /**
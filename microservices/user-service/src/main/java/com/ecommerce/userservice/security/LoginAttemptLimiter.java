@@ -0,0 +1,50 @@
+package com.ecommerce.userservice.security;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Sliding-window login throttling per client IP and failed-attempt lockout per account.
+ * The IP budget is checked before any database read; the account lock once the login
+ * identifier has been resolved, and before any password hashing.
+ * <p>
+ * Accounts are keyed by user id, so failures typed as email and as username count
+ * against the same lock. Identifiers that match no user are keyed by the identifier.
+ */
+public interface LoginAttemptLimiter {
+
+    /**
+     * Reject the attempt if the IP exceeded its attempt budget. Skipped when the client
+     * address is unknown (null).
+     */
+    void checkIpAllowed(String ipAddress);
+
+    /**
+     * Reject the attempt if the account is locked out
+     */
+    void checkAccountAllowed(String accountKey);
+
+    /**
+     * Record a failed attempt. Returns the lockout expiry if this failure locked the account.
+     */
+    Optional<LocalDateTime> recordFailure(String accountKey);
+
+    /**
+     * Clear the failure window of an account after a successful login
+     */
+    void recordSuccess(String accountKey);
+
+    /**
+     * Lift an account's lockout and forget its recent failures, e.g. on an admin unlock
+     */
+    void unlock(String accountKey);
+
+    static String accountKey(Long userId) {
+        return "user:" + userId;
+    }
+
+    static String unknownAccountKey(String identifier) {
+        return "unknown:" + identifier.toLowerCase(Locale.ROOT);
+    }
+}
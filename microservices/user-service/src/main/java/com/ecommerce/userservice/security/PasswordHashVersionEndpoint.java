@@ -0,0 +1,41 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint reporting how many stored password hashes use each algorithm/cost,
+ * to track progress of on-login hash upgrades. Scans the users table, so it is meant
+ * for occasional operator use.
+ */
+@Component
+@Endpoint(id = "passwordhashes")
+@RequiredArgsConstructor
+public class PasswordHashVersionEndpoint {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.password-hashing.algorithm:bcrypt}")
+    private String currentAlgorithm;
+
+    @ReadOperation
+    public Map<String, Object> versions() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : userRepository.countByPasswordHashVersion()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("currentAlgorithm", currentAlgorithm);
+        result.put("versions", counts);
+        return result;
+    }
+}
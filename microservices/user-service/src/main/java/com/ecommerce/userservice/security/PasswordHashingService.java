@@ -0,0 +1,138 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CPU-bound password hashing on a dedicated, bounded pool so a burst of
+ * logins cannot starve request threads serving other endpoints. When the queue
+ * is full, callers fail fast with 503 instead of piling up.
+ */
+@Component
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.password-hashing.threads:0}") int threads,
+                                  @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.password-hashing.timeout:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.queueWaitTimer = Timer.builder("password.hashing.queue.wait")
+                .description("Time hashing tasks spend queued before running")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing workers currently busy")
+                .register(meterRegistry);
+
+        log.info("Password hashing pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Hash a raw password
+     */
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a raw password against a stored hash
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether a stored hash uses an outdated algorithm or cost (cheap, runs inline)
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceUnavailableException("Too many concurrent authentication requests. Try again later.", ex);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Password hashing timed out. Try again later.", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Password hashing interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing")
+                .description("Password hashing latency")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
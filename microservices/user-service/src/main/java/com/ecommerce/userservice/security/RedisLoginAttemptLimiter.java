@@ -0,0 +1,164 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.AuthenticationException;
+import com.ecommerce.userservice.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Distributed login limiter. Each window is a Redis sorted set of attempt timestamps,
+ * trimmed and counted inside a Lua script so concurrent attempts on any node are
+ * counted atomically. If Redis is unavailable the limiter fails open and the
+ * database-side account lock still applies.
+ */
+@Component
+@ConditionalOnProperty(name = "app.login-rate-limit.store", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisLoginAttemptLimiter implements LoginAttemptLimiter {
+
+    // What both scripts return when the attempt is rejected or the account gets locked
+    private static final long LIMIT_REACHED = 1;
+
+    // KEYS: ip window | ARGV: now, window ms, limit, member
+    private static final RedisScript<Long> IP_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, tonumber(ARGV[1]) - tonumber(ARGV[2])) " +
+            "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then return 1 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 0",
+            Long.class);
+
+    // KEYS: failures window, lock | ARGV: now, window ms, max failures, member, lockout ms
+    private static final RedisScript<Long> FAILURE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, tonumber(ARGV[1]) - tonumber(ARGV[2])) " +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then " +
+            "  redis.call('SET', KEYS[2], '1', 'PX', ARGV[5]) " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 1 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int ipMaxAttempts;
+    private final long ipWindowMs;
+    private final int accountMaxFailures;
+    private final long accountWindowMs;
+    private final long lockoutDurationMs;
+
+    public RedisLoginAttemptLimiter(StringRedisTemplate redisTemplate,
+                                    @Value("${app.login-rate-limit.ip-max-attempts:20}") int ipMaxAttempts,
+                                    @Value("${app.login-rate-limit.ip-window:60000}") long ipWindowMs,
+                                    @Value("${app.login-rate-limit.account-max-failures:5}") int accountMaxFailures,
+                                    @Value("${app.login-rate-limit.account-window:1800000}") long accountWindowMs,
+                                    @Value("${app.login-rate-limit.lockout-duration:1800000}") long lockoutDurationMs) {
+        this.redisTemplate = redisTemplate;
+        this.ipMaxAttempts = ipMaxAttempts;
+        this.ipWindowMs = ipWindowMs;
+        this.accountMaxFailures = accountMaxFailures;
+        this.accountWindowMs = accountWindowMs;
+        this.lockoutDurationMs = lockoutDurationMs;
+    }
+
+    @Override
+    public void checkIpAllowed(String ipAddress) {
+        if (ipAddress == null) {
+            return;
+        }
+        Long result;
+        try {
+            result = redisTemplate.execute(IP_SCRIPT, List.of(ipKey(ipAddress)),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(ipWindowMs),
+                    String.valueOf(ipMaxAttempts),
+                    member());
+        } catch (RuntimeException ex) {
+            log.warn("Login rate limiter unavailable, allowing attempt: {}", ex.getMessage());
+            return;
+        }
+        if (result != null && result == LIMIT_REACHED) {
+            throw new TooManyRequestsException("Too many login attempts. Try again later.");
+        }
+    }
+
+    @Override
+    public void checkAccountAllowed(String accountKey) {
+        Boolean locked;
+        try {
+            locked = redisTemplate.hasKey(lockKey(accountKey));
+        } catch (RuntimeException ex) {
+            log.warn("Login rate limiter unavailable, allowing attempt: {}", ex.getMessage());
+            return;
+        }
+        if (Boolean.TRUE.equals(locked)) {
+            throw new AuthenticationException("Account is locked. Try again later.");
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> recordFailure(String accountKey) {
+        try {
+            Long locked = redisTemplate.execute(FAILURE_SCRIPT,
+                    List.of(failuresKey(accountKey), lockKey(accountKey)),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(accountWindowMs),
+                    String.valueOf(accountMaxFailures),
+                    member(),
+                    String.valueOf(lockoutDurationMs));
+            if (locked != null && locked == LIMIT_REACHED) {
+                return Optional.of(LocalDateTime.now().plus(Duration.ofMillis(lockoutDurationMs)));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to record login failure: {}", ex.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void recordSuccess(String accountKey) {
+        try {
+            redisTemplate.delete(failuresKey(accountKey));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to reset login failures: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void unlock(String accountKey) {
+        try {
+            redisTemplate.delete(List.of(lockKey(accountKey), failuresKey(accountKey)));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to lift login lockout: {}", ex.getMessage());
+        }
+    }
+
+    private static String ipKey(String ipAddress) {
+        return "login:ip:" + ipAddress;
+    }
+
+    private static String failuresKey(String accountKey) {
+        return "login:failures:" + accountKey;
+    }
+
+    private static String lockKey(String accountKey) {
+        return "login:lock:" + accountKey;
+    }
+
+    // Unique sorted-set member so attempts in the same millisecond are all counted
+    private static String member() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.userservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fixed-size SHA-256 digests of tokens, so raw tokens never need to be stored or indexed
+ */
+public final class TokenHasher {
+
+    private TokenHasher() {
+    }
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public static String sha256Hex(String token) {
+        return HexFormat.of().formatHex(sha256(token));
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.permission.PermissionMask;
+import io.jsonwebtoken.Claims;
+
+import java.util.Optional;
+
+/**
+ * Verifier for the permission claims of an access token. Once the token's signature
+ * has been checked, any service sharing {@link Permission} can authorize from the
+ * claims alone, without resolving roles or calling back into this service.
+ * Tokens issued under a different permission layout are not trusted: their bits
+ * would map to the wrong permissions.
+ */
+public final class TokenPermissions {
+
+    public static final String MASK_CLAIM = "perms";
+    public static final String SCHEMA_CLAIM = "pv";
+
+    private final long mask;
+
+    private TokenPermissions(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Read the permission claims from verified claims. Empty if the token carries none,
+     * was issued under another schema version, or the mask is malformed.
+     */
+    public static Optional<TokenPermissions> from(Claims claims) {
+        String encoded = claims.get(MASK_CLAIM, String.class);
+        Integer schemaVersion = claims.get(SCHEMA_CLAIM, Integer.class);
+        if (encoded == null || schemaVersion == null || schemaVersion != PermissionMask.SCHEMA_VERSION) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new TokenPermissions(PermissionMask.decode(encoded)));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public boolean has(Permission permission) {
+        return PermissionMask.has(mask, permission);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.userservice.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Authenticated principal built from a verified access token
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserPrincipal {
+    private final Long userId;
+    private final String email;
+    private final Long companyId;
+}
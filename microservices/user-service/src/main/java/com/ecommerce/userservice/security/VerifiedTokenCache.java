@@ -0,0 +1,99 @@
+package com.ecommerce.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded cache of already verified access tokens, keyed by the SHA-256 of the token.
+ * Each entry expires no later than the token itself, so a cached hit is never more permissive
+ * than re-verifying the signature.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:300000}") long maxTtlMs,
+                              MeterRegistry meterRegistry) {
+        long maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                value.getExpiresAt().toEpochMilli() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under /actuator/metrics,
+        // tagged like the two-level caches so every cache.* meter shares one tag set
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens", Tags.of("tier", "local"));
+    }
+
+    /**
+     * Look up a previously verified token
+     */
+    public Optional<VerifiedToken> get(String token) {
+        return Optional.ofNullable(cache.getIfPresent(hash(token)));
+    }
+
+    /**
+     * Remember a token whose signature and expiry have just been verified
+     */
+    public void put(String token, VerifiedToken verifiedToken) {
+        if (verifiedToken.getExpiresAt().isAfter(Instant.now())) {
+            cache.put(hash(token), verifiedToken);
+        }
+    }
+
+    /**
+     * Drop a token, e.g. after it has been revoked
+     */
+    public void invalidate(String token) {
+        cache.invalidate(hash(token));
+    }
+
+    private static String hash(String token) {
+        return TokenHasher.sha256Hex(token);
+    }
+
+    /**
+     * Result of a successful token verification
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final UserPrincipal principal;
+        private final List<GrantedAuthority> authorities;
+        private final Instant expiresAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.cache.UserCacheEvictor;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persists lockouts decided by the login limiter to users.account_locked_until,
+ * off the request path
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginLockoutSynchronizer {
+    
+    private final UserRepository userRepository;
+    private final UserCacheEvictor userCacheEvictor;
+    
+    @Async
+    @Transactional
+    public void syncLockout(User user, LocalDateTime lockedUntil) {
+        log.info("Locking account {} until {} after repeated failed logins", user.getId(), lockedUntil);
+        userRepository.lockAccount(user.getId(), lockedUntil, User.MAX_FAILED_LOGIN_ATTEMPTS);
+        userCacheEvictor.evict(user);
+    }
+}
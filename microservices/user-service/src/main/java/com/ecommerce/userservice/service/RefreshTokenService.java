@@ -0,0 +1,38 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.entity.RefreshToken;
+import com.ecommerce.userservice.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Refresh token store - per-device tokens kept as fixed-size digests
+ */
+public interface RefreshTokenService {
+    
+    /**
+     * Store a newly issued refresh token, replacing the previous one for the same device
+     */
+    void store(User user, String deviceId, String refreshToken, LocalDateTime expiresAt);
+    
+    /**
+     * Find an unexpired stored token (with its user)
+     */
+    Optional<RefreshToken> findActive(String refreshToken);
+    
+    /**
+     * Replace a stored token with its successor
+     */
+    void rotate(RefreshToken stored, String newRefreshToken, LocalDateTime expiresAt);
+    
+    /**
+     * Revoke all refresh tokens of a user
+     */
+    void revokeAll(Long userId);
+    
+    /**
+     * Delete expired tokens, returns the number removed
+     */
+    int purgeExpired();
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.entity.RefreshToken;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.repository.RefreshTokenRepository;
+import com.ecommerce.userservice.security.TokenHasher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Implementation of RefreshTokenService
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    
+    @Value("${app.refresh-tokens.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+    
+    @Override
+    @Transactional
+    public void store(User user, String deviceId, String refreshToken, LocalDateTime expiresAt) {
+        byte[] tokenHash = TokenHasher.sha256(refreshToken);
+        if (deviceId != null) {
+            // One token per device; an upsert, so concurrent logins on a device cannot collide
+            refreshTokenRepository.upsertForDevice(user.getId(), deviceId, tokenHash, expiresAt);
+            return;
+        }
+        
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(tokenHash)
+                .expiresAt(expiresAt)
+                .build());
+    }
+    
+    @Override
+    public Optional<RefreshToken> findActive(String refreshToken) {
+        return refreshTokenRepository.findByTokenHash(TokenHasher.sha256(refreshToken))
+                .filter(token -> !token.isExpired());
+    }
+    
+    @Override
+    @Transactional
+    public void rotate(RefreshToken stored, String newRefreshToken, LocalDateTime expiresAt) {
+        stored.setTokenHash(TokenHasher.sha256(newRefreshToken));
+        stored.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(stored);
+    }
+    
+    @Override
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.deleteByUserId(userId);
+        log.debug("Revoked {} refresh tokens for user: {}", revoked, userId);
+    }
+    
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpiredBatch(LocalDateTime.now(), cleanupBatchSize);
+    }
+    
+    /**
+     * Purge expired tokens in bounded batches, oldest first, so no single delete holds long locks
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.cleanup-interval:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledCleanup() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = purgeExpired();
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.userservice.service;
 
 import com.ecommerce.userservice.dto.request.CreateRoleRequest;
+import com.ecommerce.userservice.dto.response.BulkRoleJobResponse;
 import com.ecommerce.userservice.dto.response.RoleResponse;
 import com.ecommerce.userservice.enums.Permission;
 
@@ -40,6 +41,10 @@ public interface RoleService {
     // Bulk operations
     void assignRoleToUsers(List<Long> userIds, Long roleId, Long assignedBy);
     void removeRoleFromUsers(List<Long> userIds, Long roleId);
+    // companyId limits a job to that company's roles and users; null for administrators
+    BulkRoleJobResponse startAssignRoleToUsers(List<Long> userIds, Long roleId, Long assignedBy, Long companyId);
+    BulkRoleJobResponse startRemoveRoleFromUsers(List<Long> userIds, Long roleId, Long companyId);
+    BulkRoleJobResponse getBulkJob(String jobId, Long companyId);
     
     // Validation
     boolean canAssignRole(Long userId, Long roleId);
@@ -0,0 +1,353 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.request.CreateRoleRequest;
+import com.ecommerce.userservice.dto.response.BulkRoleJobResponse;
+import com.ecommerce.userservice.dto.response.RoleResponse;
+import com.ecommerce.userservice.entity.Role;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserRoleAssignment;
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.exception.InvalidOperationException;
+import com.ecommerce.userservice.exception.ResourceAlreadyExistsException;
+import com.ecommerce.userservice.exception.ResourceNotFoundException;
+import com.ecommerce.userservice.mapper.RoleMapper;
+import com.ecommerce.userservice.permission.BulkRoleAssignmentJobs;
+import com.ecommerce.userservice.permission.PermissionMask;
+import com.ecommerce.userservice.permission.RoleAssignmentStore;
+import com.ecommerce.userservice.permission.UserPermissionCache;
+import com.ecommerce.userservice.repository.RoleRepository;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserRoleAssignmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Implementation of RoleService. User permission checks are answered from
+ * compiled per-user masks (see {@link UserPermissionCache}); every change to
+ * a role's permissions or to a user's assignments invalidates them on commit.
+ * Bulk assignments run as chunked set-based statements (see {@link BulkRoleAssignmentJobs}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class RoleServiceImpl implements RoleService {
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final UserRoleAssignmentRepository assignmentRepository;
+    private final RoleMapper roleMapper;
+    private final UserPermissionCache permissionCache;
+    private final RoleAssignmentStore roleAssignmentStore;
+    private final BulkRoleAssignmentJobs bulkRoleAssignmentJobs;
+
+    @Override
+    @Transactional
+    public RoleResponse createRole(Long companyId, CreateRoleRequest request) {
+        if (roleRepository.existsByNameAndCompanyId(request.getName(), companyId)) {
+            throw new ResourceAlreadyExistsException("Role already exists: " + request.getName());
+        }
+
+        Role role = Role.builder()
+                .companyId(companyId)
+                .name(request.getName())
+                .description(request.getDescription())
+                .permissions(permissionsOf(request))
+                .build();
+
+        Role savedRole = roleRepository.save(role);
+        log.info("Role created: {} (company {})", savedRole.getName(), companyId);
+        return roleMapper.toResponse(savedRole);
+    }
+
+    @Override
+    @Transactional
+    public RoleResponse updateRole(Long roleId, CreateRoleRequest request) {
+        Role role = findModifiableRole(roleId);
+
+        if (!role.getName().equals(request.getName())
+                && roleRepository.existsByNameAndCompanyId(request.getName(), role.getCompanyId())) {
+            throw new ResourceAlreadyExistsException("Role already exists: " + request.getName());
+        }
+
+        role.setName(request.getName());
+        role.setDescription(request.getDescription());
+        role.setPermissions(permissionsOf(request));
+        permissionCache.invalidateAll();
+
+        return roleMapper.toResponse(roleRepository.save(role));
+    }
+
+    @Override
+    @Transactional
+    public void deleteRole(Long roleId) {
+        Role role = findModifiableRole(roleId);
+
+        assignmentRepository.deleteByRoleId(roleId);
+        roleRepository.delete(role);
+        permissionCache.invalidateAll();
+        log.info("Role deleted: {}", role.getName());
+    }
+
+    @Override
+    public RoleResponse getRoleById(Long roleId) {
+        return roleMapper.toResponse(findRole(roleId));
+    }
+
+    @Override
+    public RoleResponse getRoleByName(String name, Long companyId) {
+        return roleRepository.findByNameAndCompanyId(name, companyId)
+                .map(roleMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + name));
+    }
+
+    @Override
+    public List<RoleResponse> getAllRoles(Long companyId) {
+        return roleMapper.toResponses(roleRepository.findByCompanyId(companyId));
+    }
+
+    @Override
+    public List<RoleResponse> getSystemRoles() {
+        return roleMapper.toResponses(roleRepository.findByIsSystemRole(true));
+    }
+
+    @Override
+    @Transactional
+    public RoleResponse addPermission(Long roleId, Permission permission) {
+        Role role = findModifiableRole(roleId);
+        role.addPermission(permission);
+        permissionCache.invalidateAll();
+        return roleMapper.toResponse(roleRepository.save(role));
+    }
+
+    @Override
+    @Transactional
+    public RoleResponse removePermission(Long roleId, Permission permission) {
+        Role role = findModifiableRole(roleId);
+        role.removePermission(permission);
+        permissionCache.invalidateAll();
+        return roleMapper.toResponse(roleRepository.save(role));
+    }
+
+    @Override
+    @Transactional
+    public RoleResponse setPermissions(Long roleId, Set<Permission> permissions) {
+        Role role = findModifiableRole(roleId);
+        role.setPermissions(new HashSet<>(permissions));
+        permissionCache.invalidateAll();
+        return roleMapper.toResponse(roleRepository.save(role));
+    }
+
+    @Override
+    public boolean hasPermission(Long roleId, Permission permission) {
+        return PermissionMask.has(PermissionMask.of(findRole(roleId).getPermissions()), permission);
+    }
+
+    @Override
+    public Set<Permission> getRolePermissions(Long roleId) {
+        return PermissionMask.toSet(PermissionMask.of(findRole(roleId).getPermissions()));
+    }
+
+    @Override
+    @Transactional
+    public void assignRoleToUser(Long userId, Long roleId, Long assignedBy) {
+        User user = findUser(userId);
+        Role role = findRole(roleId);
+        requireAssignable(user, role);
+
+        if (assignmentRepository.existsByUserIdAndRoleId(userId, roleId)) {
+            return;
+        }
+
+        assignmentRepository.save(UserRoleAssignment.builder()
+                .user(user)
+                .role(role)
+                .assignedBy(assignedBy)
+                .assignedAt(LocalDateTime.now())
+                .build());
+        permissionCache.invalidateUser(userId);
+        log.info("Role {} assigned to user {}", role.getName(), userId);
+    }
+
+    @Override
+    @Transactional
+    public void removeRoleFromUser(Long userId, Long roleId) {
+        if (assignmentRepository.deleteByUserIdAndRoleId(userId, roleId) > 0) {
+            permissionCache.invalidateUser(userId);
+            log.info("Role {} removed from user {}", roleId, userId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void setUserRoles(Long userId, List<Long> roleIds, Long assignedBy) {
+        User user = findUser(userId);
+        Set<Long> uniqueRoleIds = new LinkedHashSet<>(roleIds);
+        List<Role> roles = roleRepository.findAllById(uniqueRoleIds);
+        if (roles.size() != uniqueRoleIds.size()) {
+            throw new ResourceNotFoundException("One or more roles not found: " + roleIds);
+        }
+        roles.forEach(role -> requireAssignable(user, role));
+
+        // Two statements regardless of how many roles change; unchanged assignments are kept
+        if (roleAssignmentStore.replace(userId, uniqueRoleIds, assignedBy, LocalDateTime.now())) {
+            permissionCache.invalidateUser(userId);
+        }
+    }
+    
+    @Override
+    public List<RoleResponse> getUserRoles(Long userId) {
+        return roleMapper.toResponses(assignmentRepository.findRolesByUserId(userId));
+    }
+
+    @Override
+    public Set<Permission> getUserPermissions(Long userId) {
+        return PermissionMask.toSet(permissionCache.getMask(userId));
+    }
+
+    @Override
+    public boolean userHasPermission(Long userId, Permission permission) {
+        return PermissionMask.has(permissionCache.getMask(userId), permission);
+    }
+
+    @Override
+    public boolean userHasRole(Long userId, String roleName) {
+        return assignmentRepository.existsByUserIdAndRoleName(userId, roleName);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void assignRoleToUsers(List<Long> userIds, Long roleId, Long assignedBy) {
+        requireActive(findRole(roleId));
+        requireCompleted(bulkRoleAssignmentJobs.execute(
+                BulkRoleAssignmentJobs.Operation.ASSIGN, roleId, null, userIds, assignedBy));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void removeRoleFromUsers(List<Long> userIds, Long roleId) {
+        requireCompleted(bulkRoleAssignmentJobs.execute(
+                BulkRoleAssignmentJobs.Operation.REMOVE, roleId, null, userIds, null));
+    }
+
+    @Override
+    public BulkRoleJobResponse startAssignRoleToUsers(List<Long> userIds, Long roleId, Long assignedBy,
+                                                      Long companyId) {
+        requireActive(findRoleOfCompany(roleId, companyId));
+        return bulkRoleAssignmentJobs.submit(
+                BulkRoleAssignmentJobs.Operation.ASSIGN, roleId, companyId, userIds, assignedBy);
+    }
+
+    @Override
+    public BulkRoleJobResponse startRemoveRoleFromUsers(List<Long> userIds, Long roleId, Long companyId) {
+        findRoleOfCompany(roleId, companyId);
+        return bulkRoleAssignmentJobs.submit(
+                BulkRoleAssignmentJobs.Operation.REMOVE, roleId, companyId, userIds, null);
+    }
+
+    @Override
+    public BulkRoleJobResponse getBulkJob(String jobId, Long companyId) {
+        return bulkRoleAssignmentJobs.find(jobId, companyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bulk role job not found: " + jobId));
+    }
+
+    @Override
+    public boolean canAssignRole(Long userId, Long roleId) {
+        return userRepository.findById(userId)
+                .flatMap(user -> roleRepository.findById(roleId).map(role -> isAssignable(user, role)))
+                .orElse(false);
+    }
+
+    @Override
+    public List<String> getValidationErrors(CreateRoleRequest request) {
+        List<String> errors = new ArrayList<>();
+        if (request.getName() == null || request.getName().isBlank()) {
+            errors.add("Role name is required");
+        } else if (request.getName().length() < 2 || request.getName().length() > 50) {
+            errors.add("Role name must be between 2 and 50 characters");
+        }
+        if (request.getDescription() != null && request.getDescription().length() > 255) {
+            errors.add("Description cannot exceed 255 characters");
+        }
+        if (request.getPermissions() == null || request.getPermissions().isEmpty()) {
+            errors.add("At least one permission is required");
+        }
+        return errors;
+    }
+
+    // Helper methods
+
+    private Role findRole(Long roleId) {
+        return roleRepository.findById(roleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found with ID: " + roleId));
+    }
+
+    /**
+     * A role the company may hand out: one of its own. System roles belong to no company,
+     * so only an unrestricted (null) caller gets them. Roles of other companies are
+     * reported as missing.
+     */
+    private Role findRoleOfCompany(Long roleId, Long companyId) {
+        Role role = findRole(roleId);
+        if (companyId != null && !companyId.equals(role.getCompanyId())) {
+            throw new ResourceNotFoundException("Role not found with ID: " + roleId);
+        }
+        return role;
+    }
+
+    private Role findModifiableRole(Long roleId) {
+        Role role = findRole(roleId);
+        if (Boolean.TRUE.equals(role.getIsSystemRole())) {
+            throw new InvalidOperationException("System roles cannot be modified");
+        }
+        return role;
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+    }
+
+    private void requireAssignable(User user, Role role) {
+        if (!isAssignable(user, role)) {
+            throw new InvalidOperationException("Role " + role.getName() + " cannot be assigned to user " + user.getId());
+        }
+    }
+
+    private void requireActive(Role role) {
+        if (!Boolean.TRUE.equals(role.getIsActive())) {
+            throw new InvalidOperationException("Role " + role.getName() + " is not active");
+        }
+    }
+
+    private static void requireCompleted(BulkRoleJobResponse job) {
+        if (!"COMPLETED".equals(job.getStatus())) {
+            // Both operations are idempotent, so the whole call can be retried
+            throw new InvalidOperationException("Bulk role " + job.getOperation().toLowerCase() + " failed for "
+                    + job.getFailedChunks() + " of " + job.getTotalChunks() + " chunks: " + job.getError());
+        }
+    }
+
+    /**
+     * Active system roles can go to anyone; company roles only to users of that company
+     */
+    private static boolean isAssignable(User user, Role role) {
+        return Boolean.TRUE.equals(role.getIsActive())
+                && (role.getCompanyId() == null || Objects.equals(role.getCompanyId(), user.getCompanyId()));
+    }
+
+    private static Set<Permission> permissionsOf(CreateRoleRequest request) {
+        return request.getPermissions() != null ? new HashSet<>(request.getPermissions()) : new HashSet<>();
+    }
+}
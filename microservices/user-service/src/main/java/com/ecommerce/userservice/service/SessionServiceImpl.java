@@ -0,0 +1,302 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.response.UserSessionResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserSession;
+import com.ecommerce.userservice.enums.SessionStatus;
+import com.ecommerce.userservice.exception.AuthenticationException;
+import com.ecommerce.userservice.exception.ResourceNotFoundException;
+import com.ecommerce.userservice.mapper.UserSessionMapper;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserSessionRepository;
+import com.ecommerce.userservice.security.TokenHasher;
+import com.ecommerce.userservice.session.ExpiredSessionSweeper;
+import com.ecommerce.userservice.session.RedisSessionStore;
+import com.ecommerce.userservice.session.SessionActivityTracker;
+import com.ecommerce.userservice.session.SessionEntry;
+import com.ecommerce.userservice.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of SessionService. Live session state is served from Redis
+ * (see {@link RedisSessionStore}); user_sessions is the durable record and is
+ * only written on lifecycle changes, plus batched last_activity write-behind.
+ * Redis is authoritative for validity: a session missing there is not valid,
+ * and the database is consulted only when Redis cannot be reached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SessionServiceImpl implements SessionService {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    
+    private final UserSessionRepository userSessionRepository;
+    private final UserRepository userRepository;
+    private final UserSessionMapper userSessionMapper;
+    private final RedisSessionStore sessionStore;
+    private final SessionActivityTracker activityTracker;
+    private final ExpiredSessionSweeper expiredSessionSweeper;
+    
+    @Value("${app.sessions.ttl:PT24H}")
+    private Duration sessionTtl;
+    
+    @Override
+    @Transactional
+    public UserSessionResponse createSession(Long userId, String ipAddress, String userAgent,
+                                             String deviceType, String deviceId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        
+        String sessionToken = newToken();
+        String tokenHash = TokenHasher.sha256Hex(sessionToken);
+        LocalDateTime now = LocalDateTime.now();
+        
+        UserSession session = userSessionRepository.save(UserSession.builder()
+                .user(user)
+                .sessionToken(tokenHash)
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .deviceType(deviceType)
+                .deviceId(deviceId)
+                .lastActivity(now)
+                .expiresAt(now.plus(sessionTtl))
+                .build());
+        
+        SessionEntry entry = toEntry(session);
+        TransactionCallbacks.afterCommit(() -> saveToStore(tokenHash, entry));
+        
+        UserSessionResponse response = userSessionMapper.toResponse(session);
+        response.setSessionToken(sessionToken);
+        return response;
+    }
+    
+    @Override
+    public UserSessionResponse getSessionById(Long sessionId) {
+        return userSessionMapper.toResponse(findById(sessionId));
+    }
+    
+    @Override
+    public UserSessionResponse getSessionByToken(String sessionToken) {
+        return userSessionRepository.findBySessionToken(TokenHasher.sha256Hex(sessionToken))
+                .map(userSessionMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+    }
+    
+    @Override
+    public List<UserSessionResponse> getUserSessions(Long userId) {
+        return userSessionMapper.toResponses(userSessionRepository.findByUserId(userId));
+    }
+    
+    @Override
+    public List<UserSessionResponse> getActiveSessions(Long userId) {
+        return userSessionMapper.toResponses(
+                userSessionRepository.findActiveSessionsByUserId(userId, LocalDateTime.now()));
+    }
+    
+    @Override
+    public List<UserSessionResponse> getSessionsByStatus(Long userId, SessionStatus status) {
+        return userSessionMapper.toResponses(userSessionRepository.findByUserIdAndStatus(userId, status));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void updateSessionActivity(String sessionToken) {
+        activityTracker.touch(TokenHasher.sha256Hex(sessionToken), LocalDateTime.now());
+    }
+    
+    @Override
+    public void updateSessionActivity(Long sessionId) {
+        activityTracker.touch(findById(sessionId).getSessionToken(), LocalDateTime.now());
+    }
+    
+    @Override
+    @Transactional
+    public void terminateSession(String sessionToken, String reason) {
+        terminateByHash(TokenHasher.sha256Hex(sessionToken), reason);
+    }
+    
+    @Override
+    @Transactional
+    public void terminateSession(Long sessionId, String reason) {
+        terminateByHash(findById(sessionId).getSessionToken(), reason);
+    }
+    
+    @Override
+    @Transactional
+    public void terminateAllSessions(Long userId, String reason) {
+        int terminated = userSessionRepository.terminateByUserId(userId, reason, LocalDateTime.now());
+        log.info("Terminated {} sessions of user {}: {}", terminated, userId, reason);
+        TransactionCallbacks.afterCommit(() -> removeFromStore(sessionStore.findByUser(userId), userId, null));
+    }
+    
+    @Override
+    @Transactional
+    public void terminateOtherSessions(Long userId, String currentSessionToken, String reason) {
+        String keepHash = TokenHasher.sha256Hex(currentSessionToken);
+        userSessionRepository.terminateOthers(userId, keepHash, reason, LocalDateTime.now());
+        TransactionCallbacks.afterCommit(() -> {
+            Set<String> others = new HashSet<>(sessionStore.findByUser(userId));
+            others.remove(keepHash);
+            removeFromStore(others, userId, null);
+        });
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isSessionValid(String sessionToken) {
+        return findLive(TokenHasher.sha256Hex(sessionToken))
+                .map(entry -> entry.isActive(System.currentTimeMillis()))
+                .orElse(false);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isSessionActive(String sessionToken) {
+        return isSessionValid(sessionToken);
+    }
+    
+    @Override
+    @Transactional
+    public void refreshSession(String sessionToken) {
+        String tokenHash = TokenHasher.sha256Hex(sessionToken);
+        UserSession session = userSessionRepository.findBySessionToken(tokenHash)
+                .filter(UserSession::isActive)
+                .orElseThrow(() -> new AuthenticationException("Session is not active"));
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(sessionTtl);
+        userSessionRepository.extendExpiry(tokenHash, expiresAt);
+        SessionEntry entry = toEntry(session).toBuilder()
+                .expiresAtMillis(toEpochMillis(expiresAt))
+                .build();
+        TransactionCallbacks.afterCommit(() -> saveToStore(tokenHash, entry));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void markExpiredSessions() {
+        expiredSessionSweeper.sweep(LocalDateTime.now(), null);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cleanupExpiredSessions(int daysOld) {
+        expiredSessionSweeper.sweep(null, LocalDateTime.now().minusDays(daysOld));
+    }
+    
+    @Override
+    public long countActiveSessions(Long userId) {
+        return userSessionRepository.countActiveSessionsByUserId(userId, LocalDateTime.now());
+    }
+    
+    @Override
+    public long countTotalActiveSessions() {
+        return userSessionRepository.countActiveSessions(LocalDateTime.now());
+    }
+    
+    @Override
+    public List<UserSessionResponse> getRecentSessions(Long userId, int limit) {
+        return userSessionMapper.toResponses(
+                userSessionRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, limit)));
+    }
+    
+    @Override
+    public UserSessionResponse getSessionByUserAndDevice(Long userId, String deviceId) {
+        return userSessionRepository.findActiveSessionByUserAndDevice(userId, deviceId)
+                .map(userSessionMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("No active session for device: " + deviceId));
+    }
+    
+    @Override
+    public List<UserSessionResponse> getSessionsByDevice(String deviceId) {
+        return userSessionMapper.toResponses(userSessionRepository.findByDeviceId(deviceId));
+    }
+    
+    @Override
+    @Transactional
+    public void terminateDeviceSessions(String deviceId, String reason) {
+        int terminated = userSessionRepository.terminateByDeviceId(deviceId, reason, LocalDateTime.now());
+        log.info("Terminated {} sessions on device {}: {}", terminated, deviceId, reason);
+        TransactionCallbacks.afterCommit(() -> removeFromStore(sessionStore.findByDevice(deviceId), null, deviceId));
+    }
+    
+    private void terminateByHash(String tokenHash, String reason) {
+        userSessionRepository.terminateByToken(tokenHash, reason, LocalDateTime.now());
+        // The store finds the session's user and device indexes from its hash
+        TransactionCallbacks.afterCommit(() -> removeFromStore(Set.of(tokenHash), null, null));
+    }
+    
+    /**
+     * Live session from Redis; the database is only a fallback for when Redis is unreachable
+     */
+    private Optional<SessionEntry> findLive(String tokenHash) {
+        try {
+            return sessionStore.find(tokenHash);
+        } catch (RuntimeException ex) {
+            log.warn("Session store unavailable, falling back to database: {}", ex.getMessage());
+            return userSessionRepository.findBySessionToken(tokenHash).map(this::toEntry);
+        }
+    }
+    
+    private void saveToStore(String tokenHash, SessionEntry entry) {
+        try {
+            sessionStore.save(tokenHash, entry);
+        } catch (RuntimeException ex) {
+            // The session is recorded but cannot be validated; the client has to sign in again
+            log.error("Failed to store session {} in the session store: {}", entry.getSessionId(), ex.getMessage());
+        }
+    }
+    
+    private void removeFromStore(Set<String> tokenHashes, Long userId, String deviceId) {
+        tokenHashes.forEach(activityTracker::forget);
+        try {
+            sessionStore.remove(tokenHashes, userId, deviceId);
+        } catch (RuntimeException ex) {
+            // Terminated sessions stay marked in the database; Redis entries still expire by TTL
+            log.error("Failed to remove {} sessions from the session store: {}", tokenHashes.size(), ex.getMessage());
+        }
+    }
+    
+    private UserSession findById(Long sessionId) {
+        return userSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found with ID: " + sessionId));
+    }
+    
+    private SessionEntry toEntry(UserSession session) {
+        return SessionEntry.builder()
+                .sessionId(session.getId())
+                .userId(session.getUser().getId())
+                .deviceId(session.getDeviceId())
+                .status(session.getStatus())
+                .expiresAtMillis(toEpochMillis(session.getExpiresAt()))
+                .build();
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+    
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
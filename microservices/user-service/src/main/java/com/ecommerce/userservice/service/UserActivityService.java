@@ -30,7 +30,7 @@ public interface UserActivityService {
     List<UserActivityResponse> getSuspiciousActivities(Long userId);
     List<UserActivityResponse> getRecentSuspiciousActivities(int hours);
     void markActivityAsSuspicious(Long activityId);
-    void resolveS uspiciousActivity(Long activityId);
+    void resolveSuspiciousActivity(Long activityId);
     
     // Analytics
     long countActivitiesByType(Long userId, ActivityType activityType);
@@ -0,0 +1,200 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.activity.ActivityEvent;
+import com.ecommerce.userservice.activity.ActivityIngestionPipeline;
+import com.ecommerce.userservice.activity.ActivityPartitionManager;
+import com.ecommerce.userservice.activity.ActivityRollupCache;
+import com.ecommerce.userservice.activity.ActivityRollupStore;
+import com.ecommerce.userservice.dto.response.UserActivityResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.enums.ActivityType;
+import com.ecommerce.userservice.exception.ResourceNotFoundException;
+import com.ecommerce.userservice.mapper.UserActivityMapper;
+import com.ecommerce.userservice.repository.UserActivityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of UserActivityService. Logging methods only enqueue an event
+ * for {@link ActivityIngestionPipeline}; nothing is written on the request path.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class UserActivityServiceImpl implements UserActivityService {
+    
+    private final UserActivityRepository userActivityRepository;
+    private final UserActivityMapper userActivityMapper;
+    private final ActivityIngestionPipeline activityIngestionPipeline;
+    private final ActivityPartitionManager activityPartitionManager;
+    private final ActivityRollupStore activityRollupStore;
+    private final ActivityRollupCache activityRollupCache;
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logActivity(Long userId, ActivityType activityType, String description, String details,
+                            String ipAddress, String userAgent) {
+        activityIngestionPipeline.submit(ActivityEvent.builder()
+                .userId(userId)
+                .activityType(activityType)
+                .description(description)
+                .details(details)
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logActivity(Long userId, ActivityType activityType, String description) {
+        logActivity(userId, activityType, description, null, null, null);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logLoginAttempt(Long userId, boolean success, String ipAddress, String userAgent) {
+        if (success) {
+            logActivity(userId, ActivityType.LOGIN, "User logged in", null, ipAddress, userAgent);
+        } else {
+            logActivity(userId, ActivityType.FAILED_LOGIN_ATTEMPT, "Failed login attempt", null, ipAddress, userAgent);
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logSuspiciousActivity(Long userId, String description, String details, String ipAddress) {
+        log.warn("Suspicious activity for user {}: {}", userId, description);
+        activityIngestionPipeline.submit(ActivityEvent.builder()
+                .userId(userId)
+                .activityType(ActivityType.SUSPICIOUS_ACTIVITY_DETECTED)
+                .description(description)
+                .details(details)
+                .ipAddress(ipAddress)
+                .suspicious(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+    
+    @Override
+    public Page<UserActivityResponse> getUserActivities(Long userId, Pageable pageable) {
+        return userActivityRepository.findByUserId(userId, pageable)
+                .map(userActivityMapper::toResponse);
+    }
+    
+    @Override
+    public Page<UserActivityResponse> getUserActivitiesByType(Long userId, ActivityType activityType, Pageable pageable) {
+        return userActivityRepository.findByUserIdAndActivityType(userId, activityType, pageable)
+                .map(userActivityMapper::toResponse);
+    }
+    
+    @Override
+    public List<UserActivityResponse> getUserActivitiesByDateRange(Long userId, LocalDateTime start, LocalDateTime end) {
+        return userActivityMapper.toResponses(
+                userActivityRepository.findByUserIdAndCreatedAtBetween(userId, start, end));
+    }
+    
+    @Override
+    public List<UserActivityResponse> getRecentActivities(Long userId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        return userActivityRepository.findByUserId(userId, pageable)
+                .map(userActivityMapper::toResponse)
+                .getContent();
+    }
+    
+    @Override
+    public List<UserActivityResponse> getSuspiciousActivities(Long userId) {
+        return userActivityMapper.toResponses(userActivityRepository.findSuspiciousActivitiesByUserId(userId));
+    }
+    
+    @Override
+    public List<UserActivityResponse> getRecentSuspiciousActivities(int hours) {
+        return userActivityMapper.toResponses(
+                userActivityRepository.findRecentSuspiciousActivities(LocalDateTime.now().minusHours(hours)));
+    }
+    
+    @Override
+    @Transactional
+    public void markActivityAsSuspicious(Long activityId) {
+        if (userActivityRepository.updateSuspicious(activityId, true) == 0) {
+            throw new ResourceNotFoundException("Activity not found with ID: " + activityId);
+        }
+    }
+    
+    @Override
+    @Transactional
+    public void resolveSuspiciousActivity(Long activityId) {
+        if (userActivityRepository.updateSuspicious(activityId, false) == 0) {
+            throw new ResourceNotFoundException("Activity not found with ID: " + activityId);
+        }
+    }
+    
+    @Override
+    public long countActivitiesByType(Long userId, ActivityType activityType) {
+        return getActivityDistribution(userId).getOrDefault(activityType, 0L);
+    }
+    
+    @Override
+    public Map<ActivityType, Long> getActivityDistribution(Long userId) {
+        return activityRollupCache.getCountsByType(userId, () -> activityRollupStore.countsByType(userId));
+    }
+    
+    @Override
+    public Map<String, Long> getActivityTrend(Long userId, int days) {
+        Map<String, Long> trend = new LinkedHashMap<>();
+        activityRollupStore.dailyTotals(userId, LocalDate.now().minusDays(days))
+                .forEach((day, count) -> trend.put(day.toString(), count));
+        return trend;
+    }
+    
+    @Override
+    public List<UserActivityResponse> getMostFrequentActivities(Long userId, int limit) {
+        return userActivityMapper.toResponses(userActivityRepository.findLatestOfMostFrequentTypes(userId, limit));
+    }
+    
+    @Override
+    public List<UserActivityResponse> getFailedLoginAttempts(Long userId, int hours) {
+        return userActivityMapper.toResponses(
+                userActivityRepository.findByUserIdAndActivityTypeAndCreatedAtAfterOrderByCreatedAtDesc(
+                        userId, ActivityType.FAILED_LOGIN_ATTEMPT, LocalDateTime.now().minusHours(hours)));
+    }
+    
+    @Override
+    public boolean hasRecentSuspiciousActivity(Long userId, int hours) {
+        return userActivityRepository.existsSuspiciousActivitySince(userId, LocalDateTime.now().minusHours(hours));
+    }
+    
+    @Override
+    public void analyzeUserBehavior(Long userId) {
+        long recentFailures = userActivityRepository.countByUserIdAndActivityTypeAndCreatedAtAfter(
+                userId, ActivityType.FAILED_LOGIN_ATTEMPT, LocalDateTime.now().minusHours(1));
+        if (recentFailures >= User.MAX_FAILED_LOGIN_ATTEMPTS) {
+            logSuspiciousActivity(userId,
+                    "Repeated failed login attempts",
+                    "{\"failedAttemptsLastHour\":" + recentFailures + "}",
+                    null);
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cleanupOldActivities(int daysOld) {
+        // Whole monthly partitions are dropped instead of deleting rows
+        int removed = activityPartitionManager.removePartitionsBefore(LocalDate.now().minusDays(daysOld));
+        log.info("Removed {} activity partitions older than {} days", removed, daysOld);
+    }
+}
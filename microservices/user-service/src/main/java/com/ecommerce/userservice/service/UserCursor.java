@@ -0,0 +1,96 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.exception.InvalidOperationException;
+import com.ecommerce.userservice.repository.UserSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key of the last row
+ * returned, base64url-encoded. A cursor only continues the listing it came from.
+ */
+final class UserCursor {
+
+    private static final String BY_CREATED_AT = "T";
+    private static final String BY_COMPANY = "C";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long companyId;
+    private final long id;
+
+    private UserCursor(LocalDateTime createdAt, Long companyId, long id) {
+        this.createdAt = createdAt;
+        this.companyId = companyId;
+        this.id = id;
+    }
+
+    LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Cursor after the last user of a newest-first page
+     */
+    static String byCreatedAt(UserSummary last) {
+        return encode(BY_CREATED_AT + SEPARATOR + last.createdAt() + SEPARATOR + last.id());
+    }
+
+    /**
+     * Cursor after the last user of a company page
+     */
+    static String byCompany(UserSummary last) {
+        return encode(BY_COMPANY + SEPARATOR + last.companyId() + SEPARATOR + last.id());
+    }
+
+    static UserCursor parseByCreatedAt(String cursor) {
+        String[] parts = decode(cursor, BY_CREATED_AT);
+        try {
+            return new UserCursor(LocalDateTime.parse(parts[1]), null, Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    static UserCursor parseByCompany(String cursor, Long companyId) {
+        String[] parts = decode(cursor, BY_COMPANY);
+        try {
+            UserCursor parsed = new UserCursor(null, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            if (!parsed.companyId.equals(companyId)) {
+                throw invalid();
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, String expectedKind) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+        String[] parts = value.split("\\|", -1);
+        if (parts.length != 3 || !expectedKind.equals(parts[0])) {
+            throw invalid();
+        }
+        return parts;
+    }
+
+    private static InvalidOperationException invalid() {
+        return new InvalidOperationException("Invalid cursor");
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.enums.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streaming export of users
+ */
+public interface UserExportService {
+    
+    /**
+     * Export a company's users in ID order, starting after afterId (0 for all) so an interrupted
+     * export can be resumed from the last ID received. Reserves one of a limited number of
+     * export slots up front; it is released once the body is written, or when the request
+     * ends without the body having run.
+     */
+    StreamingResponseBody exportCompanyUsers(Long companyId, long afterId, ExportFormat format, boolean gzip);
+}
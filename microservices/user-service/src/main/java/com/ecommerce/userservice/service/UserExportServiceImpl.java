@@ -0,0 +1,230 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.enums.ExportFormat;
+import com.ecommerce.userservice.exception.TooManyRequestsException;
+import com.ecommerce.userservice.mapper.UserMapper;
+import com.ecommerce.userservice.repository.UserSummary;
+import com.ecommerce.userservice.repository.UserSummaryQueries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of UserExportService. Rows are read through a forward-only cursor
+ * and written as they arrive, so memory use does not depend on the number of users;
+ * no entities are loaded. Each export holds a database connection for its duration,
+ * hence the cap on concurrent exports.
+ * <p>
+ * A slot is taken when the export is requested, so a client over the cap gets a 429
+ * before any headers are sent. It is given back by whichever comes first: the body
+ * starting to run (which then releases it when done), or the end of the request's
+ * async processing, which covers a body that never ran because the request timed
+ * out, failed or was abandoned before it was scheduled.
+ * <p>
+ * Exports run far longer than other async requests, so only they get the longer
+ * app.user-export.request-timeout; everything else keeps the default async timeout.
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+    
+    private static final String CSV_HEADER = "id,companyId,username,email,firstName,lastName,phoneNumber," +
+            "profileImageUrl,status,type,roles,emailVerified,phoneVerified,twoFactorEnabled," +
+            "lastLogin,createdAt,updatedAt\n";
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // Signed numbers and phone numbers: a leading + or - followed by nothing a formula could use
+    private static final Pattern NUMERIC_TEXT = Pattern.compile("[+-][0-9 ().-]*");
+    
+    private final UserSummaryQueries userSummaryQueries;
+    private final UserMapper userMapper;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore exportSlots;
+    private final int fetchSize;
+    private final int flushEvery;
+    private final Duration requestTimeout;
+    
+    public UserExportServiceImpl(UserSummaryQueries userSummaryQueries,
+                                 UserMapper userMapper,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.user-export.max-concurrent:2}") int maxConcurrent,
+                                 @Value("${app.user-export.fetch-size:1000}") int fetchSize,
+                                 @Value("${app.user-export.flush-every:1000}") int flushEvery,
+                                 @Value("${app.user-export.request-timeout:PT1H}") Duration requestTimeout) {
+        this.userSummaryQueries = userSummaryQueries;
+        this.userMapper = userMapper;
+        this.jsonWriter = objectMapper.writer();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exportSlots = new Semaphore(maxConcurrent);
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+        this.requestTimeout = requestTimeout;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamingResponseBody exportCompanyUsers(Long companyId, long afterId, ExportFormat format, boolean gzip) {
+        if (!exportSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports in progress, try again later");
+        }
+        log.info("Exporting users of company {} after ID {} as {}", companyId, afterId, format);
+        
+        // Set by the body when it starts, or by the request completing without it
+        AtomicBoolean slotClaimed = new AtomicBoolean();
+        interceptAsyncProcessing(slotClaimed);
+        return outputStream -> {
+            if (!slotClaimed.compareAndSet(false, true)) {
+                // The request already ended and gave the slot back
+                return;
+            }
+            try {
+                // Sync flush, so each flush sends the rows compressed so far instead of holding them in the deflater
+                OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE, true) : outputStream;
+                try (OutputStream out = new BufferedOutputStream(target, BUFFER_SIZE)) {
+                    Long written = readOnlyTransaction.execute(status -> writeUsers(companyId, afterId, format, out));
+                    log.info("Exported {} users of company {}", written, companyId);
+                }
+            } finally {
+                exportSlots.release();
+            }
+        };
+    }
+    
+    /**
+     * Apply the export timeout to the current request's async processing, and give the slot
+     * back when it ends unless the body claimed it first. Without a web request only the
+     * body releases it.
+     */
+    private void interceptAsyncProcessing(AtomicBoolean slotClaimed) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(
+                UserExportServiceImpl.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                        if (request instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(requestTimeout.toMillis());
+                        }
+                    }
+                    
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        if (slotClaimed.compareAndSet(false, true)) {
+                            exportSlots.release();
+                        }
+                    }
+                });
+    }
+    
+    private long writeUsers(Long companyId, long afterId, ExportFormat format, OutputStream out) {
+        long written = 0;
+        try (Stream<UserSummary> users = userSummaryQueries.streamByCompany(companyId, afterId, fetchSize)) {
+            if (format == ExportFormat.CSV) {
+                out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+            }
+            Iterator<UserSummary> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserSummary user = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    out.write(toCsvLine(user).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(jsonWriter.writeValueAsBytes(userMapper.toResponse(user)));
+                    out.write('\n');
+                }
+                // Keep bytes moving to the client instead of accumulating in buffers
+                if (++written % flushEvery == 0) {
+                    out.flush();
+                }
+            }
+            return written;
+        } catch (IOException ex) {
+            // Usually the client went away; the transaction rolls back and the cursor is closed
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private static String toCsvLine(UserSummary user) {
+        StringBuilder line = new StringBuilder(256);
+        line.append(user.id()).append(',')
+                .append(user.companyId()).append(',');
+        appendText(line, user.username()).append(',');
+        appendText(line, user.email()).append(',');
+        appendText(line, user.firstName()).append(',');
+        appendText(line, user.lastName()).append(',');
+        appendText(line, user.phoneNumber()).append(',');
+        appendText(line, user.profileImageUrl()).append(',');
+        appendCsv(line, user.status()).append(',');
+        appendCsv(line, user.type()).append(',');
+        appendCsv(line, String.join(";", user.roles())).append(',');
+        appendCsv(line, user.emailVerified()).append(',');
+        appendCsv(line, user.phoneVerified()).append(',');
+        appendCsv(line, user.twoFactorEnabled()).append(',');
+        appendCsv(line, user.lastLogin()).append(',');
+        appendCsv(line, user.createdAt()).append(',');
+        appendCsv(line, user.updatedAt());
+        return line.append('\n').toString();
+    }
+    
+    /**
+     * User-supplied field. One starting like a formula is quoted; unless it is a plain
+     * signed or phone number, it is also prefixed with a quote so a spreadsheet keeps it as text.
+     */
+    private static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null || value.isEmpty() || "=+-@\t\r".indexOf(value.charAt(0)) < 0) {
+            return appendCsv(line, value);
+        }
+        return appendQuoted(line, NUMERIC_TEXT.matcher(value).matches() ? value : "'" + value);
+    }
+    
+    /**
+     * RFC 4180 quoting; null becomes an empty field
+     */
+    private static StringBuilder appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return line;
+        }
+        String text = String.valueOf(value);
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return line.append(text);
+        }
+        return appendQuoted(line, text);
+    }
+    
+    private static StringBuilder appendQuoted(StringBuilder line, String text) {
+        return line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
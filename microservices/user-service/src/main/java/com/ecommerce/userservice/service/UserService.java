@@ -2,7 +2,11 @@ package com.ecommerce.userservice.service;
 
 import com.ecommerce.userservice.dto.request.*;
 import com.ecommerce.userservice.dto.response.AuthResponse;
+import com.ecommerce.userservice.dto.response.CursorPageResponse;
 import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.entity.UserType;
+import com.ecommerce.userservice.enums.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -17,9 +21,9 @@ public interface UserService {
     UserResponse register(RegisterUserRequest request);
     
     /**
-     * Login user and generate tokens
+     * Login user and generate tokens; attempts are throttled per account and client IP
      */
-    AuthResponse login(LoginRequest request);
+    AuthResponse login(LoginRequest request, String ipAddress, String userAgent);
     
     /**
      * Refresh access token using refresh token
@@ -87,7 +91,7 @@ public interface UserService {
     boolean verifyTwoFactorCode(Long userId, String code);
     
     /**
-     * Get all users (paginated)
+     * Get all users (paginated), limited to one company when companyId is given
      */
     Page<UserResponse> getAllUsers(Long companyId, Pageable pageable);
     
@@ -96,6 +100,22 @@ public interface UserService {
      */
     Page<UserResponse> getUsersByCompany(Long companyId, Pageable pageable);
     
+    /**
+     * Search a company's users; null filters match everything
+     */
+    Page<UserResponse> searchUsersByCompany(Long companyId, UserStatus status, UserType type,
+                                            String emailPrefix, Pageable pageable);
+    
+    /**
+     * List all users newest first, continuing after the given cursor (null for the first page)
+     */
+    CursorPageResponse<UserResponse> listUsers(String cursor, int size, CountMode countMode);
+    
+    /**
+     * List a company's users in ID order, continuing after the given cursor (null for the first page)
+     */
+    CursorPageResponse<UserResponse> listUsersByCompany(Long companyId, String cursor, int size, CountMode countMode);
+    
     /**
      * Soft delete user
      */
@@ -1,30 +1,47 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.cache.UserCacheEvictor;
+import com.ecommerce.userservice.cache.UserCacheKeys;
+import com.ecommerce.userservice.cache.UserCountCache;
 import com.ecommerce.userservice.dto.request.*;
 import com.ecommerce.userservice.dto.response.AuthResponse;
+import com.ecommerce.userservice.dto.response.CursorPageResponse;
 import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.RefreshToken;
 import com.ecommerce.userservice.entity.User;
 import com.ecommerce.userservice.entity.UserRole;
 import com.ecommerce.userservice.entity.UserStatus;
 import com.ecommerce.userservice.entity.UserType;
+import com.ecommerce.userservice.enums.CountMode;
 import com.ecommerce.userservice.exception.*;
 import com.ecommerce.userservice.mapper.UserMapper;
+import com.ecommerce.userservice.permission.PermissionMask;
+import com.ecommerce.userservice.permission.UserPermissionCache;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserSpecifications;
+import com.ecommerce.userservice.repository.UserSummary;
+import com.ecommerce.userservice.repository.UserSummaryQueries;
 import com.ecommerce.userservice.security.JwtTokenProvider;
+import com.ecommerce.userservice.security.LoginAttemptLimiter;
+import com.ecommerce.userservice.security.PasswordHashingService;
+import com.ecommerce.userservice.util.TransactionCallbacks;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Implementation of UserService
@@ -35,10 +52,20 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserCacheEvictor userCacheEvictor;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final LoginLockoutSynchronizer loginLockoutSynchronizer;
+    private final UserActivityService userActivityService;
+    private final UserPermissionCache userPermissionCache;
+    private final UserCountCache userCountCache;
+    private final UserSummaryQueries userSummaryQueries;
     
     @Override
     @Transactional
@@ -57,7 +84,7 @@ public class UserServiceImpl implements UserService {
         
         // Create user entity
         User user = userMapper.toEntity(request);
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHashingService.encode(request.getPassword()));
         user.setType(UserType.valueOf(request.getUserType().toUpperCase()));
         user.setStatus(UserStatus.PENDING_VERIFICATION);
         
@@ -86,13 +113,26 @@ public class UserServiceImpl implements UserService {
     
     @Override
     @Transactional
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String ipAddress, String userAgent) {
         log.info("Login attempt for: {}", request.getEmailOrUsername());
         
+        // Throttle per IP before touching the database
+        String identifier = request.getEmailOrUsername();
+        loginAttemptLimiter.checkIpAllowed(ipAddress);
+        
         // Find user by email or username
-        User user = userRepository.findByEmailIgnoreCase(request.getEmailOrUsername())
-                .or(() -> userRepository.findByUsernameIgnoreCase(request.getEmailOrUsername()))
-                .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
+        Optional<User> found = userRepository.findByLoginIdentifier(identifier);
+        if (found.isEmpty()) {
+            String unknownKey = LoginAttemptLimiter.unknownAccountKey(identifier);
+            loginAttemptLimiter.checkAccountAllowed(unknownKey);
+            loginAttemptLimiter.recordFailure(unknownKey);
+            throw new AuthenticationException("Invalid credentials");
+        }
+        User user = found.get();
+        
+        // Failures count per account, whichever identifier was typed, and are checked before hashing
+        String accountKey = LoginAttemptLimiter.accountKey(user.getId());
+        loginAttemptLimiter.checkAccountAllowed(accountKey);
         
         // Check if account is locked
         if (user.isAccountLocked()) {
@@ -105,15 +145,19 @@ public class UserServiceImpl implements UserService {
         }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            user.incrementFailedLoginAttempts();
-            userRepository.save(user);
+        if (!passwordHashingService.matches(request.getPassword(), user.getPasswordHash())) {
+            userActivityService.logLoginAttempt(user.getId(), false, ipAddress, userAgent);
+            loginAttemptLimiter.recordFailure(accountKey)
+                    .ifPresent(lockedUntil -> loginLockoutSynchronizer.syncLockout(user, lockedUntil));
             throw new AuthenticationException("Invalid credentials");
         }
         
-        // Reset failed login attempts
-        user.resetFailedLoginAttempts();
-        user.setLastLogin(LocalDateTime.now());
+        // Transparently re-hash with the current algorithm and cost
+        String upgradedHash = null;
+        if (passwordHashingService.upgradeEncoding(user.getPasswordHash())) {
+            log.debug("Upgrading password hash for user: {}", user.getId());
+            upgradedHash = passwordHashingService.encode(request.getPassword());
+        }
         
         // Generate tokens
         Set<String> roles = userMapper.mapRoles(user.getRoles());
@@ -121,14 +165,27 @@ public class UserServiceImpl implements UserService {
                 user.getId(), 
                 user.getEmail(), 
                 user.getCompanyId(), 
-                roles
+                roles,
+                permissionMaskFor(user)
         );
         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getEmail());
         
-        // Save refresh token
-        user.setRefreshToken(refreshToken);
-        user.setRefreshTokenExpires(LocalDateTime.now().plusDays(7));
-        userRepository.save(user);
+        // Reset failed attempts with a single targeted UPDATE
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.recordSuccessfulLogin(user.getId(), now);
+        if (upgradedHash != null) {
+            userRepository.updatePasswordHash(user.getId(), upgradedHash);
+        }
+        userCacheEvictor.evict(user);
+        loginAttemptLimiter.recordSuccess(accountKey);
+        userActivityService.logLoginAttempt(user.getId(), true, ipAddress, userAgent);
+        
+        // Save refresh token (one per device)
+        refreshTokenService.store(user, request.getDeviceId(), refreshToken, now.plusDays(7));
+        
+        // The entity is detached by the bulk update; mirror the new state for the response
+        user.resetFailedLoginAttempts();
+        user.setLastLogin(now);
         
         log.info("User logged in successfully: {}", user.getEmail());
         
@@ -146,21 +203,17 @@ public class UserServiceImpl implements UserService {
     public AuthResponse refreshToken(String refreshToken) {
         log.info("Refreshing access token");
         
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
-            throw new AuthenticationException("Invalid refresh token");
-        }
+        Claims claims = jwtTokenProvider.validateAndGetClaims(refreshToken)
+                .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
         
-        String tokenType = jwtTokenProvider.getTokenType(refreshToken);
+        String tokenType = claims.get("type", String.class);
         if (!"REFRESH".equals(tokenType)) {
             throw new AuthenticationException("Invalid token type");
         }
         
-        User user = userRepository.findByRefreshToken(refreshToken)
+        RefreshToken storedToken = refreshTokenService.findActive(refreshToken)
                 .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
-        
-        if (user.getRefreshTokenExpires().isBefore(LocalDateTime.now())) {
-            throw new AuthenticationException("Refresh token expired");
-        }
+        User user = storedToken.getUser();
         
         // Generate new tokens
         Set<String> roles = userMapper.mapRoles(user.getRoles());
@@ -168,14 +221,13 @@ public class UserServiceImpl implements UserService {
                 user.getId(), 
                 user.getEmail(), 
                 user.getCompanyId(), 
-                roles
+                roles,
+                permissionMaskFor(user)
         );
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getEmail());
         
-        // Update refresh token
-        user.setRefreshToken(newRefreshToken);
-        user.setRefreshTokenExpires(LocalDateTime.now().plusDays(7));
-        userRepository.save(user);
+        // Rotate refresh token
+        refreshTokenService.rotate(storedToken, newRefreshToken, LocalDateTime.now().plusDays(7));
         
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
@@ -191,49 +243,47 @@ public class UserServiceImpl implements UserService {
     public void logout(Long userId) {
         log.info("Logging out user: {}", userId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
         
-        user.setRefreshToken(null);
-        user.setRefreshTokenExpires(null);
-        userRepository.save(user);
+        refreshTokenService.revokeAll(userId);
         
         log.info("User logged out successfully: {}", userId);
     }
     
     @Override
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = UserCacheKeys.CACHE_NAME, key = "T(com.ecommerce.userservice.cache.UserCacheKeys).byId(#id)")
     public UserResponse getUserById(Long id) {
         log.debug("Fetching user by ID: {}", id);
         
-        User user = userRepository.findById(id)
+        return userSummaryQueries.findById(id)
+                .map(userMapper::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
-        
-        return userMapper.toResponse(user);
     }
     
     @Override
-    @Cacheable(value = "users", key = "#email")
+    @Cacheable(value = UserCacheKeys.CACHE_NAME, key = "T(com.ecommerce.userservice.cache.UserCacheKeys).byEmail(#email)")
     public UserResponse getUserByEmail(String email) {
         log.debug("Fetching user by email: {}", email);
         
-        User user = userRepository.findByEmailIgnoreCase(email)
+        return userSummaryQueries.findByEmail(email)
+                .map(userMapper::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        
-        return userMapper.toResponse(user);
     }
     
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public UserResponse updateUser(Long id, UpdateUserRequest request) {
         log.info("Updating user: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         userMapper.updateEntityFromRequest(request, user);
         User updated = userRepository.save(user);
+        userCacheEvictor.evict(updated, cachedKeys);
         
         log.info("User updated successfully: {}", id);
         return userMapper.toResponse(updated);
@@ -250,13 +300,15 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getCurrentPassword(), user.getPasswordHash())) {
             throw new AuthenticationException("Current password is incorrect");
         }
         
-        user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
+        user.setPasswordHash(passwordHashingService.encode(request.getNewPassword()));
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("Password changed successfully for user: {}", id);
     }
@@ -286,15 +338,17 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findByPasswordResetToken(token)
                 .orElseThrow(() -> new InvalidOperationException("Invalid or expired reset token"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         if (user.getPasswordResetExpires().isBefore(LocalDateTime.now())) {
             throw new InvalidOperationException("Reset token has expired");
         }
         
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setPasswordHash(passwordHashingService.encode(newPassword));
         user.setPasswordResetToken(null);
         user.setPasswordResetExpires(null);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("Password reset successfully for user: {}", user.getEmail());
     }
@@ -306,6 +360,7 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findByEmailVerificationToken(token)
                 .orElseThrow(() -> new InvalidOperationException("Invalid or expired verification token"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         if (user.getEmailVerificationExpires().isBefore(LocalDateTime.now())) {
             throw new InvalidOperationException("Verification token has expired");
@@ -316,6 +371,7 @@ public class UserServiceImpl implements UserService {
         user.setEmailVerificationExpires(null);
         user.setStatus(UserStatus.ACTIVE);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("Email verified successfully for user: {}", user.getEmail());
     }
@@ -348,11 +404,13 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         String secret = UUID.randomUUID().toString(); // In production, use Google Authenticator secret
         user.setTwoFactorSecret(secret);
         user.setTwoFactorEnabled(true);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("2FA enabled for user: {}", userId);
         return secret;
@@ -365,10 +423,12 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         user.setTwoFactorSecret(null);
         user.setTwoFactorEnabled(false);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("2FA disabled for user: {}", userId);
     }
@@ -388,9 +448,8 @@ public class UserServiceImpl implements UserService {
     public Page<UserResponse> getAllUsers(Long companyId, Pageable pageable) {
         log.debug("Fetching all users, companyId: {}", companyId);
         
-        Page<User> users = companyId != null 
-                ? userRepository.findAll(pageable) 
-                : userRepository.findAll(pageable);
+        Page<UserSummary> users = userSummaryQueries.findAll(
+                companyId != null ? UserSpecifications.inCompany(companyId) : null, pageable);
         
         return users.map(userMapper::toResponse);
     }
@@ -399,37 +458,90 @@ public class UserServiceImpl implements UserService {
     public Page<UserResponse> getUsersByCompany(Long companyId, Pageable pageable) {
         log.debug("Fetching users for company: {}", companyId);
         
-        Page<User> users = userRepository.findAll(pageable);
+        Page<UserSummary> users = userSummaryQueries.findAll(UserSpecifications.inCompany(companyId), pageable);
         return users.map(userMapper::toResponse);
     }
     
+    @Override
+    public Page<UserResponse> searchUsersByCompany(Long companyId, UserStatus status, UserType type,
+                                                   String emailPrefix, Pageable pageable) {
+        log.debug("Searching users for company {}: status={}, type={}, emailPrefix={}",
+                companyId, status, type, emailPrefix);
+        
+        Specification<User> spec = UserSpecifications.inCompany(companyId)
+                .and(UserSpecifications.hasStatus(status))
+                .and(UserSpecifications.hasType(type))
+                .and(UserSpecifications.emailStartsWith(emailPrefix));
+        return userSummaryQueries.findAll(spec, pageable).map(userMapper::toResponse);
+    }
+    
+    @Override
+    public CursorPageResponse<UserResponse> listUsers(String cursor, int size, CountMode countMode) {
+        int limit = pageSize(size);
+        List<UserSummary> users;
+        if (cursor == null || cursor.isEmpty()) {
+            users = userSummaryQueries.findNewest(null, null, limit + 1);
+        } else {
+            UserCursor after = UserCursor.parseByCreatedAt(cursor);
+            users = userSummaryQueries.findNewest(after.getCreatedAt(), after.getId(), limit + 1);
+        }
+        
+        CursorPageResponse<UserResponse> page = toCursorPage(users, limit, UserCursor::byCreatedAt);
+        switch (countMode) {
+            case EXACT -> page.setTotalCount(userCountCache.countAll());
+            case APPROXIMATE -> {
+                long estimate = userRepository.estimateCount();
+                page.setTotalCount(estimate >= 0 ? estimate : userCountCache.countAll());
+            }
+            case NONE -> { }
+        }
+        page.setTotalCountExact(countMode == CountMode.EXACT);
+        return page;
+    }
+    
+    @Override
+    public CursorPageResponse<UserResponse> listUsersByCompany(Long companyId, String cursor, int size,
+                                                               CountMode countMode) {
+        int limit = pageSize(size);
+        long afterId = cursor == null || cursor.isEmpty() ? 0L : UserCursor.parseByCompany(cursor, companyId).getId();
+        List<UserSummary> users = userSummaryQueries.findByCompanyAfter(companyId, afterId, limit + 1);
+        
+        CursorPageResponse<UserResponse> page = toCursorPage(users, limit, UserCursor::byCompany);
+        // There are no per-company statistics, so an approximate count is the cached exact one
+        if (countMode != CountMode.NONE) {
+            page.setTotalCount(userCountCache.countByCompany(companyId));
+        }
+        page.setTotalCountExact(countMode == CountMode.EXACT);
+        return page;
+    }
+    
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void softDeleteUser(Long id) {
         log.info("Soft deleting user: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         user.setDeletedAt(LocalDateTime.now());
         user.setStatus(UserStatus.DELETED);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("User soft deleted: {}", id);
     }
     
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void deleteUser(Long id) {
         log.info("Permanently deleting user: {}", id);
         
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        userCacheEvictor.evict(user);
         log.info("User permanently deleted: {}", id);
     }
     
@@ -440,9 +552,11 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         user.setAccountLockedUntil(LocalDateTime.now().plusDays(365)); // Lock for 1 year
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("Account locked: {}", id);
     }
@@ -454,26 +568,60 @@ public class UserServiceImpl implements UserService {
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         user.setAccountLockedUntil(null);
         user.setFailedLoginAttempts(0);
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
+        // The limiter's lock is checked before the database flag, so it has to go as well
+        String accountKey = LoginAttemptLimiter.accountKey(user.getId());
+        TransactionCallbacks.afterCommit(() -> loginAttemptLimiter.unlock(accountKey));
         
         log.info("Account unlocked: {}", id);
     }
     
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void updateStatus(Long id, String status) {
         log.info("Updating status for user {}: {}", id, status);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> cachedKeys = userCacheEvictor.keysOf(user);
         
         user.setStatus(UserStatus.valueOf(status.toUpperCase()));
         userRepository.save(user);
+        userCacheEvictor.evict(user, cachedKeys);
         
         log.info("User status updated: {}", id);
     }
+    
+    /**
+     * Effective permissions to embed in an access token, if tokens carry them
+     */
+    private long permissionMaskFor(User user) {
+        return jwtTokenProvider.isPermissionClaimsEnabled()
+                ? userPermissionCache.getMask(user.getId())
+                : PermissionMask.NONE;
+    }
+    
+    private static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Build a page from up to limit + 1 rows; the extra row only signals that another page exists
+     */
+    private CursorPageResponse<UserResponse> toCursorPage(List<UserSummary> users, int limit,
+                                                          Function<UserSummary, String> cursorOf) {
+        boolean hasNext = users.size() > limit;
+        List<UserSummary> content = hasNext ? users.subList(0, limit) : users;
+        return CursorPageResponse.<UserResponse>builder()
+                .content(content.stream().map(userMapper::toResponse).toList())
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null)
+                .build();
+    }
 }
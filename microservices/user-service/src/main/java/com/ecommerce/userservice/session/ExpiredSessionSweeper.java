@@ -0,0 +1,239 @@
+package com.ecommerce.userservice.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works through expired sessions in small keyset batches ordered by (expires_at, id):
+ * active sessions past their expiry are marked EXPIRED, and ended sessions past the
+ * retention period are deleted. Every batch is one set-based statement committed on
+ * its own, so locks are held only for the rows of that batch. A PostgreSQL advisory
+ * lock makes sure only one node sweeps at a time.
+ */
+@Component
+@Slf4j
+public class ExpiredSessionSweeper {
+
+    // Arbitrary application-wide key for pg_try_advisory_lock
+    static final long ADVISORY_LOCK_KEY = 0x5E55_1011_5EE9L;
+
+    private static final String EXPIRE_BATCH_SQL =
+            "WITH batch AS (" +
+            "  SELECT id FROM user_sessions " +
+            "  WHERE status = 'ACTIVE' AND expires_at < ? AND (expires_at, id) > (?, ?) " +
+            "  ORDER BY expires_at, id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE user_sessions s SET status = 'EXPIRED' FROM batch WHERE s.id = batch.id " +
+            "RETURNING s.expires_at, s.id";
+
+    private static final String DELETE_BATCH_SQL =
+            "WITH batch AS (" +
+            "  SELECT id FROM user_sessions " +
+            "  WHERE status <> 'ACTIVE' AND expires_at < ? AND (expires_at, id) > (?, ?) " +
+            "  ORDER BY expires_at, id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "DELETE FROM user_sessions s USING batch WHERE s.id = batch.id " +
+            "RETURNING s.expires_at, s.id";
+
+    private static final String EXPIRE_BACKLOG_SQL =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM user_sessions " +
+            "WHERE status = 'ACTIVE' AND expires_at < ? LIMIT ?) backlog";
+
+    private static final String DELETE_BACKLOG_SQL =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM user_sessions " +
+            "WHERE status <> 'ACTIVE' AND expires_at < ? LIMIT ?) backlog";
+
+    private static final Timestamp KEYSET_START = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseBetweenBatchesMs;
+    private final int retentionDays;
+    private final long backlogCap;
+
+    private final Counter expiredCounter;
+    private final Counter deletedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong expireBacklog = new AtomicLong();
+    private final AtomicLong deleteBacklog = new AtomicLong();
+
+    public ExpiredSessionSweeper(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.sessions.sweeper.batch-size:1000}") int batchSize,
+                                 @Value("${app.sessions.sweeper.max-batches-per-run:500}") int maxBatchesPerRun,
+                                 @Value("${app.sessions.sweeper.pause-between-batches:0}") long pauseBetweenBatchesMs,
+                                 @Value("${app.sessions.sweeper.retention-days:30}") int retentionDays,
+                                 @Value("${app.sessions.sweeper.backlog-cap:1000000}") long backlogCap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseBetweenBatchesMs = pauseBetweenBatchesMs;
+        this.retentionDays = retentionDays;
+        this.backlogCap = backlogCap;
+
+        this.expiredCounter = rowCounter(meterRegistry, "expired");
+        this.deletedCounter = rowCounter(meterRegistry, "deleted");
+        this.batchTimer = Timer.builder("sessions.sweeper.batch")
+                .description("Time to process one sweeper batch")
+                .register(meterRegistry);
+        Gauge.builder("sessions.sweeper.backlog", expireBacklog, AtomicLong::get)
+                .description("Sessions waiting to be swept, capped at backlog-cap")
+                .tag("action", "expire")
+                .register(meterRegistry);
+        Gauge.builder("sessions.sweeper.backlog", deleteBacklog, AtomicLong::get)
+                .description("Sessions waiting to be swept, capped at backlog-cap")
+                .tag("action", "delete")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled sweep with the configured retention
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.sweeper.interval:60000}")
+    public void sweep() {
+        sweep(LocalDateTime.now(), LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Mark sessions expired before expiredBefore and delete ended sessions that expired before deleteBefore;
+     * either step is skipped when its cutoff is null. Must not run inside a transaction, so each batch
+     * commits on its own. Does nothing if another node holds the sweeper lock.
+     *
+     * @return rows processed, as {expired, deleted}, or null if the lock was not acquired
+     */
+    public long[] sweep(LocalDateTime expiredBefore, LocalDateTime deleteBefore) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+                if (!tryLock(connection)) {
+                    log.debug("Session sweeper lock held by another node, skipping");
+                    return null;
+                }
+                try {
+                    long expired = 0;
+                    long deleted = 0;
+                    if (expiredBefore != null) {
+                        Timestamp cutoff = Timestamp.valueOf(expiredBefore);
+                        expired = runBatches(connection, EXPIRE_BATCH_SQL, cutoff, expiredCounter);
+                        expireBacklog.set(backlog(connection, EXPIRE_BACKLOG_SQL, cutoff));
+                    }
+                    if (deleteBefore != null) {
+                        Timestamp cutoff = Timestamp.valueOf(deleteBefore);
+                        deleted = runBatches(connection, DELETE_BATCH_SQL, cutoff, deletedCounter);
+                        deleteBacklog.set(backlog(connection, DELETE_BACKLOG_SQL, cutoff));
+                    }
+                    if (expired > 0 || deleted > 0) {
+                        log.info("Session sweep: {} expired, {} deleted", expired, deleted);
+                    }
+                    return new long[]{expired, deleted};
+                } finally {
+                    unlock(connection);
+                }
+            });
+        } catch (DataAccessException ex) {
+            log.error("Session sweep failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private long runBatches(Connection connection, String sql, Timestamp cutoff, Counter counter) throws SQLException {
+        Timestamp lastExpiresAt = KEYSET_START;
+        long lastId = 0;
+        long total = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            long start = System.nanoTime();
+            int rows = 0;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setTimestamp(1, cutoff);
+                statement.setTimestamp(2, lastExpiresAt);
+                statement.setLong(3, lastId);
+                statement.setInt(4, batchSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp expiresAt = rs.getTimestamp(1);
+                        long id = rs.getLong(2);
+                        // RETURNING is unordered; keep the greatest key as the next cursor
+                        if (expiresAt.after(lastExpiresAt) || (expiresAt.equals(lastExpiresAt) && id > lastId)) {
+                            lastExpiresAt = expiresAt;
+                            lastId = id;
+                        }
+                        rows++;
+                    }
+                }
+            } finally {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            counter.increment(rows);
+            total += rows;
+            if (rows < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private long backlog(Connection connection, String sql, Timestamp cutoff) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setTimestamp(1, cutoff);
+            statement.setLong(2, backlogCap);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("sessions.sweeper.rows")
+                .description("Sessions processed by the sweeper; rate() gives rows per second")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+}
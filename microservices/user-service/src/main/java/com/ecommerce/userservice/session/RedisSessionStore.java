@@ -0,0 +1,200 @@
+package com.ecommerce.userservice.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Live sessions in Redis: one hash per session, keyed by the token digest and
+ * expiring natively at the session's expiry, plus one set of session digests per
+ * user and per device so bulk termination touches only that user's or device's
+ * sessions. Set members whose hash has expired are simply absent on lookup.
+ * A short-lived local cache in front avoids a Redis round trip on every request;
+ * removals are broadcast over pub/sub so every node drops its local copy at once.
+ */
+@Component
+@Slf4j
+public class RedisSessionStore implements MessageListener {
+
+    private static final String SESSION_PREFIX = "session:";
+    private static final String USER_PREFIX = "session:user:";
+    private static final String DEVICE_PREFIX = "session:device:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String invalidationChannel;
+    private final long sessionTtlMillis;
+    private final Cache<String, SessionEntry> localCache;
+
+    public RedisSessionStore(StringRedisTemplate redisTemplate,
+                             @Value("${app.sessions.invalidation-channel:user-service:session-invalidation}") String invalidationChannel,
+                             @Value("${app.sessions.ttl:PT24H}") Duration sessionTtl,
+                             @Value("${app.sessions.local-cache-ttl:PT5S}") Duration localCacheTtl,
+                             @Value("${app.sessions.local-cache-max-size:100000}") long localCacheMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        this.sessionTtlMillis = sessionTtl.toMillis();
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(localCacheTtl)
+                .maximumSize(localCacheMaxSize)
+                .build();
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    /**
+     * Store a session until its expiry and index it by user and device
+     */
+    public void save(String tokenHash, SessionEntry entry) {
+        String key = SESSION_PREFIX + tokenHash;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.hMSet(key, entry.toHash());
+            redis.pExpireAt(key, entry.getExpiresAtMillis());
+            indexSession(redis, USER_PREFIX + entry.getUserId(), tokenHash);
+            if (entry.getDeviceId() != null) {
+                indexSession(redis, DEVICE_PREFIX + entry.getDeviceId(), tokenHash);
+            }
+            return null;
+        });
+        localCache.invalidate(tokenHash);
+        publish(List.of(tokenHash));
+    }
+
+    /**
+     * Look up a live session, from the local cache if possible
+     */
+    public Optional<SessionEntry> find(String tokenHash) {
+        SessionEntry cached = localCache.getIfPresent(tokenHash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(SESSION_PREFIX + tokenHash);
+        if (hash.isEmpty()) {
+            return Optional.empty();
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        SessionEntry entry = SessionEntry.fromHash((Map) hash);
+        localCache.put(tokenHash, entry);
+        return Optional.of(entry);
+    }
+
+    /**
+     * Digests of all sessions indexed for a user
+     */
+    public Set<String> findByUser(Long userId) {
+        Set<String> members = redisTemplate.opsForSet().members(USER_PREFIX + userId);
+        return members != null ? members : Set.of();
+    }
+
+    /**
+     * Digests of all sessions indexed for a device
+     */
+    public Set<String> findByDevice(String deviceId) {
+        Set<String> members = redisTemplate.opsForSet().members(DEVICE_PREFIX + deviceId);
+        return members != null ? members : Set.of();
+    }
+
+    /**
+     * Delete sessions and their index entries, then tell other nodes. Entries are removed
+     * from the given user's and device's sets (either may be null) and from the sets of
+     * each session's owner and device as recorded in its hash, so a caller that knows only
+     * the device still cleans up the user index.
+     */
+    public void remove(Collection<String> tokenHashes, Long userId, String deviceId) {
+        if (tokenHashes.isEmpty()) {
+            return;
+        }
+        String[] hashes = tokenHashes.toArray(String[]::new);
+        Map<String, Set<String>> indexEntries = indexEntries(hashes);
+        if (userId != null) {
+            indexEntries.computeIfAbsent(USER_PREFIX + userId, key -> new HashSet<>()).addAll(tokenHashes);
+        }
+        if (deviceId != null) {
+            indexEntries.computeIfAbsent(DEVICE_PREFIX + deviceId, key -> new HashSet<>()).addAll(tokenHashes);
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String tokenHash : hashes) {
+                redis.del(SESSION_PREFIX + tokenHash);
+            }
+            indexEntries.forEach((indexKey, members) -> redis.sRem(indexKey, members.toArray(String[]::new)));
+            return null;
+        });
+        localCache.invalidateAll(tokenHashes);
+        publish(tokenHashes);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String tokenHash : body.split(",")) {
+            localCache.invalidate(tokenHash);
+        }
+    }
+
+    /**
+     * User and device index entries of the given sessions, read from their hashes in one pipeline.
+     * Sessions whose hash has already expired are skipped; their set members expire with the set.
+     */
+    private Map<String, Set<String>> indexEntries(String[] hashes) {
+        List<Object> owners = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String tokenHash : hashes) {
+                redis.hMGet(SESSION_PREFIX + tokenHash, SessionEntry.USER_ID, SessionEntry.DEVICE_ID);
+            }
+            return null;
+        });
+
+        Map<String, Set<String>> indexEntries = new HashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            @SuppressWarnings("unchecked")
+            List<String> owner = (List<String>) owners.get(i);
+            if (owner == null) {
+                continue;
+            }
+            if (owner.get(0) != null) {
+                indexEntries.computeIfAbsent(USER_PREFIX + owner.get(0), key -> new HashSet<>()).add(hashes[i]);
+            }
+            if (owner.get(1) != null) {
+                indexEntries.computeIfAbsent(DEVICE_PREFIX + owner.get(1), key -> new HashSet<>()).add(hashes[i]);
+            }
+        }
+        return indexEntries;
+    }
+
+    private void publish(Collection<String> tokenHashes) {
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, String.join(",", tokenHashes));
+        } catch (RuntimeException ex) {
+            // Peers still drop the entry when their local TTL runs out
+            log.warn("Failed to publish session invalidation: {}", ex.getMessage());
+        }
+    }
+
+    private void indexSession(StringRedisConnection redis, String indexKey, String tokenHash) {
+        redis.sAdd(indexKey, tokenHash);
+        // No member can outlive now + session TTL, so the index never expires before its sessions
+        redis.pExpire(indexKey, sessionTtlMillis);
+    }
+}
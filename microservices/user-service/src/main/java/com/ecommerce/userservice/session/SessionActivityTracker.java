@@ -0,0 +1,109 @@
+package com.ecommerce.userservice.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for user_sessions.last_activity. Each request only records the
+ * time in memory; repeated touches of the same session collapse into one entry,
+ * and a scheduled flush writes all pending entries in a single JDBC batch.
+ * last_activity in PostgreSQL therefore lags by at most one flush interval.
+ */
+@Component
+@Slf4j
+public class SessionActivityTracker {
+
+    private static final String UPDATE_SQL =
+            "UPDATE user_sessions SET last_activity = ? " +
+            "WHERE session_token = ? AND status = 'ACTIVE' AND (last_activity IS NULL OR last_activity < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final Counter flushedCounter;
+    private final Timer flushTimer;
+
+    public SessionActivityTracker(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushedCounter = Counter.builder("sessions.activity.flushed")
+                .description("Session last_activity updates written to the database")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("sessions.activity.flush")
+                .description("Time to write one batch of session activity updates")
+                .register(meterRegistry);
+        Gauge.builder("sessions.activity.pending", pending, Map::size)
+                .description("Sessions with an activity update not yet written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record activity on a session; cheap enough to call on every request
+     */
+    public void touch(String tokenHash, LocalDateTime time) {
+        pending.merge(tokenHash, time, (current, update) -> update.isAfter(current) ? update : current);
+    }
+
+    /**
+     * Drop a pending update, e.g. because the session was terminated
+     */
+    public void forget(String tokenHash) {
+        pending.remove(tokenHash);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.activity-flush-interval:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Token order keeps row locks in the same order across nodes
+        Map<String, LocalDateTime> batch = new TreeMap<>();
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach((tokenHash, time) -> {
+            Timestamp timestamp = Timestamp.valueOf(time);
+            args.add(new Object[]{timestamp, tokenHash, timestamp});
+        });
+
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            flushedCounter.increment(batch.size());
+        } catch (DataAccessException ex) {
+            // Put the updates back unless a newer touch has arrived meanwhile
+            batch.forEach(this::touch);
+            log.warn("Failed to write {} session activity updates: {}", batch.size(), ex.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.userservice.session;
+
+import com.ecommerce.userservice.enums.SessionStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Live session state as kept in a Redis hash
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class SessionEntry {
+
+    private static final String SESSION_ID = "sessionId";
+    static final String USER_ID = "userId";
+    static final String DEVICE_ID = "deviceId";
+    private static final String STATUS = "status";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private final Long sessionId;
+    private final Long userId;
+    private final String deviceId;
+    private final SessionStatus status;
+    private final long expiresAtMillis;
+
+    public boolean isActive(long nowMillis) {
+        return status == SessionStatus.ACTIVE && expiresAtMillis > nowMillis;
+    }
+
+    Map<String, String> toHash() {
+        Map<String, String> hash = new HashMap<>();
+        hash.put(SESSION_ID, Long.toString(sessionId));
+        hash.put(USER_ID, Long.toString(userId));
+        if (deviceId != null) {
+            hash.put(DEVICE_ID, deviceId);
+        }
+        hash.put(STATUS, status.name());
+        hash.put(EXPIRES_AT, Long.toString(expiresAtMillis));
+        return hash;
+    }
+
+    static SessionEntry fromHash(Map<String, String> hash) {
+        return SessionEntry.builder()
+                .sessionId(Long.valueOf(hash.get(SESSION_ID)))
+                .userId(Long.valueOf(hash.get(USER_ID)))
+                .deviceId(hash.get(DEVICE_ID))
+                .status(SessionStatus.valueOf(hash.get(STATUS)))
+                .expiresAtMillis(Long.parseLong(hash.get(EXPIRES_AT)))
+                .build();
+    }
+}
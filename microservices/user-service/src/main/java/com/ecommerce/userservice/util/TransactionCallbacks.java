@@ -0,0 +1,32 @@
+package com.ecommerce.userservice.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects outside the database (cache evictions, Redis writes, broadcasts)
+ * until the surrounding transaction has committed, so no other reader or node sees a
+ * change the database may still roll back
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Run the action after the current transaction commits; not at all if it rolls back.
+     * Without an active transaction it runs immediately.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- User Service Database Schema
+-- Version: 10.0
+-- Description: Keyset indexes for the expired-session sweeper
+
+-- Active sessions by expiry: the next batch to mark EXPIRED
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_session_active_expiry
+    ON user_sessions (expires_at, id) WHERE status = 'ACTIVE';
+
+-- Ended sessions by expiry: the next batch to delete
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_session_ended_expiry
+    ON user_sessions (expires_at, id) WHERE status <> 'ACTIVE';
+
+-- Superseded by the partial indexes above
+DROP INDEX CONCURRENTLY IF EXISTS idx_session_expires_at;
@@ -0,0 +1,42 @@
+-- User Service Database Schema
+-- Version: 11.0
+-- Description: Fine-grained roles, their permissions and user assignments
+
+CREATE TABLE IF NOT EXISTS roles (
+    id BIGSERIAL PRIMARY KEY,
+    company_id BIGINT,
+    name VARCHAR(50) NOT NULL,
+    description VARCHAR(255),
+    is_system_role BOOLEAN DEFAULT FALSE,
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT
+);
+
+-- Role names are unique per company; system roles (company_id NULL) share one namespace
+CREATE UNIQUE INDEX uk_role_company_name ON roles(COALESCE(company_id, 0), name);
+CREATE INDEX idx_role_company_id ON roles(company_id);
+CREATE INDEX idx_role_name ON roles(name);
+
+CREATE TABLE IF NOT EXISTS role_permissions (
+    role_id BIGINT NOT NULL,
+    permission VARCHAR(50) NOT NULL,
+    PRIMARY KEY (role_id, permission),
+    FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS user_role_assignments (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    assigned_by BIGINT,
+    assigned_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE,
+    CONSTRAINT uk_ura_user_role UNIQUE (user_id, role_id)
+);
+
+-- uk_ura_user_role already serves lookups by user_id
+CREATE INDEX idx_ura_role_id ON user_role_assignments(role_id);
+
+COMMENT ON TABLE user_role_assignments IS 'Effective permissions are compiled per user into a bitmask and cached in memory';
@@ -0,0 +1,13 @@
+-- User Service Database Schema
+-- Version: 12.0
+-- Description: Keyset indexes for cursor-based user listing
+
+-- All users, newest first: seek on (created_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
+
+-- Users of one company in id order: seek on (company_id, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_company_id_id ON users (company_id, id);
+
+-- Superseded by the composite indexes above, whose leading columns they share
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_created_at;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_company_id;
@@ -0,0 +1,7 @@
+-- User Service Database Schema
+-- Version: 13.0
+-- Description: Index for tenant-scoped, case-insensitive email prefix search
+
+-- text_pattern_ops lets lower(email) LIKE 'prefix%' use the index under any collation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_company_lower_email_pattern
+    ON users (company_id, lower(email) text_pattern_ops);
@@ -0,0 +1,7 @@
+-- User Service Database Schema
+-- Version: 3.0
+-- Description: Functional indexes for case-insensitive email/username lookups (login, password reset)
+
+-- Built concurrently so the hot users table stays writable while indexing
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_lower_email ON users (lower(email));
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_lower_username ON users (lower(username));
@@ -0,0 +1,16 @@
+-- User Service Database Schema
+-- Version: 4.0
+-- Description: Stop login bookkeeping writes from firing the updated_at trigger
+
+-- Login success/failure only touches failed_login_attempts, account_locked_until,
+-- last_login and refresh_token*, which are not profile changes. Restrict the trigger
+-- to the remaining columns so those targeted UPDATEs stay cheap.
+DROP TRIGGER IF EXISTS update_users_updated_at ON users;
+
+CREATE TRIGGER update_users_updated_at
+    BEFORE UPDATE OF company_id, username, email, password_hash, first_name, last_name,
+        phone_number, profile_image_url, status, type, email_verified, phone_verified,
+        two_factor_enabled, two_factor_secret, password_reset_token, password_reset_expires,
+        email_verification_token, email_verification_expires, deleted_at
+    ON users
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
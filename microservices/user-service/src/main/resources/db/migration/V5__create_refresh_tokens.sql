@@ -0,0 +1,36 @@
+-- User Service Database Schema
+-- Version: 5.0
+-- Description: Move refresh tokens out of users into a per-device table keyed by SHA-256 digest
+
+-- Create refresh_tokens table
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash BYTEA NOT NULL,
+    device_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_token_hash_length CHECK (octet_length(token_hash) = 32)
+);
+
+CREATE UNIQUE INDEX idx_refresh_tokens_token_hash ON refresh_tokens(token_hash);
+CREATE UNIQUE INDEX idx_refresh_tokens_user_device ON refresh_tokens(user_id, device_id) WHERE device_id IS NOT NULL;
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens(user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
+
+-- Backfill still-valid tokens from users
+INSERT INTO refresh_tokens (user_id, token_hash, expires_at)
+SELECT id, sha256(convert_to(refresh_token, 'UTF8')), refresh_token_expires
+FROM users
+WHERE refresh_token IS NOT NULL
+  AND refresh_token_expires > CURRENT_TIMESTAMP
+ON CONFLICT DO NOTHING;
+
+-- Drop the old column and its index
+DROP INDEX IF EXISTS idx_users_refresh_token;
+ALTER TABLE users DROP COLUMN IF EXISTS refresh_token;
+ALTER TABLE users DROP COLUMN IF EXISTS refresh_token_expires;
+
+COMMENT ON TABLE refresh_tokens IS 'Refresh tokens per user device, stored as SHA-256 digests';
+COMMENT ON COLUMN refresh_tokens.token_hash IS 'SHA-256 of the refresh JWT; the raw token is never stored';
@@ -0,0 +1,24 @@
+-- User Service Database Schema
+-- Version: 6.0
+-- Description: Activity log written in batches by the asynchronous ingestion pipeline
+
+CREATE TABLE IF NOT EXISTS user_activities (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    details TEXT,
+    ip_address VARCHAR(50),
+    user_agent VARCHAR(500),
+    location VARCHAR(255),
+    is_suspicious BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_activity_user_id ON user_activities(user_id);
+CREATE INDEX idx_activity_type ON user_activities(activity_type);
+CREATE INDEX idx_activity_created_at ON user_activities(created_at);
+CREATE INDEX idx_activity_ip_address ON user_activities(ip_address);
+
+COMMENT ON TABLE user_activities IS 'Append-only user activity log';
@@ -0,0 +1,64 @@
+-- User Service Database Schema
+-- Version: 7.0
+-- Description: Range-partition user_activities by month on created_at so retention
+--              is a partition drop instead of a bulk DELETE
+
+ALTER TABLE user_activities RENAME TO user_activities_legacy;
+
+-- The primary key of a partitioned table must include the partition key
+CREATE TABLE user_activities (
+    id BIGINT NOT NULL DEFAULT nextval('user_activities_id_seq'),
+    user_id BIGINT NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    details TEXT,
+    ip_address VARCHAR(50),
+    user_agent VARCHAR(500),
+    location VARCHAR(255),
+    is_suspicious BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE user_activities_id_seq OWNED BY user_activities.id;
+
+-- Monthly partitions from the oldest existing row up to three months ahead.
+-- ActivityPartitionManager keeps creating future months from here on.
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE(
+        (SELECT MIN(created_at) FROM user_activities_legacy), CURRENT_TIMESTAMP))::date;
+    last_month DATE := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF user_activities FOR VALUES FROM (%L) TO (%L)',
+            'user_activities_p' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Rows dated outside the monthly partitions (clock skew, a missed maintenance run) are
+-- kept here instead of failing their insert batch. ActivityPartitionManager moves them
+-- out when it creates their month.
+CREATE TABLE IF NOT EXISTS user_activities_default PARTITION OF user_activities DEFAULT;
+
+INSERT INTO user_activities (id, user_id, activity_type, description, details, ip_address,
+                             user_agent, location, is_suspicious, created_at)
+SELECT id, user_id, activity_type, description, details, ip_address,
+       user_agent, location, is_suspicious, created_at
+FROM user_activities_legacy;
+
+DROP TABLE user_activities_legacy;
+
+-- Indexes on the parent are created on every partition, current and future
+CREATE INDEX idx_activity_user_created ON user_activities(user_id, created_at DESC);
+CREATE INDEX idx_activity_type_created ON user_activities(activity_type, created_at);
+CREATE INDEX idx_activity_ip_address ON user_activities(ip_address);
+CREATE INDEX idx_activity_suspicious ON user_activities(created_at) WHERE is_suspicious = TRUE;
+
+COMMENT ON TABLE user_activities IS 'Append-only user activity log, partitioned by month on created_at';
+COMMENT ON TABLE user_activities_default IS 'Activity rows without a monthly partition; normally empty';
@@ -0,0 +1,40 @@
+-- User Service Database Schema
+-- Version: 8.0
+-- Description: Per-user activity counters maintained incrementally by the ingestion pipeline
+
+-- Per user, day and activity type
+CREATE TABLE IF NOT EXISTS user_activity_daily_counts (
+    user_id BIGINT NOT NULL,
+    activity_date DATE NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    activity_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, activity_date, activity_type),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_activity_daily_counts_date ON user_activity_daily_counts(activity_date);
+
+-- Per user and activity type over the retained history
+CREATE TABLE IF NOT EXISTS user_activity_type_counts (
+    user_id BIGINT NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    activity_count BIGINT NOT NULL,
+    last_activity_at TIMESTAMP,
+    PRIMARY KEY (user_id, activity_type),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Seed from existing raw history
+INSERT INTO user_activity_daily_counts (user_id, activity_date, activity_type, activity_count)
+SELECT user_id, CAST(created_at AS date), activity_type, COUNT(*)
+FROM user_activities
+GROUP BY user_id, CAST(created_at AS date), activity_type;
+
+INSERT INTO user_activity_type_counts (user_id, activity_type, activity_count, last_activity_at)
+SELECT user_id, activity_type, COUNT(*), MAX(created_at)
+FROM user_activities
+GROUP BY user_id, activity_type;
+
+COMMENT ON TABLE user_activity_daily_counts IS 'Activity counts per user, day and type; updated with each ingested batch';
+COMMENT ON TABLE user_activity_type_counts IS 'Activity counts per user and type over the retained history';
+COMMENT ON COLUMN user_activity_type_counts.last_activity_at IS 'created_at of the latest activity of this type';
@@ -0,0 +1,31 @@
+-- User Service Database Schema
+-- Version: 9.0
+-- Description: Durable record of user sessions; live session state is served from Redis
+
+CREATE TABLE IF NOT EXISTS user_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    session_token VARCHAR(500) NOT NULL UNIQUE,
+    refresh_token VARCHAR(500),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    ip_address VARCHAR(50),
+    user_agent VARCHAR(500),
+    device_type VARCHAR(50),
+    device_id VARCHAR(255),
+    location VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_activity TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    terminated_at TIMESTAMP,
+    terminated_reason VARCHAR(255),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_session_status CHECK (status IN ('ACTIVE', 'EXPIRED', 'TERMINATED', 'INVALID'))
+);
+
+CREATE INDEX idx_session_user_id ON user_sessions(user_id);
+CREATE INDEX idx_session_status ON user_sessions(status);
+CREATE INDEX idx_session_expires_at ON user_sessions(expires_at);
+CREATE INDEX idx_session_device_id ON user_sessions(device_id);
+
+COMMENT ON TABLE user_sessions IS 'User sessions; last_activity is written back from memory in batches';
+COMMENT ON COLUMN user_sessions.session_token IS 'SHA-256 hex of the session token; the raw token is never stored';
@@ -0,0 +1,107 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActivityIngestionPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActivityBatchWriter batchWriter = mock(ActivityBatchWriter.class);
+    private ActivityIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        SuspiciousActivityDetector detector = new SuspiciousActivityDetector(meterRegistry, false, 16, 60_000, 5, 20, 5, 4);
+        // Nothing flushes until stop(), so the events reach the writer in as few batches as possible
+        pipeline = new ActivityIngestionPipeline(batchWriter, detector, meterRegistry,
+                64, 100, 60_000, 10_000, ActivityIngestionPipeline.OverflowPolicy.DROP);
+    }
+
+    @Test
+    void dropsOnlyTheRowsTheDatabaseRejects() {
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            List<ActivityEvent> events = invocation.getArgument(0);
+            // Rows for users 7 and 23 violate a constraint and fail any batch they are in
+            if (events.stream().anyMatch(event -> event.getUserId() == 7 || event.getUserId() == 23)) {
+                throw new DataIntegrityViolationException("no partition of relation found for row");
+            }
+            events.forEach(event -> written.add(event.getUserId()));
+            return null;
+        }).when(batchWriter).write(anyList());
+
+        submitForUsers(40);
+
+        assertThat(written).hasSize(38).doesNotContain(7L, 23L);
+        assertThat(eventCount("written")).isEqualTo(38);
+        assertThat(eventCount("failed")).isEqualTo(2);
+    }
+
+    @Test
+    void dropsWholeBatchWithoutRetryOnOtherFailures() {
+        doThrow(new QueryTimeoutException("timeout")).when(batchWriter).write(anyList());
+
+        submitForUsers(40);
+
+        assertThat(eventCount("written")).isZero();
+        assertThat(eventCount("failed")).isEqualTo(40);
+        // At most the two batches either side of the writer's first drain, never bisected halves
+        verify(batchWriter, atMost(2)).write(anyList());
+    }
+
+    @Test
+    void keepsWritingWhenTheDetectorFails() {
+        SuspiciousActivityDetector detector = mock(SuspiciousActivityDetector.class);
+        when(detector.inspect(anyList()))
+                .thenThrow(new IllegalStateException("detector state corrupted"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        // Flushes every event on its own, so the detector fails on the first one only
+        pipeline = new ActivityIngestionPipeline(batchWriter, detector, meterRegistry,
+                64, 1, 60_000, 10_000, ActivityIngestionPipeline.OverflowPolicy.DROP);
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            List<ActivityEvent> events = invocation.getArgument(0);
+            events.forEach(event -> written.add(event.getUserId()));
+            return null;
+        }).when(batchWriter).write(anyList());
+
+        submitForUsers(40);
+
+        assertThat(written).hasSize(40);
+        assertThat(eventCount("written")).isEqualTo(40);
+        assertThat(meterRegistry.get("activity.ingestion.detection.failures").counter().count()).isEqualTo(1);
+    }
+
+    private void submitForUsers(int users) {
+        pipeline.start();
+        LongStream.rangeClosed(1, users).forEach(userId -> pipeline.submit(ActivityEvent.builder()
+                .userId(userId)
+                .activityType(ActivityType.LOGIN)
+                .createdAt(LocalDateTime.now())
+                .build()));
+        pipeline.stop();
+    }
+
+    private double eventCount(String outcome) {
+        return meterRegistry.get("activity.ingestion.events").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+class ActivityPartitionManagerTest {
+
+    private static final int PREMAKE_MONTHS = 6;
+
+    private JdbcTemplate jdbc;
+    private ActivityRollupStore rollupStore;
+    private ActivityPartitionManager manager;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = PostgresTestDatabase.jdbcTemplate();
+        rollupStore = new ActivityRollupStore(jdbc);
+        manager = new ActivityPartitionManager(jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(PostgresTestDatabase.dataSource())),
+                rollupStore, mock(ActivityRollupCache.class),
+                PREMAKE_MONTHS, 365, true, 5_000);
+        userId = jdbc.queryForObject("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                VALUES (1, 'partition-' || gen_random_uuid(), gen_random_uuid() || '@example.com', '{bcrypt}hash')
+                RETURNING id
+                """, Long.class);
+    }
+
+    @Test
+    void keepsRowWithoutMonthlyPartitionAndMovesItWhenItsMonthIsCreated() {
+        YearMonth month = YearMonth.now().plusMonths(PREMAKE_MONTHS);
+        long activityId = insertActivity(month.atDay(10).atStartOfDay());
+        assertThat(partitionOf(activityId)).isEqualTo("user_activities_default");
+
+        manager.createUpcomingPartitions();
+
+        assertThat(partitionOf(activityId))
+                .isEqualTo("user_activities_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM")));
+        // Attached like any other month: the parent's indexes and foreign key apply to it
+        assertThat(jdbc.queryForObject("""
+                SELECT count(*) FROM pg_indexes WHERE tablename = ?
+                """, Integer.class, "user_activities_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"))))
+                .isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void deletesExpiredRowsFromDefaultPartitionAndSubtractsOnlyThoseFromRollups() {
+        long expired = insertActivity(LocalDateTime.of(2001, 1, 15, 0, 0));
+        insertActivity(LocalDateTime.now());
+
+        manager.removePartitionsBefore(LocalDate.now().minusDays(365));
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM user_activities WHERE id = ?", Integer.class, expired))
+                .isZero();
+        assertThat(rollupStore.countsByType(userId)).containsExactly(entry(ActivityType.LOGIN, 1L));
+        assertThat(rollupStore.dailyTotals(userId, LocalDate.of(2000, 1, 1))).containsOnlyKeys(LocalDate.now());
+    }
+
+    @Test
+    void skipsMaintenanceWhileAnotherNodeHoldsTheLock() throws SQLException {
+        YearMonth farMonth = YearMonth.now().plusMonths(24);
+        String partition = "user_activities_p" + farMonth.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        ActivityPartitionManager farAhead = new ActivityPartitionManager(jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(PostgresTestDatabase.dataSource())),
+                rollupStore, mock(ActivityRollupCache.class),
+                24, 365, true, 5_000);
+
+        try (Connection otherNode = PostgresTestDatabase.dataSource().getConnection();
+             Statement statement = otherNode.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + ActivityPartitionManager.ADVISORY_LOCK_KEY + ")");
+            farAhead.maintainPartitions();
+            assertThat(exists(partition)).isFalse();
+            statement.execute("SELECT pg_advisory_unlock(" + ActivityPartitionManager.ADVISORY_LOCK_KEY + ")");
+        }
+
+        farAhead.maintainPartitions();
+        assertThat(exists(partition)).isTrue();
+        // A second run finds every partition in place and changes nothing
+        farAhead.maintainPartitions();
+        assertThat(exists(partition)).isTrue();
+    }
+
+    /**
+     * Inserts the row as the batch writer does, counters included
+     */
+    private long insertActivity(LocalDateTime createdAt) {
+        rollupStore.increment(List.of(ActivityEvent.builder()
+                .userId(userId)
+                .activityType(ActivityType.LOGIN)
+                .createdAt(createdAt)
+                .build()));
+        return jdbc.queryForObject("""
+                INSERT INTO user_activities (user_id, activity_type, description, created_at)
+                VALUES (?, 'LOGIN', 'test', ?) RETURNING id
+                """, Long.class, userId, createdAt);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private String partitionOf(long activityId) {
+        return jdbc.queryForObject("SELECT tableoid::regclass::text FROM user_activities WHERE id = ?",
+                String.class, activityId);
+    }
+}
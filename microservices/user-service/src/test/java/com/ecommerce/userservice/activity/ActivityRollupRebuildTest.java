@@ -0,0 +1,146 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A rebuild and a batch for the same users run one after the other, whichever starts
+ * first, so the rebuilt counters never lose the batch's increments
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+class ActivityRollupRebuildTest {
+
+    private static final int HISTORY = 5;
+    private static final int BATCH = 3;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactionTemplate;
+    private ActivityRollupStore rollupStore;
+    private ActivityBatchWriter batchWriter;
+    private long userId;
+    private LocalDateTime createdAt;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = PostgresTestDatabase.jdbcTemplate();
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(PostgresTestDatabase.dataSource()));
+        rollupStore = new ActivityRollupStore(jdbc);
+        batchWriter = new ActivityBatchWriter(jdbc, transactionTemplate, rollupStore, mock(ActivityRollupCache.class));
+        userId = jdbc.queryForObject("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                VALUES (1, 'rollup-' || gen_random_uuid(), gen_random_uuid() || '@example.com', '{bcrypt}hash')
+                RETURNING id
+                """, Long.class);
+        createdAt = LocalDate.now().atTime(12, 0);
+        batchWriter.write(events(HISTORY));
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void batchWaitsForRebuildOfItsUsers() throws Exception {
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    rollupStore.rebuild(userId, userId + 1);
+                    rebuilt.countDown();
+                    await(commit);
+                }), executor);
+        assertThat(rebuilt.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> ingest = CompletableFuture.runAsync(() -> batchWriter.write(events(BATCH)), executor);
+        Thread.sleep(500);
+        assertThat(ingest).isNotDone();
+
+        commit.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+        ingest.get(10, TimeUnit.SECONDS);
+
+        assertCountersMatchRawRows();
+    }
+
+    @Test
+    void rebuildWaitsForBatchOfItsUsers() throws Exception {
+        CountDownLatch incremented = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // The batch writer's transaction, held open between the increment and the commit
+        CompletableFuture<Void> ingest = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<ActivityEvent> events = events(BATCH);
+                    events.forEach(event -> jdbc.update(
+                            "INSERT INTO user_activities (user_id, activity_type, description, created_at) " +
+                            "VALUES (?, ?, ?, ?)", event.getUserId(), event.getActivityType().name(),
+                            event.getDescription(), event.getCreatedAt()));
+                    rollupStore.increment(events);
+                    incremented.countDown();
+                    await(commit);
+                }), executor);
+        assertThat(incremented.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> rollupStore.rebuild(userId, userId + 1)), executor);
+        Thread.sleep(500);
+        assertThat(rebuild).isNotDone();
+
+        commit.countDown();
+        ingest.get(10, TimeUnit.SECONDS);
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        assertCountersMatchRawRows();
+    }
+
+    private void assertCountersMatchRawRows() {
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM user_activities WHERE user_id = ?", Long.class, userId))
+                .isEqualTo(HISTORY + BATCH);
+        assertThat(rollupStore.countsByType(userId)).containsExactly(entry(ActivityType.LOGIN, (long) HISTORY + BATCH));
+        assertThat(rollupStore.dailyTotals(userId, createdAt.toLocalDate()))
+                .containsExactly(entry(createdAt.toLocalDate(), (long) HISTORY + BATCH));
+    }
+
+    private List<ActivityEvent> events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ActivityEvent.builder()
+                        .userId(userId)
+                        .activityType(ActivityType.LOGIN)
+                        .description("test")
+                        .createdAt(createdAt)
+                        .build())
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ecommerce.userservice.activity;
+
+import com.ecommerce.userservice.enums.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays a day of activity through the detector in ingestion-sized batches and reports
+ * its throughput and findings per rule.
+ * <p>
+ * By default the trace is synthetic: 20,000 users on 5,000 client addresses, with a
+ * credential-stuffing address and a brute-forced account planted in it. A recorded trace
+ * can be replayed instead with {@code -Dactivity.replay.file=activity.csv}, a CSV export
+ * of user_activities ordered by time, e.g. from psql:
+ * <pre>
+ * \copy (SELECT created_at, user_id, activity_type, ip_address, user_agent FROM user_activities
+ *        WHERE created_at &gt;= now() - interval '1 day' ORDER BY created_at) TO 'activity.csv' CSV
+ * </pre>
+ */
+@Tag("benchmark")
+@Slf4j
+class SuspiciousActivityReplayTest {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int USERS = 20_000;
+    private static final int CLIENT_ADDRESSES = 5_000;
+    private static final String STUFFING_IP = "203.0.113.66";
+    private static final long BRUTE_FORCED_USER = 4242;
+    private static final String GATEWAY_IP = "10.0.0.1";
+
+    private static final String ACCOUNTS_PER_IP = "accounts-per-ip";
+    private static final String IP_FAILURE_VELOCITY = "ip-failure-velocity";
+    private static final String ACCOUNTS_PER_IP_REASON = "Many accounts used from one IP address";
+    private static final String USER_FAILURE_VELOCITY_REASON = "Failed login velocity spike for account";
+
+    @Test
+    void flagsPlantedAttacksByClientAddress() throws IOException {
+        Replay replay = replay("client addresses", UnaryOperator.identity());
+
+        if (synthetic()) {
+            // Four users per address, so only the planted address ever reaches five accounts
+            assertThat(replay.flaggedIps(ACCOUNTS_PER_IP_REASON)).containsOnly(STUFFING_IP);
+            assertThat(replay.flaggedUsers(USER_FAILURE_VELOCITY_REASON)).contains(BRUTE_FORCED_USER);
+        }
+    }
+
+    /**
+     * What the detector saw while every login carried the gateway's address
+     */
+    @Test
+    void gatewayAddressMakesEveryAccountLookShared() throws IOException {
+        Replay replay = replay("gateway address", event -> event.toBuilder().ipAddress(GATEWAY_IP).build());
+
+        if (synthetic()) {
+            assertThat(replay.findings(ACCOUNTS_PER_IP)).isGreaterThan(replay.ruleEligibleEvents() / 2);
+        }
+    }
+
+    @Test
+    void skipsIpRulesWithoutClientAddress() throws IOException {
+        Replay replay = replay("no client address", event -> event.toBuilder().ipAddress(null).build());
+
+        assertThat(replay.findings(ACCOUNTS_PER_IP)).isZero();
+        assertThat(replay.findings(IP_FAILURE_VELOCITY)).isZero();
+        if (synthetic()) {
+            assertThat(replay.flaggedUsers(USER_FAILURE_VELOCITY_REASON)).contains(BRUTE_FORCED_USER);
+        }
+    }
+
+    private static Replay replay(String name, UnaryOperator<ActivityEvent> transform) throws IOException {
+        List<ActivityEvent> trace = trace().stream().map(transform).toList();
+
+        // Warm up on a throwaway detector, then time a fresh one over the whole trace
+        run(trace, newDetector(new SimpleMeterRegistry()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SuspiciousActivityDetector detector = newDetector(meterRegistry);
+        long startedAt = System.nanoTime();
+        List<ActivityEvent> findings = run(trace, detector);
+        long elapsed = System.nanoTime() - startedAt;
+
+        Replay replay = new Replay(trace, findings, meterRegistry);
+        log.info("detector replay ({}): {} events, {} events/s, findings {}",
+                name, trace.size(), Math.round(trace.size() * 1e9 / elapsed), replay.findingsByRule());
+        return replay;
+    }
+
+    private static List<ActivityEvent> run(List<ActivityEvent> trace, SuspiciousActivityDetector detector) {
+        List<ActivityEvent> findings = new ArrayList<>();
+        for (int from = 0; from < trace.size(); from += BATCH_SIZE) {
+            List<ActivityEvent> batch = trace.subList(from, Math.min(from + BATCH_SIZE, trace.size()));
+            List<ActivityEvent> inspected = detector.inspect(batch);
+            findings.addAll(inspected.subList(batch.size(), inspected.size()));
+        }
+        return findings;
+    }
+
+    private static SuspiciousActivityDetector newDetector(SimpleMeterRegistry meterRegistry) {
+        // Production defaults from application.yml
+        return new SuspiciousActivityDetector(meterRegistry, true, 16384, 60_000, 5, 20, 5, 4);
+    }
+
+    private static boolean synthetic() {
+        return System.getProperty("activity.replay.file") == null;
+    }
+
+    private static List<ActivityEvent> trace() throws IOException {
+        return synthetic() ? syntheticTrace() : recordedTrace(Path.of(System.getProperty("activity.replay.file")));
+    }
+
+    private static List<ActivityEvent> syntheticTrace() {
+        Random random = new Random(42);
+        LocalDateTime dayStart = LocalDateTime.of(2024, 3, 1, 0, 0);
+        List<ActivityEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long userId = 1 + random.nextInt(USERS);
+            int roll = random.nextInt(100);
+            ActivityType type = roll < 60 ? ActivityType.LOGIN
+                    : roll < 90 ? ActivityType.SESSION_STARTED
+                    : roll < 95 ? ActivityType.FAILED_LOGIN_ATTEMPT
+                    : ActivityType.PROFILE_UPDATED;
+            events.add(event(userId, type, dayStart.plusNanos(random.nextLong(86_400_000_000_000L)),
+                    homeAddress(userId), "Mozilla/5.0 (device " + (userId % 3) + ")"));
+        }
+
+        // Credential stuffing: one address trying 50 accounts within half a minute
+        LocalDateTime stuffingStart = dayStart.plusHours(9);
+        for (int i = 0; i < 50; i++) {
+            events.add(event(1 + random.nextInt(USERS), ActivityType.FAILED_LOGIN_ATTEMPT,
+                    stuffingStart.plusNanos(i * 600_000_000L), STUFFING_IP, "python-requests/2.31"));
+        }
+
+        // Brute force: one account hit 30 times in two minutes from rotating addresses
+        LocalDateTime bruteForceStart = dayStart.plusHours(14);
+        for (int i = 0; i < 30; i++) {
+            events.add(event(BRUTE_FORCED_USER, ActivityType.FAILED_LOGIN_ATTEMPT,
+                    bruteForceStart.plusSeconds(i * 4L), "192.0.2." + (i + 1), "curl/8.4.0"));
+        }
+
+        events.sort(Comparator.comparing(ActivityEvent::getCreatedAt));
+        return events;
+    }
+
+    // Users u, u + 5000, u + 10000 and u + 15000 share an address
+    private static String homeAddress(long userId) {
+        long address = userId % CLIENT_ADDRESSES;
+        return "198.51." + (address / 256) + "." + (address % 256);
+    }
+
+    private static List<ActivityEvent> recordedTrace(Path file) throws IOException {
+        List<ActivityEvent> events = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            events.add(event(Long.parseLong(fields.get(1)), ActivityType.valueOf(fields.get(2)),
+                    LocalDateTime.parse(fields.get(0).replace(' ', 'T')),
+                    emptyToNull(fields.get(3)), emptyToNull(fields.get(4))));
+        }
+        return events;
+    }
+
+    // RFC 4180 as written by psql: quoted fields may contain commas and doubled quotes
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static ActivityEvent event(long userId, ActivityType type, LocalDateTime createdAt,
+                                       String ipAddress, String userAgent) {
+        return ActivityEvent.builder()
+                .userId(userId)
+                .activityType(type)
+                .description(type.name())
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private record Replay(List<ActivityEvent> trace, List<ActivityEvent> findings, SimpleMeterRegistry meterRegistry) {
+
+        double findings(String rule) {
+            return meterRegistry.get("activity.suspicious.detected").tag("rule", rule).counter().count();
+        }
+
+        String findingsByRule() {
+            StringBuilder summary = new StringBuilder();
+            meterRegistry.get("activity.suspicious.detected").counters().forEach(counter ->
+                    summary.append(counter.getId().getTag("rule")).append('=')
+                            .append((long) counter.count()).append(' '));
+            return summary.toString().trim();
+        }
+
+        long ruleEligibleEvents() {
+            return trace.stream()
+                    .filter(event -> event.getActivityType() != ActivityType.PROFILE_UPDATED)
+                    .count();
+        }
+
+        List<String> flaggedIps(String reason) {
+            return findings.stream()
+                    .filter(finding -> finding.getDescription().equals(reason))
+                    .map(ActivityEvent::getIpAddress)
+                    .distinct()
+                    .toList();
+        }
+
+        List<Long> flaggedUsers(String reason) {
+            return findings.stream()
+                    .filter(finding -> finding.getDescription().equals(reason))
+                    .map(ActivityEvent::getUserId)
+                    .distinct()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheEvictorTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UserCacheKeys.CACHE_NAME);
+    private final UserCacheEvictor evictor = new UserCacheEvictor(cacheManager);
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(UserCacheKeys.CACHE_NAME);
+        cacheUnderAllAliases(1L, "Jane@Example.com", "Jane");
+        cacheUnderAllAliases(2L, "john@example.com", "john");
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictsEveryAliasImmediatelyOutsideTransaction() {
+        evictor.evict(user(1L, "jane@example.com", "jane"));
+
+        assertAliasesEvicted("jane@example.com", "jane", 1L);
+        assertAliasesCached("john@example.com", "john", 2L);
+    }
+
+    @Test
+    void evictsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.evict(user(1L, "jane@example.com", "jane"));
+
+        assertAliasesCached("jane@example.com", "jane", 1L);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertAliasesEvicted("jane@example.com", "jane", 1L);
+        assertAliasesCached("john@example.com", "john", 2L);
+    }
+
+    @Test
+    void keepsEntriesWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.evict(user(1L, "jane@example.com", "jane"));
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertAliasesCached("jane@example.com", "jane", 1L);
+    }
+
+    @Test
+    void evictsPreviousAliasesAfterEmailAndUsernameChange() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.evict(user(1L, "jane.doe@example.com", "janedoe"));
+
+        assertAliasesCached("jane@example.com", "jane", 1L);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertAliasesEvicted("jane@example.com", "jane", 1L);
+        assertThat(cache.get(UserCacheKeys.byEmail("jane.doe@example.com"))).isNull();
+        assertThat(cache.get(UserCacheKeys.byUsername("janedoe"))).isNull();
+    }
+
+    private void cacheUnderAllAliases(Long id, String email, String username) {
+        UserResponse response = UserResponse.builder().id(id).email(email).username(username).build();
+        cache.put(UserCacheKeys.byId(id), response);
+        cache.put(UserCacheKeys.byEmail(email), response);
+        cache.put(UserCacheKeys.byUsername(username), response);
+    }
+
+    private void assertAliasesCached(String email, String username, Long id) {
+        assertThat(cache.get(UserCacheKeys.byId(id))).isNotNull();
+        assertThat(cache.get(UserCacheKeys.byEmail(email))).isNotNull();
+        assertThat(cache.get(UserCacheKeys.byUsername(username))).isNotNull();
+    }
+
+    private void assertAliasesEvicted(String email, String username, Long id) {
+        assertThat(cache.get(UserCacheKeys.byId(id))).isNull();
+        assertThat(cache.get(UserCacheKeys.byEmail(email))).isNull();
+        assertThat(cache.get(UserCacheKeys.byUsername(username))).isNull();
+    }
+
+    private static User user(Long id, String email, String username) {
+        return User.builder().id(id).email(email).username(username).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.support.Microbenchmark;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class UserResponseRedisSerializerTest {
+
+    private final UserResponseRedisSerializer binary = new UserResponseRedisSerializer();
+
+    @Test
+    void roundTripsFullyPopulatedUser() {
+        UserResponse user = fullUser();
+
+        assertThat(binary.deserialize(binary.serialize(user))).isEqualTo(user);
+    }
+
+    @Test
+    void roundTripsAbsentFieldsAsNull() {
+        UserResponse user = UserResponse.builder().id(5L).email("jane@example.com").build();
+
+        UserResponse read = binary.deserialize(binary.serialize(user));
+
+        assertThat(read).isEqualTo(user);
+        assertThat(read.getRoles()).isNull();
+        assertThat(read.getLastLogin()).isNull();
+    }
+
+    @Test
+    void treatsJsonPayloadAsMiss() {
+        byte[] json = jsonSerializer().serialize(fullUser());
+
+        assertThat(binary.deserialize(json)).isNull();
+    }
+
+    /**
+     * Payload size and per-call cost against the JSON serializer the cache used before
+     */
+    @Test
+    @Tag("benchmark")
+    void isSmallerAndCheaperThanJson() {
+        GenericJackson2JsonRedisSerializer json = jsonSerializer();
+        UserResponse user = fullUser();
+        byte[] binaryPayload = binary.serialize(user);
+        byte[] jsonPayload = json.serialize(user);
+        log.info("user cache payload: binary {} B, json {} B", binaryPayload.length, jsonPayload.length);
+
+        Microbenchmark.Result jsonWrite = Microbenchmark.measure("users cache: json serialize",
+                20_000, 100_000, () -> json.serialize(user));
+        Microbenchmark.Result binaryWrite = Microbenchmark.measure("users cache: binary serialize",
+                20_000, 100_000, () -> binary.serialize(user));
+        Microbenchmark.Result jsonRead = Microbenchmark.measure("users cache: json deserialize",
+                20_000, 100_000, () -> json.deserialize(jsonPayload));
+        Microbenchmark.Result binaryRead = Microbenchmark.measure("users cache: binary deserialize",
+                20_000, 100_000, () -> binary.deserialize(binaryPayload));
+
+        assertThat(binaryPayload.length).isLessThan(jsonPayload.length / 2);
+        assertThat(binaryWrite.bytesPerOp()).isLessThan(jsonWrite.bytesPerOp());
+        assertThat(binaryRead.bytesPerOp()).isLessThan(jsonRead.bytesPerOp());
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        serializer.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return serializer;
+    }
+
+    private static UserResponse fullUser() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000);
+        return UserResponse.builder()
+                .id(1_234_567L)
+                .companyId(42L)
+                .username("jane.doe")
+                .email("jane.doe@example.com")
+                .firstName("Jane")
+                .lastName("Doe")
+                .phoneNumber("+15551234567")
+                .profileImageUrl("https://cdn.example.com/avatars/1234567.png")
+                .status("ACTIVE")
+                .type("CUSTOMER")
+                .roles(Set.of("ROLE_CUSTOMER", "ROLE_VENDOR"))
+                .emailVerified(true)
+                .phoneVerified(false)
+                .twoFactorEnabled(false)
+                .lastLogin(createdAt.plusDays(30))
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusDays(2))
+                .build();
+    }
+}
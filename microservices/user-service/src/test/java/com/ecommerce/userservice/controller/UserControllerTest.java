@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserControllerTest {
+
+    @Test
+    void acceptsGzipOnlyWithNonZeroQuality() {
+        assertThat(UserController.acceptsGzip("gzip")).isTrue();
+        assertThat(UserController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(UserController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(UserController.acceptsGzip("*")).isTrue();
+
+        assertThat(UserController.acceptsGzip(null)).isFalse();
+        assertThat(UserController.acceptsGzip("identity")).isFalse();
+        assertThat(UserController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(UserController.acceptsGzip("gzip ; q=0.000, deflate")).isFalse();
+        assertThat(UserController.acceptsGzip("*;q=0")).isFalse();
+        // An explicit refusal wins over the wildcard
+        assertThat(UserController.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(UserController.acceptsGzip("notgzip")).isFalse();
+    }
+}
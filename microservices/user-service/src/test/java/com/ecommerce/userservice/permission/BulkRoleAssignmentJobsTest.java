@@ -0,0 +1,76 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.dto.response.BulkRoleJobResponse;
+import com.ecommerce.userservice.exception.InvalidOperationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BulkRoleAssignmentJobsTest {
+
+    private static final long ROLE_ID = 3L;
+    private static final Long COMPANY_ID = 7L;
+
+    private RoleAssignmentStore assignmentStore;
+    private BulkRoleAssignmentJobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        assignmentStore = mock(RoleAssignmentStore.class);
+        jobs = new BulkRoleAssignmentJobs(assignmentStore, mock(UserPermissionCache.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, 1, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.shutdown();
+    }
+
+    @Test
+    void rejectsNullUserIdsBeforeRegisteringJob() {
+        assertThatThrownBy(() -> jobs.submit(BulkRoleAssignmentJobs.Operation.ASSIGN, ROLE_ID, COMPANY_ID,
+                Arrays.asList(1L, null, 2L), 9L))
+                .isInstanceOf(InvalidOperationException.class);
+        verifyNoInteractions(assignmentStore);
+    }
+
+    @Test
+    void limitsEveryChunkToTheJobsCompany() {
+        when(assignmentStore.assign(anyLong(), any(), any(), any(), any())).thenReturn(List.of());
+        when(assignmentStore.remove(anyLong(), any(), any())).thenReturn(List.of());
+
+        jobs.execute(BulkRoleAssignmentJobs.Operation.ASSIGN, ROLE_ID, COMPANY_ID, List.of(3L, 1L, 2L), 9L);
+        jobs.execute(BulkRoleAssignmentJobs.Operation.REMOVE, ROLE_ID, COMPANY_ID, List.of(1L), null);
+
+        verify(assignmentStore).assign(eq(ROLE_ID), eq(List.of(1L, 2L)), eq(COMPANY_ID), eq(9L), any());
+        verify(assignmentStore).assign(eq(ROLE_ID), eq(List.of(3L)), eq(COMPANY_ID), eq(9L), any());
+        verify(assignmentStore).remove(ROLE_ID, List.of(1L), COMPANY_ID);
+    }
+
+    @Test
+    void jobIsVisibleOnlyToItsCompanyAndAdministrators() {
+        when(assignmentStore.assign(anyLong(), any(), any(), any(), any())).thenReturn(List.of(1L));
+        BulkRoleJobResponse job = jobs.execute(
+                BulkRoleAssignmentJobs.Operation.ASSIGN, ROLE_ID, COMPANY_ID, List.of(1L), 9L);
+
+        assertThat(jobs.find(job.getJobId(), COMPANY_ID)).isPresent();
+        assertThat(jobs.find(job.getJobId(), null)).isPresent();
+        assertThat(jobs.find(job.getJobId(), 8L)).isEmpty();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.repository.UserRoleAssignmentRepository;
+import com.ecommerce.userservice.security.UserPrincipal;
+import com.ecommerce.userservice.support.Microbenchmark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionAuthorizerTest {
+
+    private static final Long USER_ID = 42L;
+
+    private final UserRoleAssignmentRepository assignmentRepository = mock(UserRoleAssignmentRepository.class);
+    private final UserPermissionCache permissionCache = new UserPermissionCache(assignmentRepository,
+            mock(StringRedisTemplate.class), new SimpleMeterRegistry(), "permissions", 1_000, Duration.ofMinutes(10), 64);
+    private final PermissionAuthorizer authorizer = new PermissionAuthorizer(permissionCache);
+
+    @Test
+    void compilesMaskOnceAndChecksAgainstIt() {
+        when(assignmentRepository.findEffectivePermissions(USER_ID))
+                .thenReturn(List.of(Permission.USER_VIEW, Permission.USER_UPDATE));
+        Authentication authentication = authentication();
+
+        assertThat(authorizer.has(authentication, Permission.USER_VIEW)).isTrue();
+        assertThat(authorizer.has(authentication, Permission.USER_DELETE)).isFalse();
+        assertThat(authorizer.hasAny(authentication, Permission.USER_DELETE, Permission.USER_UPDATE)).isTrue();
+        assertThat(authorizer.hasAll(authentication, Permission.USER_VIEW, Permission.USER_DELETE)).isFalse();
+        verify(assignmentRepository, times(1)).findEffectivePermissions(USER_ID);
+    }
+
+    /**
+     * The token keeps its permissions claim until it expires; checks here must not
+     */
+    @Test
+    void revocationAppliesToNextCheckWithSameToken() {
+        when(assignmentRepository.findEffectivePermissions(USER_ID))
+                .thenReturn(List.of(Permission.USER_VIEW, Permission.USER_DELETE))
+                .thenReturn(List.of(Permission.USER_VIEW));
+        Authentication authentication = authentication();
+        assertThat(authorizer.has(authentication, Permission.USER_DELETE)).isTrue();
+
+        permissionCache.invalidateUser(USER_ID);
+
+        assertThat(authorizer.has(authentication, Permission.USER_DELETE)).isFalse();
+        assertThat(authorizer.has(authentication, Permission.USER_VIEW)).isTrue();
+    }
+
+    @Test
+    void deniesWithoutUserPrincipal() {
+        assertThat(authorizer.has(null, Permission.USER_VIEW)).isFalse();
+        assertThat(authorizer.has(new UsernamePasswordAuthenticationToken("anonymous", null), Permission.USER_VIEW))
+                .isFalse();
+    }
+
+    /**
+     * The per-request check of @PreAuthorize once the user's mask is cached
+     */
+    @Test
+    @Tag("benchmark")
+    void cacheHitCheckDoesNotAllocate() {
+        when(assignmentRepository.findEffectivePermissions(USER_ID)).thenReturn(List.of(Permission.USER_VIEW));
+        Authentication authentication = authentication();
+        authorizer.has(authentication, Permission.USER_VIEW);
+
+        Microbenchmark.Result result = Microbenchmark.measure("PermissionAuthorizer.has (cached)", 200_000, 1_000_000,
+                () -> authorizer.has(authentication, Permission.USER_VIEW));
+
+        assertThat(result.bytesPerOp()).isLessThan(1);
+        verify(assignmentRepository, times(1)).findEffectivePermissions(USER_ID);
+    }
+
+    private static Authentication authentication() {
+        return new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(USER_ID, "user@example.com", 1L), null, List.of());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.support.Microbenchmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermissionMaskTest {
+
+    @Test
+    void checksSingleBitsAndAll() {
+        long mask = PermissionMask.of(List.of(Permission.USER_VIEW, Permission.USER_UPDATE));
+
+        assertThat(PermissionMask.has(mask, Permission.USER_VIEW)).isTrue();
+        assertThat(PermissionMask.has(mask, Permission.USER_DELETE)).isFalse();
+        assertThat(PermissionMask.has(mask, Permission.ALL)).isFalse();
+        assertThat(PermissionMask.has(PermissionMask.ALL, Permission.USER_DELETE)).isTrue();
+        assertThat(PermissionMask.has(PermissionMask.of(List.of(Permission.ALL)), Permission.ALL)).isTrue();
+    }
+
+    @Test
+    void encodesRoundTrip() {
+        for (long mask : new long[]{PermissionMask.NONE, PermissionMask.ALL,
+                PermissionMask.of(List.of(Permission.USER_VIEW)), PermissionMask.bitsOf(Permission.ALL) >>> 1}) {
+            assertThat(PermissionMask.decode(PermissionMask.encode(mask))).isEqualTo(mask);
+        }
+        assertThat(PermissionMask.toSet(PermissionMask.of(List.of(Permission.USER_VIEW, Permission.USER_CREATE))))
+                .containsExactlyInAnyOrder(Permission.USER_VIEW, Permission.USER_CREATE);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void checkDoesNotAllocate() {
+        long mask = PermissionMask.of(List.of(Permission.USER_VIEW, Permission.USER_UPDATE));
+        Permission[] checked = {Permission.USER_VIEW, Permission.USER_DELETE, Permission.ALL};
+        int[] next = {0};
+
+        Microbenchmark.Result result = Microbenchmark.measure("PermissionMask.has", 200_000, 1_000_000,
+                () -> PermissionMask.has(mask, checked[next[0]++ % checked.length]));
+
+        assertThat(result.bytesPerOp()).isLessThan(1);
+    }
+}
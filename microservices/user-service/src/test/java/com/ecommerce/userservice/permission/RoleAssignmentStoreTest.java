@@ -0,0 +1,67 @@
+package com.ecommerce.userservice.permission;
+
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+class RoleAssignmentStoreTest {
+
+    private JdbcTemplate jdbc;
+    private RoleAssignmentStore store;
+    private long systemRoleId;
+    private long companyOneUser;
+    private long companyTwoUser;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = PostgresTestDatabase.jdbcTemplate();
+        store = new RoleAssignmentStore(jdbc);
+        systemRoleId = jdbc.queryForObject("""
+                INSERT INTO roles (company_id, name, is_system_role) VALUES (NULL, 'bulk-' || gen_random_uuid(), TRUE)
+                RETURNING id
+                """, Long.class);
+        companyOneUser = insertUser(1);
+        companyTwoUser = insertUser(2);
+    }
+
+    @Test
+    void assignsOnlyToUsersOfTheGivenCompany() {
+        List<Long> assigned = store.assign(systemRoleId, List.of(companyOneUser, companyTwoUser), 1L,
+                null, LocalDateTime.now());
+
+        assertThat(assigned).containsExactly(companyOneUser);
+        assertThat(holders()).containsExactly(companyOneUser);
+    }
+
+    @Test
+    void removesOnlyFromUsersOfTheGivenCompany() {
+        store.assign(systemRoleId, List.of(companyOneUser, companyTwoUser), null, null, LocalDateTime.now());
+
+        assertThat(store.remove(systemRoleId, List.of(companyOneUser, companyTwoUser), 2L))
+                .containsExactly(companyTwoUser);
+        assertThat(holders()).containsExactly(companyOneUser);
+    }
+
+    private List<Long> holders() {
+        return jdbc.queryForList("SELECT user_id FROM user_role_assignments WHERE role_id = ? ORDER BY user_id",
+                Long.class, systemRoleId);
+    }
+
+    private long insertUser(long companyId) {
+        return jdbc.queryForObject("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                VALUES (?, 'bulk-' || gen_random_uuid(), gen_random_uuid() || '@example.com', '{bcrypt}hash')
+                RETURNING id
+                """, Long.class, companyId);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.support.ExplainPlan;
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The single-query login lookup against a table of one million users
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+@Slf4j
+class LoginLookupQueryTest {
+
+    private static final int USERS = 1_000_000;
+
+    private static JdbcTemplate jdbc;
+    private static String loginLookupSql;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        PostgresTestDatabase.seedUsers(USERS);
+        jdbc = PostgresTestDatabase.jdbcTemplate();
+        // The repository's own query text, so the test follows any change to it
+        loginLookupSql = UserRepository.class.getMethod("findByLoginIdentifier", String.class)
+                .getAnnotation(Query.class).value()
+                .replace(":identifier", "?");
+    }
+
+    @Test
+    void resolvesEmailAndUsernameCaseInsensitively() {
+        assertThat(lookup("User4242@Example.COM")).containsEntry("username", "user4242");
+        assertThat(lookup("USER4242")).containsEntry("email", "user4242@example.com");
+        assertThat(jdbc.queryForList(loginLookupSql, "nobody", "nobody", "nobody")).isEmpty();
+    }
+
+    @Test
+    void usesFunctionalIndexesWithoutSeqScan() {
+        ExplainPlan plan = ExplainPlan.of(jdbc, loginLookupSql, "user4242", "user4242", "user4242");
+
+        assertThat(plan.hasSeqScanOn("users")).as(plan.toString()).isFalse();
+        assertThat(plan.indexNames()).as(plan.toString())
+                .contains("idx_users_lower_email", "idx_users_lower_username");
+    }
+
+    /**
+     * Username logins before and after: email query then username query without the
+     * functional indexes, versus the single indexed query
+     */
+    @Test
+    @Tag("benchmark")
+    void singleIndexedQueryIsFasterThanSequentialUnindexedLookups() {
+        long after = timePerLookup(1_000, identifier ->
+                jdbc.queryForList(loginLookupSql, identifier, identifier, identifier));
+
+        TransactionTemplate transaction = new TransactionTemplate(
+                new DataSourceTransactionManager(PostgresTestDatabase.dataSource()));
+        long before = transaction.execute(status -> {
+            // Dropped inside the transaction and restored by the rollback
+            jdbc.execute("DROP INDEX idx_users_lower_email, idx_users_lower_username");
+            status.setRollbackOnly();
+            return timePerLookup(10, identifier -> {
+                List<Map<String, Object>> byEmail =
+                        jdbc.queryForList("SELECT * FROM users WHERE lower(email) = lower(?)", identifier);
+                return byEmail.isEmpty()
+                        ? jdbc.queryForList("SELECT * FROM users WHERE lower(username) = lower(?)", identifier)
+                        : byEmail;
+            });
+        });
+
+        log.info("login lookup over {} users: before {} us, after {} us", USERS, before, after);
+        assertThat(after).isLessThan(before);
+    }
+
+    private Map<String, Object> lookup(String identifier) {
+        List<Map<String, Object>> rows = jdbc.queryForList(loginLookupSql, identifier, identifier, identifier);
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+
+    private static long timePerLookup(int lookups, Function<String, List<?>> lookup) {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertThat(lookup.apply("USER" + (1 + i * 997 % USERS))).hasSize(1);
+        }
+        return (System.nanoTime() - startedAt) / lookups / 1_000;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.security.TokenHasher;
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshTokenRepositoryTest extends AbstractJpaRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void upsertReplacesTokenOfSameDevice() {
+        Long userId = createUser("refresh-same-device").getId();
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(7);
+
+        refreshTokenRepository.upsertForDevice(userId, "phone", TokenHasher.sha256("first"), expiresAt);
+        refreshTokenRepository.upsertForDevice(userId, "phone", TokenHasher.sha256("second"), expiresAt);
+        refreshTokenRepository.upsertForDevice(userId, "laptop", TokenHasher.sha256("third"), expiresAt);
+
+        assertThat(tokenCount(userId)).isEqualTo(2);
+        assertThat(refreshTokenRepository.findByTokenHash(TokenHasher.sha256("first"))).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(TokenHasher.sha256("second")))
+                .hasValueSatisfying(token -> assertThat(token.getDeviceId()).isEqualTo("phone"));
+    }
+
+    /**
+     * Concurrent logins from one device each commit their own upsert; none may fail on
+     * idx_refresh_tokens_user_device
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentLoginsOnSameDeviceDoNotCollide() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long userId = transaction.execute(status -> createUser("refresh-concurrent").getId());
+        int logins = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                byte[] tokenHash = TokenHasher.sha256("token-" + i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transaction.execute(status -> refreshTokenRepository.upsertForDevice(
+                            userId, "phone", tokenHash, LocalDateTime.now().plusDays(7)));
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(transaction.execute(status -> tokenCount(userId))).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+            transaction.executeWithoutResult(status -> userRepository.deleteById(userId));
+        }
+    }
+
+    private User createUser(String username) {
+        return userRepository.saveAndFlush(User.builder()
+                .companyId(1L)
+                .username(username)
+                .email(username + "@example.com")
+                .passwordHash("{bcrypt}hash")
+                .build());
+    }
+
+    private long tokenCount(Long userId) {
+        return ((Number) entityManager.createNativeQuery("SELECT count(*) FROM refresh_tokens WHERE user_id = :userId")
+                .setParameter("userId", userId)
+                .getSingleResult()).longValue();
+    }
+}
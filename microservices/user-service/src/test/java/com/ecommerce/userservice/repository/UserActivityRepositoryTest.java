@@ -0,0 +1,81 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.activity.ActivityEvent;
+import com.ecommerce.userservice.activity.ActivityRollupStore;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserActivity;
+import com.ecommerce.userservice.enums.ActivityType;
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class UserActivityRepositoryTest extends AbstractJpaRepositoryTest {
+
+    @Autowired
+    private UserActivityRepository userActivityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findsLatestActivityOfMostFrequentTypesInOneQuery() {
+        Long userId = userRepository.saveAndFlush(User.builder()
+                .companyId(1L)
+                .username("activity-latest")
+                .email("activity-latest@example.com")
+                .passwordHash("{bcrypt}hash")
+                .build()).getId();
+        LocalDateTime start = LocalDateTime.now().withNano(0).minusDays(40);
+        List<ActivityEvent> events = new ArrayList<>();
+        // Spread over more than one monthly partition
+        events.add(event(userId, ActivityType.LOGIN, start, "first login"));
+        events.add(event(userId, ActivityType.LOGIN, start.plusDays(20), "second login"));
+        events.add(event(userId, ActivityType.LOGIN, start.plusDays(35), "latest login"));
+        events.add(event(userId, ActivityType.PROFILE_UPDATED, start.plusDays(1), "first update"));
+        events.add(event(userId, ActivityType.PROFILE_UPDATED, start.plusDays(30), "latest update"));
+        events.add(event(userId, ActivityType.LOGOUT, start.plusDays(39), "only logout"));
+        insert(events);
+
+        statistics().clear();
+        List<UserActivity> latest = userActivityRepository.findLatestOfMostFrequentTypes(userId, 2);
+
+        assertThat(latest)
+                .extracting(UserActivity::getActivityType, UserActivity::getDescription)
+                .containsExactly(
+                        tuple(ActivityType.LOGIN, "latest login"),
+                        tuple(ActivityType.PROFILE_UPDATED, "latest update"));
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Raw rows and rollup counters, as the batch writer stores them
+     */
+    private void insert(List<ActivityEvent> events) {
+        for (ActivityEvent event : events) {
+            jdbcTemplate.update("INSERT INTO user_activities (user_id, activity_type, description, created_at) " +
+                            "VALUES (?, ?, ?, ?)",
+                    event.getUserId(), event.getActivityType().name(), event.getDescription(), event.getCreatedAt());
+        }
+        new ActivityRollupStore(jdbcTemplate).increment(events);
+    }
+
+    private static ActivityEvent event(Long userId, ActivityType type, LocalDateTime createdAt, String description) {
+        return ActivityEvent.builder()
+                .userId(userId)
+                .activityType(type)
+                .description(description)
+                .createdAt(createdAt)
+                .build();
+    }
+}
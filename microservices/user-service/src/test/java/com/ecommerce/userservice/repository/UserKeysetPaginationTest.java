@@ -0,0 +1,79 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Newest-first keyset pages over users that share a created_at: pages split inside a
+ * tie and still return every user exactly once, in (created_at, id) order
+ */
+@Import(UserSummaryQueries.class)
+class UserKeysetPaginationTest extends AbstractJpaRepositoryTest {
+
+    // Later than any other test's users, so these are the newest
+    private static final LocalDateTime NEWER = LocalDateTime.of(2999, 1, 2, 0, 0);
+    private static final LocalDateTime OLDER = LocalDateTime.of(2999, 1, 1, 0, 0);
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private UserSummaryQueries userSummaryQueries;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> expectedOrder;
+
+    @BeforeEach
+    void insertUsersSharingCreatedAt() {
+        insertUsers(OLDER, 5);
+        insertUsers(NEWER, 10);
+        expectedOrder = jdbcTemplate.queryForList("""
+                SELECT id FROM users WHERE created_at >= ? ORDER BY created_at DESC, id DESC
+                """, Long.class, OLDER);
+    }
+
+    @Test
+    void pagesThroughTiesWithoutDuplicatesOrGaps() {
+        List<Long> seen = new ArrayList<>();
+        List<UserSummary> page = userSummaryQueries.findNewest(null, null, PAGE_SIZE);
+        while (!page.isEmpty() && !page.get(0).createdAt().isBefore(OLDER)) {
+            page.stream().filter(user -> !user.createdAt().isBefore(OLDER)).forEach(user -> seen.add(user.id()));
+            UserSummary last = page.get(page.size() - 1);
+            page = userSummaryQueries.findNewest(last.createdAt(), last.id(), PAGE_SIZE);
+        }
+
+        assertThat(expectedOrder).hasSize(15);
+        assertThat(seen).containsExactlyElementsOf(expectedOrder);
+    }
+
+    @Test
+    void seeksPastTheLastIdWithinItsCreatedAt() {
+        // Cursor in the middle of the newer tie: the rest of the tie comes first, then the older users
+        Long middle = expectedOrder.get(5);
+
+        List<UserSummary> page = userSummaryQueries.findNewest(NEWER, middle, 6);
+
+        assertThat(page).extracting(UserSummary::id).containsExactlyElementsOf(expectedOrder.subList(6, 12));
+        assertThat(page).extracting(UserSummary::createdAt)
+                .containsExactly(NEWER, NEWER, NEWER, NEWER, OLDER, OLDER);
+    }
+
+    private void insertUsers(LocalDateTime createdAt, int count) {
+        jdbcTemplate.update("""
+                INSERT INTO users (company_id, username, email, password_hash, created_at)
+                SELECT 1, 'keyset-' || gen_random_uuid(), 'keyset-' || gen_random_uuid() || '@example.com',
+                       '{bcrypt}hash', ?
+                FROM generate_series(1, ?)
+                """, createdAt, count);
+    }
+}
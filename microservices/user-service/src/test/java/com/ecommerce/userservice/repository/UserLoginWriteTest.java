@@ -0,0 +1,159 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import com.ecommerce.userservice.support.SqlCapture;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login bookkeeping writes only the login columns, without firing the updated_at trigger
+ */
+@Slf4j
+class UserLoginWriteTest extends AbstractJpaRepositoryTest {
+
+    private static final List<String> LOGIN_COLUMNS =
+            List.of("failed_login_attempts", "account_locked_until", "last_login");
+    private static final LocalDateTime UNTOUCHED = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.saveAndFlush(User.builder()
+                .companyId(1L)
+                .username("login-write")
+                .email("login-write@example.com")
+                .passwordHash("{bcrypt}hash")
+                .failedLoginAttempts(3)
+                .build());
+        userId = user.getId();
+        // Not a trigger column, so this marker survives any write that skips the trigger
+        entityManager.createNativeQuery("UPDATE users SET updated_at = :marker WHERE id = :id")
+                .setParameter("marker", UNTOUCHED)
+                .setParameter("id", userId)
+                .executeUpdate();
+        entityManager.clear();
+        SqlCapture.clear();
+    }
+
+    @Test
+    void successfulLoginUpdatesOnlyLoginColumns() {
+        int updated = userRepository.recordSuccessfulLogin(userId, LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(1);
+        List<String> updates = SqlCapture.updatesOf("users");
+        assertThat(updates).hasSize(1);
+        assertThat(SqlCapture.setColumns(updates.get(0))).containsExactlyInAnyOrderElementsOf(LOGIN_COLUMNS);
+        assertThat(updatedAtUntouched()).isTrue();
+        assertThat(entityManager.find(User.class, userId).getFailedLoginAttempts()).isZero();
+    }
+
+    @Test
+    void dirtyEntityUpdatesOnlyChangedColumns() {
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setFirstName("Jane");
+        userRepository.saveAndFlush(user);
+
+        List<String> updates = SqlCapture.updatesOf("users");
+        assertThat(updates).hasSize(1);
+        assertThat(SqlCapture.setColumns(updates.get(0))).containsExactlyInAnyOrder("first_name", "updated_at");
+    }
+
+    /**
+     * Per-login write cost before and after: the full-row UPDATE Hibernate issued for
+     * save(user), which fired the updated_at trigger, versus the targeted statement
+     */
+    @Test
+    @Tag("benchmark")
+    void targetedLoginUpdateWritesLessThanFullRowSave() {
+        int logins = 200;
+        String fullRowUpdate = fullRowLoginUpdateSql();
+
+        long fullRowWal = walBytes(() -> {
+            for (int i = 0; i < logins; i++) {
+                entityManager.createNativeQuery(fullRowUpdate).setParameter("id", userId).executeUpdate();
+            }
+        });
+        boolean fullRowFiredTrigger = !updatedAtUntouched();
+        resetUpdatedAt();
+
+        long targetedWal = walBytes(() -> {
+            for (int i = 0; i < logins; i++) {
+                userRepository.recordSuccessfulLogin(userId, LocalDateTime.now());
+            }
+        });
+        boolean targetedFiredTrigger = !updatedAtUntouched();
+
+        log.info("login write per call: full-row save {} columns, {} WAL bytes, trigger {}; "
+                        + "targeted update {} columns, {} WAL bytes, trigger {}",
+                fullRowColumns().size(), fullRowWal / logins, fullRowFiredTrigger,
+                LOGIN_COLUMNS.size(), targetedWal / logins, targetedFiredTrigger);
+
+        assertThat(fullRowFiredTrigger).isTrue();
+        assertThat(targetedFiredTrigger).isFalse();
+        assertThat(targetedWal).isLessThanOrEqualTo(fullRowWal);
+    }
+
+    /**
+     * Equivalent of the pre-change save(user): every updatable column rewritten
+     */
+    private String fullRowLoginUpdateSql() {
+        String assignments = String.join(", ", fullRowColumns().stream()
+                .map(column -> LOGIN_COLUMNS.contains(column)
+                        ? column + " = " + (column.equals("last_login") ? "now()"
+                                : column.equals("failed_login_attempts") ? "0" : "NULL")
+                        : column + " = " + column)
+                .toList());
+        return "UPDATE users SET " + assignments + " WHERE id = :id";
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> fullRowColumns() {
+        return entityManager.createNativeQuery("""
+                        SELECT column_name FROM information_schema.columns
+                        WHERE table_name = 'users' AND column_name NOT IN ('id', 'created_at')
+                        ORDER BY ordinal_position
+                        """)
+                .getResultList();
+    }
+
+    private long walBytes(Runnable writes) {
+        String start = (String) entityManager.createNativeQuery("SELECT CAST(pg_current_wal_insert_lsn() AS text)")
+                .getSingleResult();
+        writes.run();
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), CAST(:start AS pg_lsn))")
+                .setParameter("start", start)
+                .getSingleResult()).longValue();
+    }
+
+    private boolean updatedAtUntouched() {
+        return (Boolean) entityManager.createNativeQuery("SELECT updated_at = :marker FROM users WHERE id = :id")
+                .setParameter("marker", UNTOUCHED)
+                .setParameter("id", userId)
+                .getSingleResult();
+    }
+
+    private void resetUpdatedAt() {
+        entityManager.createNativeQuery("UPDATE users SET updated_at = :marker WHERE id = :id")
+                .setParameter("marker", UNTOUCHED)
+                .setParameter("id", userId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserRole;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements issued by the UserRepository listings when every listed user's roles are
+ * read: one for the unpaged company and status listings, which fetch roles with the
+ * users; otherwise the users, then their roles in batches of 100, whatever the number
+ * of users
+ */
+class UserRepositoryRoleLoadingTest extends AbstractJpaRepositoryTest {
+
+    // Outside the 1..1000 range used by seeded users
+    private static final long COMPANY_ID = 900_001L;
+    private static final int USERS = 150;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertUsersWithRoles() {
+        // Plain JDBC, so no user or role collection starts out in the persistence context
+        jdbcTemplate.update("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                SELECT ?, 'roles-' || i || '-' || gen_random_uuid(), 'roles-' || gen_random_uuid() || '@example.com',
+                       '{bcrypt}hash'
+                FROM generate_series(1, ?) AS i
+                """, COMPANY_ID, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO user_roles (user_id, role)
+                SELECT id, role FROM users, unnest(ARRAY['ROLE_CUSTOMER', 'ROLE_ANALYST']) AS role
+                WHERE company_id = ?
+                """, COMPANY_ID);
+    }
+
+    @Test
+    void specificationListingLoadsRolesInBatches() {
+        statistics().clear();
+        List<User> users = userRepository.findAll(UserSpecifications.inCompany(COMPANY_ID));
+
+        assertThat(users).hasSize(USERS)
+                .allSatisfy(user -> assertThat(user.getRoles())
+                        .containsExactlyInAnyOrder(UserRole.ROLE_CUSTOMER, UserRole.ROLE_ANALYST));
+        // One for the users, two role batches (100 + 50)
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void pagedListingLoadsRolesOfThePageInOneBatch() {
+        statistics().clear();
+        Page<User> page = userRepository.findAll(UserSpecifications.inCompany(COMPANY_ID),
+                PageRequest.of(1, 50, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(50)
+                .allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+        assertThat(page.getTotalElements()).isEqualTo(USERS);
+        // Page, count and one role batch
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void companyListingFetchesRolesWithTheUsers() {
+        statistics().clear();
+        List<User> users = userRepository.findByCompanyId(COMPANY_ID);
+
+        assertThat(users).hasSize(USERS)
+                .allSatisfy(user -> assertThat(user.getRoles())
+                        .containsExactlyInAnyOrder(UserRole.ROLE_CUSTOMER, UserRole.ROLE_ANALYST));
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void activeCompanyListingFetchesRolesWithTheUsers() {
+        jdbcTemplate.update("""
+                UPDATE users SET status = 'ACTIVE'
+                WHERE id IN (SELECT id FROM users WHERE company_id = ? ORDER BY id LIMIT ?)
+                """, COMPANY_ID, USERS / 2);
+
+        statistics().clear();
+        List<User> users = userRepository.findActiveUsersByCompanyId(COMPANY_ID);
+
+        assertThat(users).hasSize(USERS / 2)
+                .allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void statusListingFetchesRolesWithTheUsers() {
+        // No seeded user is DELETED, so the listing only finds this company's users
+        jdbcTemplate.update("UPDATE users SET status = 'DELETED' WHERE company_id = ?", COMPANY_ID);
+
+        statistics().clear();
+        List<User> users = userRepository.findByStatus(UserStatus.DELETED);
+
+        assertThat(users).hasSize(USERS)
+                .allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.entity.UserType;
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import com.ecommerce.userservice.support.ExplainPlan;
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import com.ecommerce.userservice.support.SqlCapture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the tenant-scoped user search against a table of one million users: the
+ * statements Hibernate generates for each filter combination are captured and explained
+ * with the same arguments
+ */
+@Import(UserSummaryQueries.class)
+class UserSpecificationsPlanTest extends AbstractJpaRepositoryTest {
+
+    private static final int USERS = 1_000_000;
+    private static final long COMPANY_ID = 43L;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private UserSummaryQueries userSummaryQueries;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        PostgresTestDatabase.seedUsers(USERS);
+    }
+
+    @Test
+    void companyAndStatusUseCompanyStatusIndex() {
+        assertPlans(UserSpecifications.inCompany(COMPANY_ID).and(UserSpecifications.hasStatus(UserStatus.SUSPENDED)),
+                List.of(COMPANY_ID, UserStatus.SUSPENDED.name()), "idx_users_company_status");
+    }
+
+    @Test
+    void companyAndTypeUseCompanyTypeIndex() {
+        assertPlans(UserSpecifications.inCompany(COMPANY_ID).and(UserSpecifications.hasType(UserType.VENDOR)),
+                List.of(COMPANY_ID, UserType.VENDOR.name()), "idx_users_company_type");
+    }
+
+    @Test
+    void companyAndEmailPrefixUseEmailPatternIndex() {
+        assertPlans(UserSpecifications.inCompany(COMPANY_ID).and(UserSpecifications.emailStartsWith("User42")),
+                List.of(COMPANY_ID, "user42%"), "idx_users_company_lower_email_pattern");
+    }
+
+    /**
+     * Runs the search, then explains both the page query and its count query
+     */
+    private void assertPlans(Specification<User> spec, List<Object> filterArgs, String expectedIndex) {
+        SqlCapture.clear();
+        assertThat(userSummaryQueries.findAll(spec, PageRequest.of(0, PAGE_SIZE)).getContent()).isNotEmpty();
+
+        List<String> statements = SqlCapture.statements().stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains(" from users "))
+                .toList();
+        assertThat(statements).hasSize(2);
+        for (String sql : statements) {
+            ExplainPlan plan = ExplainPlan.of(jdbcTemplate, sql, arguments(sql, filterArgs));
+            assertThat(plan.hasSeqScanOn("users")).as(plan.toString()).isFalse();
+            assertThat(plan.indexNames()).as(plan.toString()).contains(expectedIndex);
+        }
+    }
+
+    /**
+     * The filter arguments, followed by the offset and limit when the statement pages
+     */
+    private static Object[] arguments(String sql, List<Object> filterArgs) {
+        List<Object> args = new ArrayList<>(filterArgs);
+        int pagingArgs = (int) sql.chars().filter(c -> c == '?').count() - filterArgs.size();
+        if (pagingArgs == 2) {
+            args.add(0);
+        }
+        if (pagingArgs >= 1) {
+            args.add(PAGE_SIZE);
+        }
+        return args.toArray();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.support.AbstractJpaRepositoryTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Projection reads: roles aggregated per row, and specification pages that fetch the
+ * summaries by id after the criteria query has ordered them
+ */
+@Import(UserSummaryQueries.class)
+class UserSummaryQueriesTest extends AbstractJpaRepositoryTest {
+
+    // Outside the 1..1000 range used by seeded users
+    private static final long COMPANY_ID = 900_002L;
+
+    @Autowired
+    private UserSummaryQueries userSummaryQueries;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mapsAggregatedRolesToSet() {
+        long withRoles = insertUser("summary-roles");
+        long withoutRoles = insertUser("summary-no-roles");
+        jdbcTemplate.update("""
+                INSERT INTO user_roles (user_id, role)
+                SELECT ?, role FROM unnest(ARRAY['ROLE_CUSTOMER', 'ROLE_ANALYST']) AS role
+                """, withRoles);
+
+        assertThat(userSummaryQueries.findById(withRoles).orElseThrow().roles())
+                .containsExactlyInAnyOrder("ROLE_CUSTOMER", "ROLE_ANALYST");
+        assertThat(userSummaryQueries.findById(withoutRoles).orElseThrow().roles()).isEmpty();
+    }
+
+    @Test
+    void specificationPageKeepsTheCriteriaOrder() {
+        // Usernames descend as ids ascend, so a username sort is the reverse of id order
+        for (int i = 30; i > 0; i--) {
+            insertUser("summary-order-%02d".formatted(i));
+        }
+        List<Long> expected = jdbcTemplate.queryForList("""
+                SELECT id FROM users WHERE company_id = ? ORDER BY username OFFSET 10 LIMIT 10
+                """, Long.class, COMPANY_ID);
+
+        Page<UserSummary> page = userSummaryQueries.findAll(UserSpecifications.inCompany(COMPANY_ID),
+                PageRequest.of(1, 10, Sort.by("username")));
+
+        assertThat(expected).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(page.getContent()).extracting(UserSummary::id).containsExactlyElementsOf(expected);
+        assertThat(page.getTotalElements()).isEqualTo(30);
+    }
+
+    private long insertUser(String username) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                VALUES (?, ?, ? || '-' || gen_random_uuid() || '@example.com', '{bcrypt}hash')
+                RETURNING id
+                """, Long.class, COMPANY_ID, username, username);
+    }
+}
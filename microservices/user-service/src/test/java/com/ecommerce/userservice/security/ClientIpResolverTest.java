@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "::1/128"));
+
+    @Test
+    void usesRemoteAddressOfUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+
+        // A direct client cannot choose its address through the header
+        assertThat(resolver.resolve(request)).contains("203.0.113.7");
+    }
+
+    @Test
+    void usesForwardedAddressBehindTrustedGateway() {
+        assertThat(resolver.resolve(request("10.0.0.5", "198.51.100.1"))).contains("198.51.100.1");
+    }
+
+    @Test
+    void skipsTrustedHopsButNotSpoofedOnes() {
+        // The client sent "192.0.2.9" itself; the gateway appended the real peer, then an inner proxy
+        MockHttpServletRequest request = request("10.0.0.5", "192.0.2.9, 198.51.100.1, 10.0.0.8");
+
+        assertThat(resolver.resolve(request)).contains("198.51.100.1");
+    }
+
+    @Test
+    void isEmptyWhenGatewaySendsNoClientAddress() {
+        assertThat(resolver.resolve(request("10.0.0.5", null))).isEmpty();
+        assertThat(resolver.resolve(request("10.0.0.5", "10.0.0.8"))).isEmpty();
+    }
+
+    @Test
+    void isEmptyForUnparseableHop() {
+        assertThat(resolver.resolve(request("10.0.0.5", "unknown"))).isEmpty();
+        assertThat(resolver.resolve(request("10.0.0.5", "198.51.100.1, example.com"))).isEmpty();
+    }
+
+    @Test
+    void supportsIpv6() {
+        assertThat(resolver.resolve(request("::1", "2001:db8::1"))).contains("2001:db8::1");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactCostBCryptPasswordEncoderTest {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private final ExactCostBCryptPasswordEncoder encoder = new ExactCostBCryptPasswordEncoder(5);
+
+    @Test
+    void upgradesCheaperHash() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD))).isTrue();
+    }
+
+    @Test
+    void downgradesStrongerHash() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode(PASSWORD))).isTrue();
+    }
+
+    @Test
+    void keepsHashAtConfiguredCost() {
+        assertThat(encoder.upgradeEncoding(encoder.encode(PASSWORD))).isFalse();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    /**
+     * As wired in SecurityConfig: prefixed hashes reach the cost check, and a re-hash at the
+     * new cost is stable
+     */
+    @Test
+    void rehashesPrefixedHashesInBothDirectionsThroughDelegatingEncoder() {
+        PasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", encoder));
+
+        assertThat(delegating.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD))).isTrue();
+        assertThat(delegating.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode(PASSWORD))).isTrue();
+
+        String rehashed = delegating.encode(PASSWORD);
+        assertThat(delegating.matches(PASSWORD, rehashed)).isTrue();
+        assertThat(delegating.upgradeEncoding(rehashed)).isFalse();
+    }
+}
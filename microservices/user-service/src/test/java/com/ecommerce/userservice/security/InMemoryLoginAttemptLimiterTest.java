@@ -0,0 +1,142 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.exception.AuthenticationException;
+import com.ecommerce.userservice.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryLoginAttemptLimiterTest {
+
+    private static final int IP_MAX_ATTEMPTS = 3;
+    private static final long IP_WINDOW_MS = 60_000;
+    private static final int MAX_FAILURES = 3;
+    private static final long ACCOUNT_WINDOW_MS = 1_800_000;
+    private static final long LOCKOUT_MS = 900_000;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final InMemoryLoginAttemptLimiter limiter = new InMemoryLoginAttemptLimiter(
+            IP_MAX_ATTEMPTS, IP_WINDOW_MS, MAX_FAILURES, ACCOUNT_WINDOW_MS, LOCKOUT_MS, nanos::get);
+
+    private final String account = LoginAttemptLimiter.accountKey(42L);
+
+    @Test
+    void throttlesIpWithinSlidingWindow() {
+        for (int i = 0; i < IP_MAX_ATTEMPTS; i++) {
+            limiter.checkIpAllowed("198.51.100.1");
+            advance(1_000);
+        }
+
+        assertThatThrownBy(() -> limiter.checkIpAllowed("198.51.100.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> limiter.checkIpAllowed("198.51.100.2")).doesNotThrowAnyException();
+
+        // The first attempt leaves the window, freeing one slot only
+        advance(IP_WINDOW_MS - 3_000);
+        limiter.checkIpAllowed("198.51.100.1");
+        assertThatThrownBy(() -> limiter.checkIpAllowed("198.51.100.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void unknownIpIsNeverThrottled() {
+        for (int i = 0; i < IP_MAX_ATTEMPTS * 2; i++) {
+            limiter.checkIpAllowed(null);
+        }
+    }
+
+    @Test
+    void locksAccountAfterMaxFailuresUntilLockoutExpires() {
+        for (int i = 1; i < MAX_FAILURES; i++) {
+            assertThat(limiter.recordFailure(account)).isEmpty();
+        }
+        assertThat(limiter.recordFailure(account)).isPresent();
+
+        assertThatThrownBy(() -> limiter.checkAccountAllowed(account))
+                .isInstanceOf(AuthenticationException.class);
+        assertThatCode(() -> limiter.checkAccountAllowed(LoginAttemptLimiter.accountKey(43L)))
+                .doesNotThrowAnyException();
+
+        advance(LOCKOUT_MS);
+        assertThatCode(() -> limiter.checkAccountAllowed(account)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failuresOutsideWindowDoNotCount() {
+        for (int i = 1; i < MAX_FAILURES; i++) {
+            limiter.recordFailure(account);
+        }
+        advance(ACCOUNT_WINDOW_MS + 1);
+
+        assertThat(limiter.recordFailure(account)).isEmpty();
+        limiter.checkAccountAllowed(account);
+    }
+
+    @Test
+    void successResetsFailureWindow() {
+        for (int i = 1; i < MAX_FAILURES; i++) {
+            limiter.recordFailure(account);
+        }
+        limiter.recordSuccess(account);
+
+        for (int i = 1; i < MAX_FAILURES; i++) {
+            assertThat(limiter.recordFailure(account)).isEmpty();
+        }
+        limiter.checkAccountAllowed(account);
+    }
+
+    @Test
+    void unlockLiftsLockAndForgetsFailures() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            limiter.recordFailure(account);
+        }
+
+        limiter.unlock(account);
+
+        assertThatCode(() -> limiter.checkAccountAllowed(account)).doesNotThrowAnyException();
+        for (int i = 1; i < MAX_FAILURES; i++) {
+            assertThat(limiter.recordFailure(account)).isEmpty();
+        }
+    }
+
+    @Test
+    void unknownIdentifiersAreKeyedCaseInsensitively() {
+        assertThat(LoginAttemptLimiter.unknownAccountKey("Nobody@Example.com"))
+                .isEqualTo(LoginAttemptLimiter.unknownAccountKey("nobody@example.com"))
+                .isNotEqualTo(account);
+    }
+
+    @Test
+    void idleEntriesArePruned() {
+        for (int i = 0; i < 100; i++) {
+            limiter.checkIpAllowed("198.51.100." + i);
+            limiter.recordFailure(LoginAttemptLimiter.accountKey((long) i));
+        }
+        limiter.recordFailure(account);
+        limiter.recordFailure(account);
+        limiter.recordFailure(account);
+
+        advance(Math.max(ACCOUNT_WINDOW_MS, LOCKOUT_MS) + 1);
+
+        assertThat(size("ipWindows")).isZero();
+        assertThat(size("failureWindows")).isZero();
+        assertThat(size("locks")).isZero();
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(Duration.ofMillis(millis).toNanos());
+    }
+
+    private long size(String field) {
+        Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(limiter, field);
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.support.Microbenchmark;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET =
+            "test-secret-for-hs512-signing-that-is-long-enough-to-be-a-valid-512-bit-key-0123456789";
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpirationMs", 604_800_000L);
+        provider.init();
+    }
+
+    @Test
+    void validateAndGetClaimsReturnsClaimsOfValidToken() {
+        String token = provider.generateAccessToken(42L, "jane@example.com", 7L, Set.of("ROLE_USER"));
+
+        Optional<Claims> claims = provider.validateAndGetClaims(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("jane@example.com");
+        assertThat(claims.get().get("userId", Long.class)).isEqualTo(42L);
+        assertThat(claims.get().get("type", String.class)).isEqualTo("ACCESS");
+        assertThat(provider.getRoles(claims.get())).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void validateAndGetClaimsRejectsTamperedToken() {
+        String token = provider.generateRefreshToken(42L, "jane@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(provider.validateAndGetClaims(tampered)).isEmpty();
+        assertThat(provider.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void validateAndGetClaimsRejectsTokenSignedWithAnotherKey() {
+        JwtTokenProvider other = new JwtTokenProvider();
+        ReflectionTestUtils.setField(other, "jwtSecret", SECRET.replace('0', '9'));
+        ReflectionTestUtils.setField(other, "jwtExpirationMs", 900_000L);
+        other.init();
+
+        String token = other.generateAccessToken(42L, "jane@example.com", 7L, Set.of("ROLE_USER"));
+
+        assertThat(provider.validateAndGetClaims(token)).isEmpty();
+    }
+
+    @Test
+    void reusesSigningKeyAndParserAcrossCalls() {
+        Object parser = ReflectionTestUtils.getField(provider, "jwtParser");
+        Object key = ReflectionTestUtils.getField(provider, "signingKey");
+
+        provider.validateToken(provider.generateAccessToken(1L, "a@example.com", 1L, Set.of()));
+
+        assertThat(ReflectionTestUtils.getField(provider, "jwtParser")).isSameAs(parser);
+        assertThat(ReflectionTestUtils.getField(provider, "signingKey")).isSameAs(key);
+    }
+
+    /**
+     * Refresh path before and after: key and parser rebuilt for each of two parses
+     * (validate, then read the type) versus one parse with the shared parser
+     */
+    @Test
+    @Tag("benchmark")
+    void singleParseWithSharedParserAllocatesLessThanRebuildingPerCall() {
+        String token = provider.generateRefreshToken(42L, "jane@example.com");
+
+        Microbenchmark.Result rebuilt = Microbenchmark.measure("jwt: rebuild key+parser, parse twice",
+                5_000, 20_000, () -> {
+                    parseWithFreshParser(token);
+                    return parseWithFreshParser(token).get("type", String.class);
+                });
+        Microbenchmark.Result shared = Microbenchmark.measure("jwt: shared parser, parse once",
+                5_000, 20_000, () -> provider.validateAndGetClaims(token)
+                        .map(claims -> claims.get("type", String.class))
+                        .orElseThrow());
+
+        assertThat(shared.bytesPerOp()).isLessThan(rebuilt.bytesPerOp() * 0.6);
+    }
+
+    private static Claims parseWithFreshParser(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.enums.Permission;
+import com.ecommerce.userservice.permission.PermissionMask;
+import com.ecommerce.userservice.support.Microbenchmark;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenPermissionsTest {
+
+    private static final String SECRET =
+            "test-secret-for-hs512-signing-that-is-long-enough-to-be-a-valid-512-bit-key-0123456789";
+    private static final Set<String> ROLES = Set.of("ROLE_CUSTOMER", "ROLE_VENDOR", "ROLE_ANALYST");
+    private static final long MASK = PermissionMask.of(List.of(
+            Permission.PRODUCT_VIEW, Permission.PRODUCT_CREATE, Permission.PRODUCT_UPDATE,
+            Permission.ORDER_VIEW, Permission.ORDER_CREATE, Permission.ORDER_CANCEL,
+            Permission.USER_VIEW, Permission.COMPANY_VIEW, Permission.ANALYTICS_VIEW, Permission.ANALYTICS_EXPORT));
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(provider, "permissionClaims", true);
+        provider.init();
+    }
+
+    @Test
+    void readsMaskOfCurrentSchema() {
+        TokenPermissions permissions = TokenPermissions.from(claims(Map.of(
+                TokenPermissions.MASK_CLAIM, PermissionMask.encode(MASK),
+                TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION))).orElseThrow();
+
+        assertThat(permissions.getMask()).isEqualTo(MASK);
+        assertThat(permissions.has(Permission.ORDER_CANCEL)).isTrue();
+        assertThat(permissions.has(Permission.ORDER_REFUND)).isFalse();
+    }
+
+    @Test
+    void rejectsMaskOfAnotherSchema() {
+        assertThat(TokenPermissions.from(claims(Map.of(
+                TokenPermissions.MASK_CLAIM, PermissionMask.encode(MASK),
+                TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION + 1)))).isEmpty();
+    }
+
+    @Test
+    void rejectsMissingOrMalformedClaims() {
+        assertThat(TokenPermissions.from(claims(Map.of()))).isEmpty();
+        assertThat(TokenPermissions.from(claims(Map.of(
+                TokenPermissions.MASK_CLAIM, PermissionMask.encode(MASK))))).isEmpty();
+        assertThat(TokenPermissions.from(claims(Map.of(
+                TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION)))).isEmpty();
+        assertThat(TokenPermissions.from(claims(Map.of(
+                TokenPermissions.MASK_CLAIM, "not base64url!",
+                TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION)))).isEmpty();
+        assertThat(TokenPermissions.from(claims(Map.of(
+                TokenPermissions.MASK_CLAIM, "AAAAAAAAAAAAAA",
+                TokenPermissions.SCHEMA_CLAIM, PermissionMask.SCHEMA_VERSION)))).isEmpty();
+    }
+
+    @Test
+    void accessTokenCarriesMaskAndSchemaThroughSigningAndParsing() {
+        String token = provider.generateAccessToken(42L, "jane@example.com", 7L, ROLES, MASK);
+
+        Claims claims = provider.validateAndGetClaims(token).orElseThrow();
+
+        assertThat(claims.get(TokenPermissions.SCHEMA_CLAIM, Integer.class)).isEqualTo(PermissionMask.SCHEMA_VERSION);
+        assertThat(provider.getPermissions(claims)).hasValueSatisfying(permissions ->
+                assertThat(permissions.getMask()).isEqualTo(MASK));
+        assertThat(provider.getRoles(claims)).isEqualTo(ROLES);
+    }
+
+    @Test
+    void accessTokenHasNoPermissionClaimsWhenDisabled() {
+        ReflectionTestUtils.setField(provider, "permissionClaims", false);
+        String token = provider.generateAccessToken(42L, "jane@example.com", 7L, ROLES, MASK);
+
+        Claims claims = provider.validateAndGetClaims(token).orElseThrow();
+
+        assertThat(claims).doesNotContainKeys(TokenPermissions.MASK_CLAIM, TokenPermissions.SCHEMA_CLAIM);
+        assertThat(provider.getPermissions(claims)).isEmpty();
+    }
+
+    /**
+     * What a downstream service pays to authorize one request from a verified token: the
+     * mask claims against resolving the roles claim through its own role-to-permission
+     * table. Token size is compared with a roles-only token and with one listing the
+     * permission names, the other way to make a token self-contained.
+     */
+    @Test
+    @Tag("benchmark")
+    void maskClaimIsSmallAndCheaperToAuthorizeThanRoleList() {
+        ReflectionTestUtils.setField(provider, "permissionClaims", false);
+        String rolesOnly = provider.generateAccessToken(42L, "jane@example.com", 7L, ROLES);
+        ReflectionTestUtils.setField(provider, "permissionClaims", true);
+        String withMask = provider.generateAccessToken(42L, "jane@example.com", 7L, ROLES, MASK);
+        String withNames = signed(Map.of(
+                "userId", 42L, "email", "jane@example.com", "companyId", 7L, "roles", ROLES, "type", "ACCESS",
+                "permissions", PermissionMask.toSet(MASK).stream().map(Enum::name).toList()));
+
+        // Two short claims: well under 64 characters of token, whatever the number of permissions
+        assertThat(withMask.length() - rolesOnly.length()).isLessThan(64);
+        assertThat(withNames.length()).isGreaterThan(withMask.length() + 100);
+
+        Claims claims = provider.validateAndGetClaims(withMask).orElseThrow();
+        Map<String, Set<Permission>> rolePermissions = Map.of(
+                "ROLE_CUSTOMER", EnumSet.of(Permission.PRODUCT_VIEW, Permission.ORDER_VIEW, Permission.ORDER_CREATE,
+                        Permission.ORDER_CANCEL),
+                "ROLE_VENDOR", EnumSet.of(Permission.PRODUCT_VIEW, Permission.PRODUCT_CREATE,
+                        Permission.PRODUCT_UPDATE, Permission.COMPANY_VIEW),
+                "ROLE_ANALYST", EnumSet.of(Permission.USER_VIEW, Permission.ANALYTICS_VIEW,
+                        Permission.ANALYTICS_EXPORT));
+        Permission[] checked = {Permission.ANALYTICS_EXPORT, Permission.ORDER_REFUND, Permission.PRODUCT_UPDATE};
+        int[] next = {0};
+
+        Microbenchmark.Result roleList = Microbenchmark.measure("authorize: roles claim + role table",
+                100_000, 500_000, () -> {
+                    Permission permission = checked[next[0]++ % checked.length];
+                    for (String role : provider.getRoles(claims)) {
+                        Set<Permission> granted = rolePermissions.get(role);
+                        if (granted != null && granted.contains(permission)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+        Microbenchmark.Result mask = Microbenchmark.measure("authorize: perms claim",
+                100_000, 500_000, () -> TokenPermissions.from(claims)
+                        .map(permissions -> permissions.has(checked[next[0]++ % checked.length]))
+                        .orElse(false));
+
+        assertThat(mask.bytesPerOp()).isLessThan(roleList.bytesPerOp());
+    }
+
+    private Claims claims(Map<String, Object> permissionClaims) {
+        Map<String, Object> claims = new HashMap<>(permissionClaims);
+        claims.put("userId", 42L);
+        claims.put("type", "ACCESS");
+        return provider.validateAndGetClaims(signed(claims)).orElseThrow();
+    }
+
+    private static String signed(Map<String, Object> claims) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject("jane@example.com")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + 900_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
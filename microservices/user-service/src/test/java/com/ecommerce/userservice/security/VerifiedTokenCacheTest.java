@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, 300_000, meterRegistry);
+
+    @Test
+    void returnsTokenUntilInvalidated() {
+        VerifiedTokenCache.VerifiedToken verified = verifiedToken(Instant.now().plusSeconds(60));
+
+        cache.put("token", verified);
+
+        assertThat(cache.get("token")).containsSame(verified);
+        assertThat(cache.get("other")).isEmpty();
+
+        cache.invalidate("token");
+
+        assertThat(cache.get("token")).isEmpty();
+    }
+
+    @Test
+    void ignoresAlreadyExpiredToken() {
+        cache.put("token", verifiedToken(Instant.now().minusSeconds(1)));
+
+        assertThat(cache.get("token")).isEmpty();
+    }
+
+    @Test
+    void sharesCacheMeterTagsWithTwoLevelCaches() {
+        // Registered the way TwoLevelCacheManager registers its local tier
+        Cache<String, Object> users = Caffeine.newBuilder().recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users", Tags.of("tier", "local"));
+
+        cache.get("token");
+        users.getIfPresent("key");
+
+        String scrape = meterRegistry.scrape();
+        assertThat(scrape).contains("cache=\"jwt.verified-tokens\"");
+        assertThat(scrape).contains("cache=\"users\"");
+    }
+
+    private static VerifiedTokenCache.VerifiedToken verifiedToken(Instant expiresAt) {
+        return new VerifiedTokenCache.VerifiedToken(
+                new UserPrincipal(1L, "jane@example.com", 7L), List.of(), expiresAt);
+    }
+}
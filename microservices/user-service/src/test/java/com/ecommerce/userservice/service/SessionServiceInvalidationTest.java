@@ -0,0 +1,97 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.mapper.UserSessionMapper;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserSessionRepository;
+import com.ecommerce.userservice.security.TokenHasher;
+import com.ecommerce.userservice.session.ExpiredSessionSweeper;
+import com.ecommerce.userservice.session.RedisSessionStore;
+import com.ecommerce.userservice.session.SessionActivityTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Terminated sessions leave Redis, and their pending activity updates are dropped,
+ * only once the termination has committed
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionServiceInvalidationTest {
+
+    @Mock private UserSessionRepository userSessionRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private UserSessionMapper userSessionMapper;
+    @Mock private RedisSessionStore sessionStore;
+    @Mock private SessionActivityTracker activityTracker;
+    @Mock private ExpiredSessionSweeper expiredSessionSweeper;
+
+    private SessionServiceImpl sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new SessionServiceImpl(userSessionRepository, userRepository, userSessionMapper,
+                sessionStore, activityTracker, expiredSessionSweeper);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void terminatedSessionLeavesTheStoreAfterCommit() {
+        String tokenHash = TokenHasher.sha256Hex("token");
+
+        sessionService.terminateSession("token", "logout");
+
+        verify(userSessionRepository).terminateByToken(eq(tokenHash), eq("logout"), any(LocalDateTime.class));
+        verifyNoInteractions(sessionStore, activityTracker);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        verify(activityTracker).forget(tokenHash);
+        // The store resolves the session's user and device indexes itself
+        verify(sessionStore).remove(Set.of(tokenHash), null, null);
+    }
+
+    @Test
+    void deviceSessionsLeaveTheStoreAfterCommit() {
+        when(sessionStore.findByDevice("phone")).thenReturn(Set.of("h1", "h2"));
+
+        sessionService.terminateDeviceSessions("phone", "lost");
+
+        verifyNoInteractions(sessionStore, activityTracker);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        verify(activityTracker).forget("h1");
+        verify(activityTracker).forget("h2");
+        verify(sessionStore).remove(Set.of("h1", "h2"), null, "phone");
+    }
+
+    @Test
+    void otherSessionsLeaveTheStoreButTheCurrentOneStays() {
+        String keepHash = TokenHasher.sha256Hex("current");
+        when(sessionStore.findByUser(7L)).thenReturn(Set.of(keepHash, "h1"));
+
+        sessionService.terminateOtherSessions(7L, "current", "password changed");
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        verify(sessionStore).remove(Set.of("h1"), 7L, null);
+    }
+}
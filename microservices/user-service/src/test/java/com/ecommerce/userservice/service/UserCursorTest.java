@@ -0,0 +1,76 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.exception.InvalidOperationException;
+import com.ecommerce.userservice.repository.UserSummary;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+    private static final Long COMPANY_ID = 7L;
+
+    @Test
+    void newestFirstCursorRoundTrips() {
+        String cursor = UserCursor.byCreatedAt(user(42L));
+
+        UserCursor parsed = UserCursor.parseByCreatedAt(cursor);
+
+        assertThat(parsed.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(parsed.getId()).isEqualTo(42L);
+        // Safe in a query string as is
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void companyCursorRoundTrips() {
+        String cursor = UserCursor.byCompany(user(42L));
+
+        assertThat(UserCursor.parseByCompany(cursor, COMPANY_ID).getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsCursorOfAnotherCompany() {
+        String cursor = UserCursor.byCompany(user(42L));
+
+        assertInvalid(() -> UserCursor.parseByCompany(cursor, 8L));
+    }
+
+    @Test
+    void rejectsCursorOfTheOtherListing() {
+        assertInvalid(() -> UserCursor.parseByCompany(UserCursor.byCreatedAt(user(42L)), COMPANY_ID));
+        assertInvalid(() -> UserCursor.parseByCreatedAt(UserCursor.byCompany(user(42L))));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertInvalid(() -> UserCursor.parseByCreatedAt("not base64!"));
+        assertInvalid(() -> UserCursor.parseByCreatedAt(encode("T|2024-03-01T12:30:15|42|1")));
+        assertInvalid(() -> UserCursor.parseByCreatedAt(encode("T|yesterday|42")));
+        assertInvalid(() -> UserCursor.parseByCreatedAt(encode("T|2024-03-01T12:30:15|1 OR 1=1")));
+        assertInvalid(() -> UserCursor.parseByCompany(encode("C|7|"), COMPANY_ID));
+        assertInvalid(() -> UserCursor.parseByCompany(encode("X|7|42"), COMPANY_ID));
+    }
+
+    private static void assertInvalid(Runnable parse) {
+        assertThatThrownBy(parse::run)
+                .isInstanceOf(InvalidOperationException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserSummary user(Long id) {
+        return new UserSummary(id, COMPANY_ID, "jane", "jane@example.com", "Jane", "Doe", null, null,
+                "ACTIVE", "CUSTOMER", Set.of(), true, false, false, null, CREATED_AT, CREATED_AT);
+    }
+}
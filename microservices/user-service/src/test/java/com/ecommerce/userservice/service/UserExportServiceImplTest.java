@@ -0,0 +1,156 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.enums.ExportFormat;
+import com.ecommerce.userservice.exception.TooManyRequestsException;
+import com.ecommerce.userservice.mapper.UserMapper;
+import com.ecommerce.userservice.repository.UserSummary;
+import com.ecommerce.userservice.repository.UserSummaryQueries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserExportServiceImplTest {
+
+    private static final long COMPANY_ID = 7L;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofHours(1);
+
+    private UserSummaryQueries userSummaryQueries;
+    private UserExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        userSummaryQueries = mock(UserSummaryQueries.class);
+        when(userSummaryQueries.streamByCompany(anyLong(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> Stream.of(user("=cmd|' /C calc'!A0@example.com", "+1 555 0100")));
+        exportService = exportService(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void csvNeutralizesFormulasButKeepsPhoneNumbers() throws Exception {
+        String csv = write(exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.CSV, false));
+
+        assertThat(csv).contains(",\"'=cmd|' /C calc'!A0@example.com\",", ",\"+1 555 0100\",");
+    }
+
+    @Test
+    void csvPrefixesSignedValuesThatAreNotNumbers() throws Exception {
+        when(userSummaryQueries.streamByCompany(anyLong(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> Stream.of(user("jane@example.com", "+SUM(A1:A9)")));
+
+        String csv = write(exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.CSV, false));
+
+        assertThat(csv).contains(",jane@example.com,", ",\"'+SUM(A1:A9)\",");
+    }
+
+    @Test
+    void gzipSendsRowsAtEachFlush() throws Exception {
+        // Size of the output at each flush, with a flush after every row
+        List<Integer> flushedSizes = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushedSizes.add(size());
+            }
+        };
+
+        exportService(1).exportCompanyUsers(COMPANY_ID, 0, ExportFormat.CSV, true).writeTo(out);
+
+        // More than the 10-byte gzip header: the first row left the deflater when it was flushed
+        assertThat(flushedSizes.get(0)).isGreaterThan(10);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .startsWith("id,companyId,").contains(",\"+1 555 0100\",");
+        }
+    }
+
+    @Test
+    void bodyReleasesSlotWhenDone() throws Exception {
+        StreamingResponseBody body = exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false);
+        assertThatThrownBy(() -> exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        write(body);
+
+        assertThat(exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false)).isNotNull();
+    }
+
+    @Test
+    void requestEndingWithoutBodyReleasesSlotOnce() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        StreamingResponseBody body = exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false);
+
+        // Async processing starts, but the task is never run before the request ends
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(task -> { }));
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        asyncManager.startCallableProcessing(() -> null);
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(REQUEST_TIMEOUT.toMillis());
+        request.getAsyncContext().complete();
+        RequestContextHolder.resetRequestAttributes();
+
+        assertThat(exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false)).isNotNull();
+
+        // A late run of the abandoned body neither exports nor frees a second slot
+        assertThat(write(body)).isEmpty();
+        verify(userSummaryQueries, never()).streamByCompany(anyLong(), anyLong(), anyInt());
+        assertThatThrownBy(() -> exportService.exportCompanyUsers(COMPANY_ID, 0, ExportFormat.NDJSON, false))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private UserExportServiceImpl exportService(int flushEvery) {
+        return new UserExportServiceImpl(userSummaryQueries, mock(UserMapper.class), new ObjectMapper(),
+                mock(PlatformTransactionManager.class), 1, 100, flushEvery, REQUEST_TIMEOUT);
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static UserSummary user(String email, String phoneNumber) {
+        return new UserSummary(1L, COMPANY_ID, "user1", email, "First", "Last", phoneNumber, null,
+                "ACTIVE", "CUSTOMER", Set.of("ROLE_CUSTOMER"), true, false, false,
+                null, LocalDateTime.of(2024, 1, 1, 0, 0), null);
+    }
+}
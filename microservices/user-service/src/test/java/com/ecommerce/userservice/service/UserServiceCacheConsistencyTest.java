@@ -0,0 +1,177 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.cache.UserCacheEvictor;
+import com.ecommerce.userservice.cache.UserCacheKeys;
+import com.ecommerce.userservice.cache.UserCountCache;
+import com.ecommerce.userservice.dto.request.ChangePasswordRequest;
+import com.ecommerce.userservice.dto.request.UpdateUserRequest;
+import com.ecommerce.userservice.dto.response.UserResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.mapper.UserMapper;
+import com.ecommerce.userservice.permission.UserPermissionCache;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserSummaryQueries;
+import com.ecommerce.userservice.security.JwtTokenProvider;
+import com.ecommerce.userservice.security.LoginAttemptLimiter;
+import com.ecommerce.userservice.security.PasswordHashingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every mutation must drop all cached aliases of the user, and only once the
+ * transaction has committed
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceCacheConsistencyTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String EMAIL = "jane@example.com";
+    private static final String USERNAME = "jane";
+
+    @Mock private UserRepository userRepository;
+    @Mock private UserMapper userMapper;
+    @Mock private PasswordHashingService passwordHashingService;
+    @Mock private JwtTokenProvider jwtTokenProvider;
+    @Mock private RefreshTokenService refreshTokenService;
+    @Mock private LoginAttemptLimiter loginAttemptLimiter;
+    @Mock private LoginLockoutSynchronizer loginLockoutSynchronizer;
+    @Mock private UserActivityService userActivityService;
+    @Mock private UserPermissionCache userPermissionCache;
+    @Mock private UserCountCache userCountCache;
+    @Mock private UserSummaryQueries userSummaryQueries;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UserCacheKeys.CACHE_NAME);
+    private Cache cache;
+    private UserServiceImpl userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, userMapper, passwordHashingService, jwtTokenProvider,
+                new UserCacheEvictor(cacheManager), refreshTokenService, loginAttemptLimiter,
+                loginLockoutSynchronizer, userActivityService, userPermissionCache, userCountCache,
+                userSummaryQueries);
+
+        user = User.builder().id(USER_ID).companyId(7L).email(EMAIL).username(USERNAME)
+                .passwordHash("hash").build();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        cache = cacheManager.getCache(UserCacheKeys.CACHE_NAME);
+        UserResponse cached = UserResponse.builder().id(USER_ID).email(EMAIL).username(USERNAME).build();
+        cache.put(UserCacheKeys.byId(USER_ID), cached);
+        cache.put(UserCacheKeys.byEmail(EMAIL), cached);
+        cache.put(UserCacheKeys.byUsername(USERNAME), cached);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void updateUserEvictsAllAliasesAfterCommit() {
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.updateUser(USER_ID, UpdateUserRequest.builder().firstName("Janet").build());
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void softDeleteUserEvictsAllAliasesAfterCommit() {
+        userService.softDeleteUser(USER_ID);
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void deleteUserEvictsAllAliasesAfterCommit() {
+        userService.deleteUser(USER_ID);
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void changePasswordEvictsAllAliasesAfterCommit() {
+        when(passwordHashingService.matches("old-password", "hash")).thenReturn(true);
+        when(passwordHashingService.encode(anyString())).thenReturn("new-hash");
+
+        userService.changePassword(USER_ID, ChangePasswordRequest.builder()
+                .currentPassword("old-password")
+                .newPassword("new-password")
+                .confirmPassword("new-password")
+                .build());
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void lockAccountEvictsAllAliasesAfterCommit() {
+        userService.lockAccount(USER_ID);
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void updateStatusEvictsAllAliasesAfterCommit() {
+        userService.updateStatus(USER_ID, "suspended");
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void emailChangeEvictsPreviousEmailAlias() {
+        user.setEmail("jane.doe@example.com");
+
+        userService.updateStatus(USER_ID, "active");
+
+        assertEvictedOnlyAfterCommit();
+    }
+
+    @Test
+    void identityChangeEvictsPreviousAliasesWithoutCachedByIdEntry() {
+        cache.evict(UserCacheKeys.byId(USER_ID));
+        doAnswer(invocation -> {
+            user.setEmail("jane.doe@example.com");
+            user.setUsername("janedoe");
+            return null;
+        }).when(userMapper).updateEntityFromRequest(any(UpdateUserRequest.class), any(User.class));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.updateUser(USER_ID, UpdateUserRequest.builder().build());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertThat(cache.get(UserCacheKeys.byEmail(EMAIL))).isNull();
+        assertThat(cache.get(UserCacheKeys.byUsername(USERNAME))).isNull();
+    }
+
+    private void assertEvictedOnlyAfterCommit() {
+        assertThat(cache.get(UserCacheKeys.byId(USER_ID))).isNotNull();
+        assertThat(cache.get(UserCacheKeys.byEmail(EMAIL))).isNotNull();
+        assertThat(cache.get(UserCacheKeys.byUsername(USERNAME))).isNotNull();
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertThat(cache.get(UserCacheKeys.byId(USER_ID))).isNull();
+        assertThat(cache.get(UserCacheKeys.byEmail(EMAIL))).isNull();
+        assertThat(cache.get(UserCacheKeys.byUsername(USERNAME))).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.cache.UserCacheEvictor;
+import com.ecommerce.userservice.cache.UserCacheKeys;
+import com.ecommerce.userservice.cache.UserCountCache;
+import com.ecommerce.userservice.dto.request.LoginRequest;
+import com.ecommerce.userservice.dto.response.AuthResponse;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.entity.UserStatus;
+import com.ecommerce.userservice.exception.AuthenticationException;
+import com.ecommerce.userservice.mapper.UserMapper;
+import com.ecommerce.userservice.permission.UserPermissionCache;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.repository.UserSummaryQueries;
+import com.ecommerce.userservice.security.InMemoryLoginAttemptLimiter;
+import com.ecommerce.userservice.security.JwtTokenProvider;
+import com.ecommerce.userservice.security.PasswordHashingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * An admin unlock has to lift the limiter's lockout as well as the database flag,
+ * otherwise the account stays locked until the limiter's lock expires
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceUnlockTest {
+
+    private static final Long USER_ID = 1L;
+    private static final int MAX_FAILURES = 3;
+    private static final String PASSWORD = "correct-password";
+
+    @Mock private UserRepository userRepository;
+    @Mock private UserMapper userMapper;
+    @Mock private PasswordHashingService passwordHashingService;
+    @Mock private JwtTokenProvider jwtTokenProvider;
+    @Mock private RefreshTokenService refreshTokenService;
+    @Mock private LoginLockoutSynchronizer loginLockoutSynchronizer;
+    @Mock private UserActivityService userActivityService;
+    @Mock private UserPermissionCache userPermissionCache;
+    @Mock private UserCountCache userCountCache;
+    @Mock private UserSummaryQueries userSummaryQueries;
+
+    private final InMemoryLoginAttemptLimiter loginAttemptLimiter =
+            new InMemoryLoginAttemptLimiter(100, 60_000, MAX_FAILURES, 1_800_000, 900_000);
+
+    private UserServiceImpl userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, userMapper, passwordHashingService, jwtTokenProvider,
+                new UserCacheEvictor(new ConcurrentMapCacheManager(UserCacheKeys.CACHE_NAME)), refreshTokenService,
+                loginAttemptLimiter, loginLockoutSynchronizer, userActivityService, userPermissionCache,
+                userCountCache, userSummaryQueries);
+
+        user = User.builder().id(USER_ID).companyId(7L).email("jane@example.com").username("jane")
+                .passwordHash("hash").status(UserStatus.ACTIVE).build();
+        when(userRepository.findByLoginIdentifier("jane")).thenReturn(Optional.of(user));
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(any(), any()))
+                .thenAnswer(invocation -> PASSWORD.equals(invocation.getArgument(0)));
+        // What the asynchronous synchronizer persists once the limiter locks the account
+        doAnswer(invocation -> {
+            user.setAccountLockedUntil(invocation.getArgument(1, LocalDateTime.class));
+            return null;
+        }).when(loginLockoutSynchronizer).syncLockout(any(User.class), any(LocalDateTime.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void unlockedAccountCanLogInAgain() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            assertThatThrownBy(() -> login("wrong-password"))
+                    .isInstanceOf(AuthenticationException.class)
+                    .hasMessage("Invalid credentials");
+        }
+        assertThatThrownBy(() -> login(PASSWORD)).isInstanceOf(AuthenticationException.class);
+
+        userService.unlockAccount(USER_ID);
+        // The limiter keeps its lock until the unlock has committed
+        assertThatThrownBy(() -> login(PASSWORD)).isInstanceOf(AuthenticationException.class);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        AuthResponse response = login(PASSWORD);
+        assertThat(response.getTokenType()).isEqualTo("Bearer");
+        assertThat(user.isAccountLocked()).isFalse();
+    }
+
+    private AuthResponse login(String password) {
+        return userService.login(LoginRequest.builder().emailOrUsername("jane").password(password).build(),
+                "198.51.100.1", "test");
+    }
+}
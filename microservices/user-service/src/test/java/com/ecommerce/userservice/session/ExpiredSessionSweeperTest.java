@@ -0,0 +1,189 @@
+package com.ecommerce.userservice.session;
+
+import com.ecommerce.userservice.support.PostgresTestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sessions used here all expire in 2000, and every sweep uses a cutoff in 2001, so
+ * sessions of other tests are never touched
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+class ExpiredSessionSweeperTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbc = PostgresTestDatabase.jdbcTemplate();
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM user_sessions WHERE expires_at < ?", CUTOFF);
+        userId = jdbc.queryForObject("""
+                INSERT INTO users (company_id, username, email, password_hash)
+                VALUES (1, 'sweeper-' || gen_random_uuid(), gen_random_uuid() || '@example.com', '{bcrypt}hash')
+                RETURNING id
+                """, Long.class);
+    }
+
+    @Test
+    void keysetBatchesMarkEveryExpiredSessionOnce() {
+        // Ten sessions share each expiry, so batch boundaries fall inside runs of equal expires_at
+        insertSessions(1_050, "ACTIVE");
+        long notYetExpired = insertSession("ACTIVE", CUTOFF.plusDays(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        long[] processed = sweeper(meterRegistry, 0).sweep(CUTOFF, null);
+
+        assertThat(processed).containsExactly(1_050, 0);
+        assertThat(count("ACTIVE")).isZero();
+        assertThat(count("EXPIRED")).isEqualTo(1_050);
+        assertThat(jdbc.queryForObject("SELECT status FROM user_sessions WHERE id = ?", String.class, notYetExpired))
+                .isEqualTo("ACTIVE");
+        // Ten full batches and the short one that ends the run
+        assertThat(meterRegistry.get("sessions.sweeper.batch").timer().count()).isEqualTo(11);
+        assertThat(meterRegistry.get("sessions.sweeper.rows").tag("action", "expired").counter().count())
+                .isEqualTo(1_050);
+    }
+
+    @Test
+    void deletesOnlyEndedSessions() {
+        insertSessions(250, "TERMINATED");
+        insertSessions(30, "EXPIRED");
+        insertSessions(40, "ACTIVE");
+
+        long[] processed = sweeper(new SimpleMeterRegistry(), 0).sweep(null, CUTOFF);
+
+        assertThat(processed).containsExactly(0, 280);
+        assertThat(count("TERMINATED") + count("EXPIRED")).isZero();
+        assertThat(count("ACTIVE")).isEqualTo(40);
+    }
+
+    @Test
+    void skipsWhileAnotherNodeHoldsTheLock() throws Exception {
+        insertSessions(10, "ACTIVE");
+        ExpiredSessionSweeper sweeper = sweeper(new SimpleMeterRegistry(), 0);
+
+        try (Connection otherNode = PostgresTestDatabase.dataSource().getConnection();
+             Statement statement = otherNode.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + ExpiredSessionSweeper.ADVISORY_LOCK_KEY + ")");
+            assertThat(sweeper.sweep(CUTOFF, CUTOFF)).isNull();
+            assertThat(count("ACTIVE")).isEqualTo(10);
+            statement.execute("SELECT pg_advisory_unlock(" + ExpiredSessionSweeper.ADVISORY_LOCK_KEY + ")");
+        }
+
+        assertThat(sweeper.sweep(CUTOFF, null)).containsExactly(10, 0);
+    }
+
+    @Test
+    void skipsRowsLockedByOtherTransactionsInsteadOfWaiting() throws Exception {
+        insertSessions(300, "ACTIVE");
+        long busy = jdbc.queryForObject(
+                "SELECT id FROM user_sessions WHERE expires_at < ? ORDER BY expires_at, id OFFSET 150 LIMIT 1",
+                Long.class, CUTOFF);
+        ExpiredSessionSweeper sweeper = sweeper(new SimpleMeterRegistry(), 0);
+
+        try (Connection request = PostgresTestDatabase.dataSource().getConnection();
+             Statement statement = request.createStatement()) {
+            // A request in the middle of updating one session
+            request.setAutoCommit(false);
+            statement.execute("SELECT id FROM user_sessions WHERE id = " + busy + " FOR UPDATE");
+
+            CompletableFuture<long[]> sweep = CompletableFuture.supplyAsync(() -> sweeper.sweep(CUTOFF, null));
+            assertThat(sweep.get(10, TimeUnit.SECONDS)).containsExactly(299, 0);
+            request.rollback();
+        }
+
+        assertThat(jdbc.queryForObject("SELECT status FROM user_sessions WHERE id = ?", String.class, busy))
+                .isEqualTo("ACTIVE");
+        // Picked up by the next run
+        assertThat(sweeper.sweep(CUTOFF, null)).containsExactly(1, 0);
+    }
+
+    @Test
+    void concurrentSweepersProcessEachSessionOnce() throws Exception {
+        insertSessions(2_000, "ACTIVE");
+        insertSessions(1_000, "TERMINATED");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<CompletableFuture<long[]>> sweeps = new ArrayList<>();
+            for (int node = 0; node < 2; node++) {
+                // Pauses keep each run long enough for the two to overlap
+                ExpiredSessionSweeper sweeper = sweeper(new SimpleMeterRegistry(), 5);
+                sweeps.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return sweeper.sweep(CUTOFF, CUTOFF);
+                }, executor));
+            }
+            start.countDown();
+
+            List<long[]> results = new ArrayList<>();
+            for (CompletableFuture<long[]> sweep : sweeps) {
+                results.add(sweep.get(60, TimeUnit.SECONDS));
+            }
+
+            List<long[]> ran = results.stream().filter(Objects::nonNull).toList();
+            assertThat(ran).isNotEmpty();
+            assertThat(ran.stream().mapToLong(result -> result[0]).sum()).isEqualTo(2_000);
+            // The 1,000 terminated sessions, then the 2,000 just marked expired
+            assertThat(ran.stream().mapToLong(result -> result[1]).sum()).isEqualTo(3_000);
+            assertThat(jdbc.queryForObject("SELECT count(*) FROM user_sessions WHERE expires_at < ?",
+                    Long.class, CUTOFF)).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExpiredSessionSweeper sweeper(SimpleMeterRegistry meterRegistry, long pauseMs) {
+        return new ExpiredSessionSweeper(jdbc, meterRegistry, BATCH_SIZE, 500, pauseMs, 30, 1_000_000);
+    }
+
+    private void insertSessions(int count, String status) {
+        jdbc.update("""
+                INSERT INTO user_sessions (user_id, session_token, status, expires_at)
+                SELECT ?, 'sweep-' || gen_random_uuid(), ?, TIMESTAMP '2000-01-01' + (i / 10) * INTERVAL '1 minute'
+                FROM generate_series(1, ?) AS i
+                """, userId, status, count);
+    }
+
+    private long insertSession(String status, LocalDateTime expiresAt) {
+        return jdbc.queryForObject("""
+                INSERT INTO user_sessions (user_id, session_token, status, expires_at)
+                VALUES (?, 'sweep-' || gen_random_uuid(), ?, ?) RETURNING id
+                """, Long.class, userId, status, expiresAt);
+    }
+
+    private long count(String status) {
+        return jdbc.queryForObject("SELECT count(*) FROM user_sessions WHERE status = ? AND expires_at < ?",
+                Long.class, status, CUTOFF);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.userservice.session;
+
+import com.ecommerce.userservice.enums.SessionStatus;
+import com.ecommerce.userservice.support.RedisTestServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+class RedisSessionStoreTest {
+
+    private static final String CHANNEL = "test:session-invalidation";
+    private static final long USER_ID = 42L;
+
+    private final StringRedisTemplate redisTemplate = RedisTestServer.redisTemplate();
+    private RedisMessageListenerContainer listenerContainer;
+    private String deviceId;
+
+    @BeforeEach
+    void setUp() {
+        deviceId = "device-" + UUID.randomUUID();
+        redisTemplate.delete(List.of("session:user:" + USER_ID, "session:device:" + deviceId));
+    }
+
+    @AfterEach
+    void stopListener() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Test
+    void storesSessionUntilExpiryAndIndexesIt() {
+        RedisSessionStore store = store();
+        String tokenHash = newTokenHash();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        store.save(tokenHash, entry(expiresAt));
+
+        assertThat(store.find(tokenHash)).hasValueSatisfying(entry -> {
+            assertThat(entry.getUserId()).isEqualTo(USER_ID);
+            assertThat(entry.getDeviceId()).isEqualTo(deviceId);
+            assertThat(entry.isActive(System.currentTimeMillis())).isTrue();
+        });
+        assertThat(store.findByUser(USER_ID)).contains(tokenHash);
+        assertThat(store.findByDevice(deviceId)).containsExactly(tokenHash);
+        assertThat(redisTemplate.getExpire("session:" + tokenHash)).isBetween(58L, 60L);
+    }
+
+    @Test
+    void deviceTerminationAlsoClearsTheOwnersIndex() {
+        RedisSessionStore store = store();
+        String onDevice = newTokenHash();
+        String elsewhere = newTokenHash();
+        store.save(onDevice, entry(System.currentTimeMillis() + 60_000));
+        store.save(elsewhere, entry(System.currentTimeMillis() + 60_000).toBuilder().deviceId(null).build());
+
+        // As terminateDeviceSessions does: only the device is known
+        store.remove(store.findByDevice(deviceId), null, deviceId);
+
+        assertThat(store.find(onDevice)).isEmpty();
+        assertThat(store.findByDevice(deviceId)).isEmpty();
+        assertThat(store.findByUser(USER_ID)).contains(elsewhere).doesNotContain(onDevice);
+    }
+
+    @Test
+    void removalReachesOtherNodesLocalCache() throws Exception {
+        RedisSessionStore node = store();
+        RedisSessionStore otherNode = store();
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(RedisTestServer.connectionFactory());
+        listenerContainer.addMessageListener(otherNode, new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        String tokenHash = newTokenHash();
+        node.save(tokenHash, entry(System.currentTimeMillis() + 60_000));
+        // Now served from the other node's local cache
+        assertThat(otherNode.find(tokenHash)).isPresent();
+
+        node.remove(List.of(tokenHash), USER_ID, deviceId);
+
+        assertThat(awaitEmpty(otherNode, tokenHash)).isEmpty();
+    }
+
+    private RedisSessionStore store() {
+        // A local cache long enough that only an invalidation can drop an entry during the test
+        return new RedisSessionStore(redisTemplate, CHANNEL, Duration.ofHours(24), Duration.ofMinutes(5), 1_000);
+    }
+
+    private SessionEntry entry(long expiresAtMillis) {
+        return SessionEntry.builder()
+                .sessionId(1L)
+                .userId(USER_ID)
+                .deviceId(deviceId)
+                .status(SessionStatus.ACTIVE)
+                .expiresAtMillis(expiresAtMillis)
+                .build();
+    }
+
+    private static Optional<SessionEntry> awaitEmpty(RedisSessionStore store, String tokenHash)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Optional<SessionEntry> entry = store.find(tokenHash);
+        while (entry.isPresent() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            entry = store.find(tokenHash);
+        }
+        return entry;
+    }
+
+    private static String newTokenHash() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.userservice.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionActivityTrackerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SessionActivityTracker tracker = new SessionActivityTracker(jdbcTemplate, meterRegistry);
+
+    @Test
+    void collapsesTouchesIntoOneUpdatePerSessionKeepingTheLatest() {
+        tracker.touch("b", T0);
+        tracker.touch("a", T0.plusSeconds(5));
+        tracker.touch("a", T0.plusSeconds(1));
+        tracker.touch("b", T0.plusSeconds(9));
+
+        tracker.flush();
+
+        // Token order, one row each, the latest time of each session
+        assertThat(flushedBatches(1).get(0)).containsExactly(
+                new Object[]{timestamp(T0.plusSeconds(5)), "a", timestamp(T0.plusSeconds(5))},
+                new Object[]{timestamp(T0.plusSeconds(9)), "b", timestamp(T0.plusSeconds(9))});
+        assertThat(meterRegistry.get("sessions.activity.flushed").counter().count()).isEqualTo(2);
+
+        tracker.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void forgottenSessionIsNotWritten() {
+        tracker.touch("terminated", T0);
+
+        tracker.forget("terminated");
+        tracker.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutOverwritingNewerTouches() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1, 1});
+        tracker.touch("a", T0);
+        tracker.touch("b", T0);
+
+        tracker.flush();
+        tracker.touch("b", T0.plusSeconds(30));
+        tracker.flush();
+
+        assertThat(flushedBatches(2).get(1)).containsExactly(
+                new Object[]{timestamp(T0), "a", timestamp(T0)},
+                new Object[]{timestamp(T0.plusSeconds(30)), "b", timestamp(T0.plusSeconds(30))});
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> flushedBatches(int expected) {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(expected)).batchUpdate(anyString(), batches.capture());
+        return batches.getAllValues();
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return Timestamp.valueOf(time);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.userservice.support;
+
+import com.ecommerce.userservice.UserServiceApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for repository tests running the JPA slice against the shared PostgreSQL
+ * container. Every prepared statement is recorded by {@link SqlCapture}, and Hibernate
+ * statistics are on, so tests can assert on the SQL and the number of queries.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.cloud.config.import-check.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ecommerce.userservice.support.SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = AbstractJpaRepositoryTest.JpaTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Tag("integration")
+public abstract class AbstractJpaRepositoryTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.registerProperties(registry);
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Entities and repositories of the service, without its web, cache and messaging beans
+     */
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = UserServiceApplication.class)
+    static class JpaTestConfiguration {
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.userservice.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A PostgreSQL query plan read from {@code EXPLAIN (FORMAT JSON)}, flattened so tests
+ * can assert which scans and indexes a query uses
+ */
+public final class ExplainPlan {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String json;
+    private final List<JsonNode> nodes = new ArrayList<>();
+
+    private ExplainPlan(String json) throws Exception {
+        this.json = json;
+        collect(MAPPER.readTree(json).get(0).get("Plan"));
+    }
+
+    public static ExplainPlan of(JdbcTemplate jdbc, String sql, Object... args) {
+        String json = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        try {
+            return new ExplainPlan(json);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unreadable plan: " + json, ex);
+        }
+    }
+
+    /**
+     * Names of all indexes the plan scans
+     */
+    public List<String> indexNames() {
+        return nodes.stream()
+                .filter(node -> node.has("Index Name"))
+                .map(node -> node.get("Index Name").asText())
+                .toList();
+    }
+
+    /**
+     * Whether any node reads the given table sequentially
+     */
+    public boolean hasSeqScanOn(String table) {
+        return nodes.stream().anyMatch(node -> "Seq Scan".equals(node.path("Node Type").asText())
+                && table.equals(node.path("Relation Name").asText()));
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    private void collect(JsonNode node) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child);
+        }
+    }
+}
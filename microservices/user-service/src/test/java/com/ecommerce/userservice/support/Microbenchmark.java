@@ -0,0 +1,56 @@
+package com.ecommerce.userservice.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-test microbenchmark: warms an operation up, then reports its average time
+ * and heap allocation per call on the current thread. Timings are logged for comparison
+ * only; tests assert on allocation, which is stable across machines.
+ */
+@Slf4j
+public final class Microbenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are written here so the JIT cannot eliminate the measured call
+    private static volatile Object sink;
+
+    private Microbenchmark() {
+    }
+
+    public static Result measure(String name, int warmupOps, int measuredOps, Supplier<?> operation) {
+        for (int i = 0; i < warmupOps; i++) {
+            sink = operation.get();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < measuredOps; i++) {
+            sink = operation.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(name, (double) elapsed / measuredOps, (double) allocated / measuredOps);
+        log.info("{}", result);
+        return result;
+    }
+
+    public record Result(String name, double nanosPerOp, double bytesPerOp) {
+
+        public double opsPerSecond() {
+            return 1_000_000_000d / nanosPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %12.1f ns/op %12.1f B/op %14.0f ops/s",
+                    name, nanosPerOp, bytesPerOp, opsPerSecond());
+        }
+    }
+}
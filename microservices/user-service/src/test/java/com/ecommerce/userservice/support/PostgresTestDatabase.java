@@ -0,0 +1,83 @@
+package com.ecommerce.userservice.support;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL container shared by all database tests in a JVM, migrated once with the
+ * service's Flyway scripts. Tests using it should be annotated with
+ * {@code @Testcontainers(disabledWithoutDocker = true)} so they are skipped where
+ * Docker is not available.
+ */
+public final class PostgresTestDatabase {
+
+    private static final PostgreSQLContainer<?> CONTAINER = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("userservice_db");
+
+    private static DataSource dataSource;
+    private static int seededUsers;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static synchronized DataSource dataSource() {
+        if (dataSource == null) {
+            CONTAINER.start();
+            Flyway.configure()
+                    .dataSource(CONTAINER.getJdbcUrl(), CONTAINER.getUsername(), CONTAINER.getPassword())
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+            dataSource = new DriverManagerDataSource(
+                    CONTAINER.getJdbcUrl(), CONTAINER.getUsername(), CONTAINER.getPassword());
+        }
+        return dataSource;
+    }
+
+    public static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    /**
+     * Point a Spring test context at the migrated container
+     */
+    public static void registerProperties(DynamicPropertyRegistry registry) {
+        dataSource();
+        registry.add("spring.datasource.url", CONTAINER::getJdbcUrl);
+        registry.add("spring.datasource.username", CONTAINER::getUsername);
+        registry.add("spring.datasource.password", CONTAINER::getPassword);
+        registry.add("spring.flyway.enabled", () -> "false");
+    }
+
+    /**
+     * Seed at least {@code count} users, spread over 1000 companies with mixed statuses and
+     * types, then refresh planner statistics. Users are named user{n} / user{n}@example.com.
+     * Seeding happens once per JVM; later calls with the same or a smaller count are no-ops.
+     */
+    public static synchronized void seedUsers(int count) {
+        JdbcTemplate jdbc = jdbcTemplate();
+        if (count <= seededUsers) {
+            return;
+        }
+        jdbc.update("""
+                INSERT INTO users (company_id, username, email, password_hash, status, type,
+                                   email_verified, created_at)
+                SELECT i % 1000 + 1,
+                       'user' || i,
+                       'user' || i || '@example.com',
+                       '{bcrypt}$2a$10$seededseededseededseededseededseededseededseededseed',
+                       (ARRAY['ACTIVE', 'ACTIVE', 'ACTIVE', 'INACTIVE', 'SUSPENDED'])[(i / 1000) % 5 + 1],
+                       (ARRAY['CUSTOMER', 'CUSTOMER', 'VENDOR', 'SHOPPER'])[(i / 1000) % 4 + 1],
+                       i % 2 = 0,
+                       TIMESTAMP '2024-01-01' + i * INTERVAL '1 second'
+                FROM generate_series(?, ?) AS i
+                """, seededUsers + 1, count);
+        jdbc.execute("ANALYZE users");
+        seededUsers = count;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.userservice.support;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+
+/**
+ * Redis container shared by all Redis tests in a JVM. Tests using it should be annotated
+ * with {@code @Testcontainers(disabledWithoutDocker = true)} so they are skipped where
+ * Docker is not available.
+ */
+public final class RedisTestServer {
+
+    private static final GenericContainer<?> CONTAINER = new GenericContainer<>("redis:7-alpine")
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private RedisTestServer() {
+    }
+
+    public static synchronized LettuceConnectionFactory connectionFactory() {
+        if (connectionFactory == null) {
+            CONTAINER.start();
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(CONTAINER.getHost(), CONTAINER.getMappedPort(6379)));
+            connectionFactory.afterPropertiesSet();
+        }
+        return connectionFactory;
+    }
+
+    public static StringRedisTemplate redisTemplate() {
+        return new StringRedisTemplate(connectionFactory());
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.userservice.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hibernate statement inspector that records every SQL statement it prepares,
+ * enabled for JPA tests by {@link AbstractJpaRepositoryTest}
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+
+    /**
+     * Captured UPDATE statements against the given table
+     */
+    public static List<String> updatesOf(String table) {
+        String prefix = "update " + table.toLowerCase(Locale.ROOT) + " ";
+        return statements().stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").startsWith(prefix))
+                .toList();
+    }
+
+    /**
+     * Unqualified column names in the SET clause of an UPDATE statement
+     */
+    public static List<String> setColumns(String updateSql) {
+        String sql = updateSql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        String assignments = sql.substring(sql.indexOf(" set ") + 5, sql.lastIndexOf(" where "));
+        return Arrays.stream(assignments.split(","))
+                .map(assignment -> assignment.substring(0, assignment.indexOf('=')).trim())
+                .map(column -> column.substring(column.lastIndexOf('.') + 1))
+                .toList();
+    }
+}